@@ -0,0 +1,25 @@
+#!/bin/sh
+# Тренировочный старт для AppCDS: поднимает контекст приложения без БД и выходит сразу после refresh,
+# записывая загруженные классы в архив. Используется Dockerfile (цель fast-start) и startup-benchmark.sh
+# usage: cds-training-run.sh <распакованный app.jar> <архив .jsa> [доп. аргументы java...]
+set -e
+
+JAR="$1"
+ARCHIVE="$2"
+shift 2
+TRAINING_DATA=$(mktemp -d)
+
+# Без БД: Liquibase и проверка схемы выключены, диалект задан явно, пул соединений не открывается до первого запроса
+java -XX:ArchiveClassesAtExit="$ARCHIVE" \
+    -Dspring.context.exit=onRefresh \
+    -Dspring.datasource.url=jdbc:postgresql://127.0.0.1:1/training \
+    -Dspring.liquibase.enabled=false \
+    -Dapp.schema.verify-on-startup=false \
+    -Dspring.jpa.hibernate.ddl-auto=none \
+    -Dspring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=false \
+    -Dspring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect \
+    -Dapp.storage.root="$TRAINING_DATA" \
+    -Dserver.port=0 \
+    "$@" -jar "$JAR"
+
+rm -rf "$TRAINING_DATA"
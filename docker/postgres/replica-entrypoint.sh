@@ -0,0 +1,13 @@
+#!/bin/bash
+# Первый запуск: клонируем primary через pg_basebackup и стартуем как hot standby
+set -e
+
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+    until pg_basebackup -h "$PRIMARY_HOST" -U replicator -D "$PGDATA" -R -X stream; do
+        echo "Waiting for primary at $PRIMARY_HOST..."
+        sleep 1
+    done
+    chmod 700 "$PGDATA"
+fi
+
+exec postgres -c hot_standby=on
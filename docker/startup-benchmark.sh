@@ -0,0 +1,77 @@
+#!/bin/bash
+# Время до первого успешного запроса (процесс запущен -> 200 на GET /api/v1/products) для вариантов сборки:
+#   jar      - обычный fat jar (как цель runtime в Dockerfile)
+#   cds      - распакованный jar + архив AppCDS
+#   aot      - распакованный jar после Spring AOT (-Pfast-start)
+#   aot-cds  - AOT + AppCDS (как цель fast-start в Dockerfile)
+# Нужна запущенная PostgreSQL (SPRING_DATASOURCE_URL, по умолчанию localhost:5432/banktickets).
+# usage: docker/startup-benchmark.sh [число запусков на вариант, по умолчанию 5] [варианты...]
+set -e
+
+RUNS=${1:-5}
+shift || true
+VARIANTS=${*:-jar cds aot aot-cds}
+PORT=${BENCHMARK_PORT:-18080}
+URL="http://localhost:$PORT/api/v1/products?page=0&size=1"
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+WORK=$(mktemp -d)
+JAR=bank-ticket-system-lab-1-0.0.1-SNAPSHOT.jar
+trap 'rm -rf "$WORK"' EXIT
+
+cd "$ROOT"
+echo "Building variants in $WORK ..."
+# clean между сборками: сгенерированные AOT классы не должны попасть в обычный jar
+build() { # <jar в $WORK> [профиль maven...]
+    local out=$1; shift
+    mvn -B -q -DskipTests "$@" clean package > "$WORK/build.log" 2>&1 || { tail -30 "$WORK/build.log" >&2; exit 1; }
+    cp "target/$JAR" "$WORK/$out"
+}
+build plain.jar
+build aot.jar -Pfast-start
+
+extract() { # <jar> <dir>
+    java -Djarmode=tools -jar "$1" extract --destination "$2" > /dev/null
+    mv "$2/$(basename "$1")" "$2/app.jar"
+}
+extract "$WORK/plain.jar" "$WORK/plain"
+extract "$WORK/aot.jar" "$WORK/aot"
+sh docker/cds-training-run.sh "$WORK/plain/app.jar" "$WORK/plain/app.jsa" > "$WORK/train-plain.log" 2>&1
+sh docker/cds-training-run.sh "$WORK/aot/app.jar" "$WORK/aot/app.jsa" -Dspring.aot.enabled=true > "$WORK/train-aot.log" 2>&1
+
+command_for() {
+    case "$1" in
+        jar)     echo "java -jar $WORK/plain.jar" ;;
+        cds)     echo "java -XX:SharedArchiveFile=$WORK/plain/app.jsa -jar $WORK/plain/app.jar" ;;
+        aot)     echo "java -Dspring.aot.enabled=true -jar $WORK/aot/app.jar" ;;
+        aot-cds) echo "java -XX:SharedArchiveFile=$WORK/aot/app.jsa -Dspring.aot.enabled=true -jar $WORK/aot/app.jar" ;;
+        *)       echo "Unknown variant: $1" >&2; exit 1 ;;
+    esac
+}
+
+# Один запуск: миллисекунды от старта процесса до первого ответа 200
+measure() {
+    local start pid elapsed
+    start=$(date +%s%N)
+    $1 --server.port="$PORT" --app.storage.root="$WORK/data" > "$WORK/run.log" 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "$URL"; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "Application exited, see log:" >&2; tail -20 "$WORK/run.log" >&2; exit 1
+        fi
+        sleep 0.02
+    done
+    elapsed=$(( ($(date +%s%N) - start) / 1000000 ))
+    kill "$pid"; wait "$pid" 2> /dev/null || true
+    echo "$elapsed"
+}
+
+printf "\n%-8s %8s %8s %8s   (ms, %s runs)\n" variant min median max "$RUNS"
+for variant in $VARIANTS; do
+    cmd=$(command_for "$variant")
+    times=()
+    for _ in $(seq "$RUNS"); do
+        times+=("$(measure "$cmd")")
+    done
+    sorted=($(printf "%s\n" "${times[@]}" | sort -n))
+    printf "%-8s %8s %8s %8s\n" "$variant" "${sorted[0]}" "${sorted[$(( RUNS / 2 ))]}" "${sorted[$(( RUNS - 1 ))]}"
+done
@@ -0,0 +1,83 @@
+package com.example.bankticketsystem.benchmark;
+
+import com.example.bankticketsystem.config.BinaryFormatsConfig;
+import com.example.bankticketsystem.config.DtoJsonSerializers;
+import com.example.bankticketsystem.dto.ApplicationDto;
+import com.example.bankticketsystem.dto.DocumentDto;
+import com.example.bankticketsystem.model.enums.ApplicationStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Кодирование и разбор страницы заявок в JSON, CBOR и Smile мапперами приложения;
+// размер страницы в каждом формате печатается при setup
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BinaryFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"50", "500"})
+    public int pageSize;
+
+    private ObjectMapper mapper;
+    private List<ApplicationDto> page;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        BinaryFormatsConfig config = new BinaryFormatsConfig();
+        mapper = switch (format) {
+            case "cbor" -> config.cborHttpMessageConverter(builder()).getObjectMapper();
+            case "smile" -> config.smileHttpMessageConverter(builder()).getObjectMapper();
+            default -> builder().build();
+        };
+        page = new ArrayList<>(pageSize);
+        Instant now = Instant.now();
+        for (int i = 0; i < pageSize; i++) {
+            ApplicationDto a = new ApplicationDto();
+            a.setId(UUID.randomUUID());
+            a.setApplicantId(UUID.randomUUID());
+            a.setProductId(UUID.randomUUID());
+            a.setStatus(ApplicationStatus.values()[i % ApplicationStatus.values().length]);
+            a.setCreatedAt(now.minusNanos(i * 1_000_123L));
+            DocumentDto d = new DocumentDto();
+            d.setId(UUID.randomUUID());
+            d.setFileName("document-" + i + ".pdf");
+            d.setContentType("application/pdf");
+            d.setStoragePath("/docs/" + i);
+            a.setDocuments(List.of(d));
+            a.setTags(List.of("vip", "tag-" + (i % 10)));
+            page.add(a);
+        }
+        encoded = mapper.writeValueAsBytes(page);
+        System.out.printf("%n%s, %d applications: %d bytes%n", format, pageSize, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public ApplicationDto[] decode() throws IOException {
+        return mapper.readValue(encoded, ApplicationDto[].class);
+    }
+
+    // Как у приложения: well-known модули Jackson и сериализаторы @JsonComponent
+    private static Jackson2ObjectMapperBuilder builder() {
+        return new Jackson2ObjectMapperBuilder().modulesToInstall(DtoJsonSerializers.module());
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.bankticketsystem.benchmark;
+
+import com.example.bankticketsystem.exception.BadRequestException;
+import com.example.bankticketsystem.exception.DomainException;
+import com.example.bankticketsystem.exception.GlobalExceptionHandler;
+import com.example.bankticketsystem.exception.NotFoundException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Ответ на 404/400 под потоком запросов сканеров: исключение из глубины stackDepth кадров,
+// legacy - со стеком и телом из LinkedHashMap, problem - DomainException без стека и ProblemDetail
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ErrorResponseBenchmark {
+
+    @Param({"50", "150"})
+    public int stackDepth;
+
+    @Param({"404", "400"})
+    public int status;
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+    private ObjectWriter writer;
+    private MockHttpServletRequest request;
+    private final OutputStream sink = new OutputStream() {
+        @Override
+        public void write(int b) { }
+
+        @Override
+        public void write(byte[] b, int off, int len) { }
+    };
+
+    // Исключения до этого изменения: RuntimeException со стектрейсом
+    private static class LegacyException extends RuntimeException {
+        final HttpStatus status;
+
+        LegacyException(HttpStatus status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        // Как ObjectMapper Spring Boot: в том числе Jackson-миксин для ProblemDetail
+        writer = Jackson2ObjectMapperBuilder.json().build().writer();
+        request = new MockHttpServletRequest("GET", "/api/v1/applications/" + UUID.randomUUID());
+    }
+
+    @Benchmark
+    public void legacy() throws IOException {
+        try {
+            throwAt(stackDepth, true);
+        } catch (LegacyException ex) {
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("timestamp", Instant.now().toString());
+            body.put("status", ex.status.value());
+            body.put("error", ex.status.getReasonPhrase());
+            body.put("message", ex.getMessage());
+            body.put("path", new ServletWebRequest(request).getDescription(false).replace("uri=", ""));
+            writer.writeValue(sink, body);
+        }
+    }
+
+    @Benchmark
+    public void problem() throws IOException {
+        try {
+            throwAt(stackDepth, false);
+        } catch (DomainException ex) {
+            writer.writeValue(sink, handler.handleDomain(ex, request).getBody());
+        }
+    }
+
+    private int throwAt(int depth, boolean legacy) {
+        if (depth > 0) return throwAt(depth - 1, legacy) + 1;
+        String message = status == 404 ? "Application not found: " + request.getRequestURI() : "Invalid cursor";
+        if (legacy) throw new LegacyException(HttpStatus.valueOf(status), message);
+        throw status == 404 ? new NotFoundException(message) : new BadRequestException(message);
+    }
+}
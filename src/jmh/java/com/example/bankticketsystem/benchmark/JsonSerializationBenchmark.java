@@ -0,0 +1,128 @@
+package com.example.bankticketsystem.benchmark;
+
+import com.example.bankticketsystem.config.DtoJsonSerializers;
+import com.example.bankticketsystem.dto.ApplicationDto;
+import com.example.bankticketsystem.dto.ApplicationHistoryDto;
+import com.example.bankticketsystem.dto.DocumentDto;
+import com.example.bankticketsystem.dto.UserDto;
+import com.example.bankticketsystem.model.enums.ApplicationStatus;
+import com.example.bankticketsystem.model.enums.UserRole;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Сериализация страницы DTO: рефлексивные сериализаторы Jackson (default) против DtoJsonSerializers;
+// вывод в пустой поток - измеряется только кодирование
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"50", "500"})
+    public int pageSize;
+
+    private ObjectWriter defaultWriter;
+    private ObjectWriter handWrittenWriter;
+    private List<ApplicationDto> applications;
+    private List<ApplicationHistoryDto> history;
+    private List<UserDto> users;
+    // writeValue закрывает поток, а OutputStream.nullOutputStream() после close() бросает исключение
+    private final OutputStream sink = new OutputStream() {
+        @Override
+        public void write(int b) { }
+
+        @Override
+        public void write(byte[] b, int off, int len) { }
+    };
+
+    @Setup
+    public void setUp() {
+        defaultWriter = mapper().writer();
+        handWrittenWriter = mapper().registerModule(DtoJsonSerializers.module()).writer();
+        applications = new ArrayList<>(pageSize);
+        history = new ArrayList<>(pageSize);
+        users = new ArrayList<>(pageSize);
+        Instant now = Instant.now();
+        for (int i = 0; i < pageSize; i++) {
+            ApplicationDto a = new ApplicationDto();
+            a.setId(UUID.randomUUID());
+            a.setApplicantId(UUID.randomUUID());
+            a.setProductId(UUID.randomUUID());
+            a.setStatus(ApplicationStatus.values()[i % ApplicationStatus.values().length]);
+            a.setCreatedAt(now.minusSeconds(i));
+            DocumentDto d = new DocumentDto();
+            d.setId(UUID.randomUUID());
+            d.setFileName("document-" + i + ".pdf");
+            d.setContentType("application/pdf");
+            d.setStoragePath("/docs/" + i);
+            a.setDocuments(List.of(d));
+            a.setTags(List.of("vip", "tag-" + (i % 10)));
+            applications.add(a);
+
+            ApplicationHistoryDto h = new ApplicationHistoryDto();
+            h.setId(UUID.randomUUID());
+            h.setApplicationId(a.getId());
+            h.setOldStatus(ApplicationStatus.SUBMITTED);
+            h.setNewStatus(ApplicationStatus.IN_REVIEW);
+            h.setChangedByRole(UserRole.ROLE_MANAGER);
+            h.setChangedAt(now);
+            history.add(h);
+
+            UserDto u = new UserDto();
+            u.setId(UUID.randomUUID());
+            u.setUsername("user" + i);
+            u.setEmail("user" + i + "@example.com");
+            u.setPassword("<Hidden>");
+            u.setRole(UserRole.ROLE_CLIENT);
+            u.setCreatedAt(now);
+            users.add(u);
+        }
+    }
+
+    @Benchmark
+    public void applicationsDefault() throws IOException {
+        defaultWriter.writeValue(sink, applications);
+    }
+
+    @Benchmark
+    public void applicationsHandWritten() throws IOException {
+        handWrittenWriter.writeValue(sink, applications);
+    }
+
+    @Benchmark
+    public void historyDefault() throws IOException {
+        defaultWriter.writeValue(sink, history);
+    }
+
+    @Benchmark
+    public void historyHandWritten() throws IOException {
+        handWrittenWriter.writeValue(sink, history);
+    }
+
+    @Benchmark
+    public void usersDefault() throws IOException {
+        defaultWriter.writeValue(sink, users);
+    }
+
+    @Benchmark
+    public void usersHandWritten() throws IOException {
+        handWrittenWriter.writeValue(sink, users);
+    }
+
+    // Настройки как у ObjectMapper Spring Boot
+    private static ObjectMapper mapper() {
+        return new ObjectMapper().findAndRegisterModules().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+}
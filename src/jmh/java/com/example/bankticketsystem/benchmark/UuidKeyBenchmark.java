@@ -0,0 +1,106 @@
+package com.example.bankticketsystem.benchmark;
+
+import com.example.bankticketsystem.util.UuidV7;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.*;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Первичные ключи v4 против v7 (UuidV7): generate - цена одного id из 4 потоков, insertBatch - 1000 строк
+// в таблицу с preloadRows строками; размер индекса печатается в конце. Нужен PostgreSQL:
+// -Dbench.jdbc.url/user/password (по умолчанию localhost:5432/banktickets, postgres), таблица потом удаляется
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UuidKeyBenchmark {
+
+    private static final int BATCH = 1000;
+
+    @Param({"v4", "v7"})
+    public String scheme;
+
+    UUID nextId() {
+        return "v7".equals(scheme) ? UuidV7.next() : UUID.randomUUID();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public UUID generate() {
+        return nextId();
+    }
+
+    @Benchmark
+    public int insertBatch(Db db) throws SQLException {
+        return db.insert(this);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Db {
+
+        @Param({"500000"})
+        public int preloadRows;
+
+        private Connection connection;
+        private PreparedStatement insert;
+        private String table;
+
+        @Setup
+        public void setUp(UuidKeyBenchmark bench) throws SQLException {
+            connection = DriverManager.getConnection(
+                    System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:5432/banktickets"),
+                    System.getProperty("bench.jdbc.user", "postgres"),
+                    System.getProperty("bench.jdbc.password", "postgres"));
+            table = "bench_uuid_key_" + bench.scheme;
+            try (Statement st = connection.createStatement()) {
+                st.execute("DROP TABLE IF EXISTS " + table);
+                st.execute("CREATE TABLE " + table
+                        + " (id uuid PRIMARY KEY, created_at timestamptz NOT NULL, payload varchar(64) NOT NULL)");
+            }
+            // Одна вставка на порцию, как UserBulkRepository
+            insert = connection.prepareStatement("INSERT INTO " + table + " (id, created_at, payload) "
+                    + "SELECT id, ?, payload FROM unnest(?::uuid[], ?::varchar[]) AS t(id, payload)");
+            for (int i = 0; i < preloadRows; i += BATCH) insert(bench);
+            try (Statement st = connection.createStatement()) {
+                st.execute("VACUUM ANALYZE " + table);
+            }
+            printIndexSize("after preload");
+        }
+
+        int insert(UuidKeyBenchmark bench) throws SQLException {
+            UUID[] ids = new UUID[BATCH];
+            String[] payloads = new String[BATCH];
+            for (int i = 0; i < BATCH; i++) {
+                ids[i] = bench.nextId();
+                payloads[i] = "row-" + i;
+            }
+            insert.setTimestamp(1, Timestamp.from(Instant.now()));
+            insert.setArray(2, connection.createArrayOf("uuid", ids));
+            insert.setArray(3, connection.createArrayOf("varchar", payloads));
+            return insert.executeUpdate();
+        }
+
+        @TearDown
+        public void tearDown() throws SQLException {
+            printIndexSize("after run");
+            try (Statement st = connection.createStatement()) {
+                st.execute("DROP TABLE IF EXISTS " + table);
+            }
+            connection.close();
+        }
+
+        private void printIndexSize(String when) throws SQLException {
+            try (Statement st = connection.createStatement();
+                 ResultSet rs = st.executeQuery("SELECT count(*), pg_relation_size('" + table + "_pkey') FROM " + table)) {
+                rs.next();
+                long rows = rs.getLong(1), bytes = rs.getLong(2);
+                System.out.printf("%n%s %s: %d rows, primary key index %d KB (%.1f bytes/row)%n",
+                        table, when, rows, bytes / 1024, (double) bytes / rows);
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.bankticketsystem;
 
+import com.example.bankticketsystem.bootstrap.DatabaseMigration;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
@@ -7,6 +8,11 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 public class BankTicketSystemApplication {
 
 	public static void main(String[] args) {
+		// --migrate: только применить миграции Liquibase и выйти (одноразовая задача при деплое)
+		if (DatabaseMigration.isRequested(args)) {
+			DatabaseMigration.run(args);
+			return;
+		}
 		SpringApplication.run(BankTicketSystemApplication.class, args);
 	}
 
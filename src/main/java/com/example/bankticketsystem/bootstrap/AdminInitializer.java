@@ -3,13 +3,13 @@ package com.example.bankticketsystem.bootstrap;
 import com.example.bankticketsystem.model.entity.User;
 import com.example.bankticketsystem.model.enums.UserRole;
 import com.example.bankticketsystem.repository.UserRepository;
+import com.example.bankticketsystem.util.UuidV7;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import com.password4j.Password;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
-import java.util.UUID;
 
 @Component
 public class AdminInitializer implements ApplicationRunner {
@@ -29,7 +29,7 @@ public class AdminInitializer implements ApplicationRunner {
     private void createIfMissing(String username, String email, String plainPassword) {
         if (userRepository.findByEmail(email).isPresent()) return;
         User u = new User();
-        u.setId(UUID.randomUUID());
+        u.setId(UuidV7.next());
         u.setUsername(username);
         u.setEmail(email.toLowerCase());
         u.setPasswordHash(Password.hash(plainPassword).withBcrypt().getResult());
@@ -0,0 +1,37 @@
+package com.example.bankticketsystem.bootstrap;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+// Режим только миграции (java -jar app.jar --migrate): Liquibase и выход, без веб-сервера, Hibernate и
+// планировщиков - деплой запускает его один раз, а не каждый инстанс при старте.
+// Не @Configuration: сканирование основного приложения не должно его подхватить
+@ImportAutoConfiguration({DataSourceAutoConfiguration.class, LiquibaseAutoConfiguration.class})
+public class DatabaseMigration {
+
+    public static final String MIGRATE_ARG = "--migrate";
+
+    public static boolean isRequested(String[] args) {
+        return Arrays.asList(args).contains(MIGRATE_ARG);
+    }
+
+    public static void run(String[] args) {
+        // Образ fast-start запускается с -Dspring.aot.enabled=true, а AOT-кода для этого контекста нет
+        System.setProperty("spring.aot.enabled", "false");
+        String[] migrateArgs = Stream.concat(Arrays.stream(args).filter(a -> !MIGRATE_ARG.equals(a)),
+                Stream.of("--spring.liquibase.enabled=true")).toArray(String[]::new);
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(DatabaseMigration.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .run(migrateArgs);
+        context.close();
+    }
+}
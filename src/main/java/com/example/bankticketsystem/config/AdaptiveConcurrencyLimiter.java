@@ -0,0 +1,104 @@
+package com.example.bankticketsystem.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.DoubleUnaryOperator;
+
+// AIMD-лимит на число запросов в работе: окно из windowSize запросов со средним временем выше порога уменьшает
+// лимит в backoffRatio раз (не чаще раза за окно), быстрый запрос при загрузке больше половины лимита -
+// увеличивает на 1. Низким приоритетам доступна только доля лимита
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long thresholdNanos;
+    private final double backoffRatio;
+    private final int windowSize;
+    private final Map<Priority, Double> shares = new EnumMap<>(Priority.class);
+    private final Map<Priority, Counter> rejected = new EnumMap<>(Priority.class);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // double в битах long: лимит меняется CAS, без блокировки на каждом release
+    private final AtomicLong limitBits = new AtomicLong();
+    private final AtomicReference<Window> window = new AtomicReference<>(new Window());
+
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties, MeterRegistry registry) {
+        this.minLimit = Math.max(1, properties.getMinLimit());
+        this.maxLimit = Math.max(minLimit, properties.getMaxLimit());
+        this.thresholdNanos = properties.getLatencyThreshold().toNanos();
+        this.backoffRatio = properties.getBackoffRatio();
+        this.windowSize = Math.max(1, properties.getWindowSize());
+        limitBits.set(Double.doubleToLongBits(Math.min(maxLimit, Math.max(minLimit, properties.getInitialLimit()))));
+        shares.put(Priority.HIGH, 1.0);
+        shares.put(Priority.NORMAL, properties.getNormalShare());
+        shares.put(Priority.LOW, properties.getLowShare());
+
+        for (Priority p : Priority.values()) {
+            rejected.put(p, Counter.builder("http.server.requests.shed")
+                    .description("Requests rejected with 503 by the adaptive concurrency limit")
+                    .tag("priority", p.name().toLowerCase())
+                    .register(registry));
+        }
+        Gauge.builder("http.server.concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive limit on requests in flight")
+                .register(registry);
+        Gauge.builder("http.server.concurrency.in.flight", inFlight, AtomicInteger::get)
+                .description("Requests currently admitted by the concurrency limit")
+                .register(registry);
+    }
+
+    public boolean tryAcquire(Priority priority) {
+        int allowed = Math.max(1, (int) (getLimit() * shares.get(priority)));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                rejected.get(priority).increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    public void release(long latencyNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        adjust(latencyNanos, inFlightBefore);
+    }
+
+    private void adjust(long latencyNanos, int inFlightBefore) {
+        if (latencyNanos <= thresholdNanos) {
+            updateLimit(l -> inFlightBefore * 2 >= l ? Math.min(maxLimit, l + 1) : l);
+        }
+        Window current = window.get();
+        current.latencySum.addAndGet(latencyNanos);
+        // Окно закрывает ровно один поток - тот, чей запрос оказался в нём последним
+        if (current.samples.incrementAndGet() == windowSize) {
+            window.set(new Window());
+            if (current.latencySum.get() / windowSize > thresholdNanos) {
+                updateLimit(l -> Math.max(minLimit, l * backoffRatio));
+            }
+        }
+    }
+
+    private void updateLimit(DoubleUnaryOperator change) {
+        while (true) {
+            long current = limitBits.get();
+            long next = Double.doubleToLongBits(change.applyAsDouble(Double.longBitsToDouble(current)));
+            if (next == current || limitBits.compareAndSet(current, next)) return;
+        }
+    }
+
+    public double getLimit() { return Double.longBitsToDouble(limitBits.get()); }
+
+    public int getInFlight() { return inFlight.get(); }
+
+    private static final class Window {
+        final AtomicLong samples = new AtomicLong();
+        final AtomicLong latencySum = new AtomicLong();
+    }
+}
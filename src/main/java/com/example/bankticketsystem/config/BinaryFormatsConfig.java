@@ -0,0 +1,47 @@
+package com.example.bankticketsystem.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.util.List;
+
+// Бинарные форматы для внутренних клиентов по Accept / Content-Type: application/cbor и application/x-jackson-smile.
+// JSON остаётся по умолчанию; мапперы из билдера Boot, так что DtoJsonSerializers работают и здесь.
+// UUID пишутся 16 байтами, Instant - секундами с долей; ошибки (ProblemDetail) кодируются так же
+@Configuration(proxyBeanMethods = false)
+public class BinaryFormatsConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(binaryMapper(builder.factory(new CBORFactory()))) {
+            // По умолчанию ProblemDetail пишет только JSON-конвертер
+            @Override
+            protected List<MediaType> getMediaTypesForProblemDetail() {
+                return getSupportedMediaTypes();
+            }
+        };
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(binaryMapper(builder.factory(new SmileFactory()))) {
+            @Override
+            protected List<MediaType> getMediaTypesForProblemDetail() {
+                return getSupportedMediaTypes();
+            }
+        };
+    }
+
+    // builder - prototype-бин Boot, поэтому factory() не влияет на JSON-маппер
+    private static ObjectMapper binaryMapper(Jackson2ObjectMapperBuilder builder) {
+        return builder.featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+    }
+}
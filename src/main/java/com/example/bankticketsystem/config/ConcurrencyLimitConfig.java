@@ -0,0 +1,36 @@
+package com.example.bankticketsystem.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Адаптивный лимит перед контроллерами API; actuator не ограничивается, чтобы health отвечал и при перегрузке
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class ConcurrencyLimitConfig implements WebMvcConfigurer {
+
+    private final ConcurrencyLimitProperties properties;
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public ConcurrencyLimitConfig(ConcurrencyLimitProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.limiter = new AdaptiveConcurrencyLimiter(properties, registry);
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter() {
+        return limiter;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry interceptors) {
+        // Не @ConditionalOnProperty: в AOT-сборке (fast-start) условия фиксируются при сборке
+        if (!properties.isEnabled()) return;
+        interceptors.addInterceptor(new ConcurrencyLimitInterceptor(limiter, properties.getControllers()))
+                .addPathPatterns("/api/**")
+                .excludePathPatterns(properties.getExcludedPaths());
+    }
+}
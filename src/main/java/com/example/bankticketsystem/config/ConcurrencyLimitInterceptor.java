@@ -0,0 +1,88 @@
+package com.example.bankticketsystem.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Пропускает вызовы контроллеров через адаптивный лимит, иначе 503. Приоритет: @RequestPriority метода,
+// app.concurrency.controllers, @RequestPriority класса, затем GET = NORMAL, остальное = HIGH
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+
+    private static final String STARTED_AT = ConcurrencyLimitInterceptor.class.getName() + ".startedAt";
+    private static final String HANDLED_AT = ConcurrencyLimitInterceptor.class.getName() + ".handledAt";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Map<String, Priority> controllerPriorities;
+    private final Map<Method, Optional<Priority>> declared = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimitInterceptor(AdaptiveConcurrencyLimiter limiter, Map<String, Priority> controllerPriorities) {
+        this.limiter = limiter;
+        this.controllerPriorities = Map.copyOf(controllerPriorities);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!(handler instanceof HandlerMethod method)) return true;
+        Priority priority = priorityOf(method, request.getMethod());
+        if (!limiter.tryAcquire(priority)) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            JsonErrorWriter.write(response, HttpStatus.SERVICE_UNAVAILABLE,
+                    "Server is overloaded, " + priority.name().toLowerCase() + " priority requests are shed, retry later",
+                    request.getRequestURI());
+            return false;
+        }
+        request.setAttribute(STARTED_AT, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        handlerReturned(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object startedAt = request.getAttribute(STARTED_AT);
+        if (startedAt != null) {
+            Object handledAt = request.getAttribute(HANDLED_AT);
+            request.removeAttribute(STARTED_AT);
+            request.removeAttribute(HANDLED_AT);
+            // Слот занят до конца запроса, а в лимит идёт только время обработчика
+            long finishedAt = handledAt != null ? (long) handledAt : System.nanoTime();
+            limiter.release(finishedAt - (long) startedAt);
+        }
+    }
+
+    // Обработчик вернул результат, дальше - сериализация и запись тела: их время зависит от размера
+    // ответа и скорости клиента, а не от нагрузки на сервер. Вызывается из HandlerTimeAdvice перед
+    // записью тела @ResponseBody, для остальных ответов - из postHandle
+    static void handlerReturned(HttpServletRequest request) {
+        if (request.getAttribute(STARTED_AT) != null && request.getAttribute(HANDLED_AT) == null) {
+            request.setAttribute(HANDLED_AT, System.nanoTime());
+        }
+    }
+
+    Priority priorityOf(HandlerMethod method, String httpMethod) {
+        return declared.computeIfAbsent(method.getMethod(), m -> declaredPriority(method))
+                .orElse("GET".equals(httpMethod) || "HEAD".equals(httpMethod) ? Priority.NORMAL : Priority.HIGH);
+    }
+
+    private Optional<Priority> declaredPriority(HandlerMethod method) {
+        RequestPriority onMethod = method.getMethodAnnotation(RequestPriority.class);
+        if (onMethod != null) return Optional.of(onMethod.value());
+        Priority configured = controllerPriorities.get(method.getBeanType().getSimpleName());
+        if (configured != null) return Optional.of(configured);
+        RequestPriority onClass = method.getBeanType().getAnnotation(RequestPriority.class);
+        return onClass != null ? Optional.of(onClass.value()) : Optional.empty();
+    }
+}
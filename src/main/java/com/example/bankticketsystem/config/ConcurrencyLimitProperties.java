@@ -0,0 +1,75 @@
+package com.example.bankticketsystem.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "app.concurrency")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+
+    private int initialLimit = 20;
+    private int minLimit = 4;
+    // Не больше числа потоков Tomcat (server.tomcat.threads.max, по умолчанию 200)
+    private int maxLimit = 200;
+
+    // Среднее время запросов окна выше порога - признак перегрузки: лимит умножается на backoffRatio, раз за окно
+    private Duration latencyThreshold = Duration.ofMillis(500);
+    private double backoffRatio = 0.9;
+    private int windowSize = 20;
+
+    // Доля лимита, доступная запросам NORMAL и LOW; остаток зарезервирован под более приоритетные
+    private double normalShare = 0.8;
+    private double lowShare = 0.5;
+
+    // Приоритет по умолчанию для всех методов контроллера, ключ - простое имя класса (ApplicationController)
+    private Map<String, Priority> controllers = new HashMap<>();
+
+    // Ant-шаблоны путей вне лимита: время передачи файла (и импорта из него) зависит от его размера, а пересчёта
+    // статистики и сводок - от объёма данных, а не от нагрузки
+    private List<String> excludedPaths = new ArrayList<>(List.of(
+            "/api/v1/documents/uploads",
+            "/api/v1/applications/*/documents/*/content",
+            "/api/v1/applications/*/documents.zip",
+            "/api/v1/users/import",
+            "/api/v1/applications/stats/reconcile",
+            "/api/v1/applications/summaries/rebuild"));
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getInitialLimit() { return initialLimit; }
+    public void setInitialLimit(int initialLimit) { this.initialLimit = initialLimit; }
+
+    public int getMinLimit() { return minLimit; }
+    public void setMinLimit(int minLimit) { this.minLimit = minLimit; }
+
+    public int getMaxLimit() { return maxLimit; }
+    public void setMaxLimit(int maxLimit) { this.maxLimit = maxLimit; }
+
+    public Duration getLatencyThreshold() { return latencyThreshold; }
+    public void setLatencyThreshold(Duration latencyThreshold) { this.latencyThreshold = latencyThreshold; }
+
+    public double getBackoffRatio() { return backoffRatio; }
+    public void setBackoffRatio(double backoffRatio) { this.backoffRatio = backoffRatio; }
+
+    public int getWindowSize() { return windowSize; }
+    public void setWindowSize(int windowSize) { this.windowSize = windowSize; }
+
+    public double getNormalShare() { return normalShare; }
+    public void setNormalShare(double normalShare) { this.normalShare = normalShare; }
+
+    public double getLowShare() { return lowShare; }
+    public void setLowShare(double lowShare) { this.lowShare = lowShare; }
+
+    public Map<String, Priority> getControllers() { return controllers; }
+    public void setControllers(Map<String, Priority> controllers) { this.controllers = controllers; }
+
+    public List<String> getExcludedPaths() { return excludedPaths; }
+    public void setExcludedPaths(List<String> excludedPaths) { this.excludedPaths = excludedPaths; }
+}
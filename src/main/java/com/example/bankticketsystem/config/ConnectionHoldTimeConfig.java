@@ -0,0 +1,60 @@
+package com.example.bankticketsystem.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.function.Supplier;
+
+// Стандартный трекер Micrometer для пулов Hikari (hikaricp.*), который ещё и добавляет время
+// использования соединения к текущему запросу в ConnectionHoldTimeFilter
+@Configuration(proxyBeanMethods = false)
+public class ConnectionHoldTimeConfig {
+
+    // static: BeanPostProcessor создаётся раньше остальных бинов; реестр метрик берётся лениво при старте пула
+    @Bean
+    public static BeanPostProcessor connectionHoldTimeTrackerInstaller(ObjectProvider<MeterRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari
+                        && hikari.getMetricRegistry() == null && hikari.getMetricsTrackerFactory() == null) {
+                    hikari.setMetricsTrackerFactory(trackerFactory(registry::getObject));
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Пулы, созданные вручную (реплики в ReadReplicaDataSourceConfig), не бины - им фабрика ставится явно
+    public static MetricsTrackerFactory trackerFactory(Supplier<MeterRegistry> registry) {
+        return (poolName, poolStats) -> {
+            IMetricsTracker delegate = new MicrometerMetricsTrackerFactory(registry.get()).create(poolName, poolStats);
+            return new IMetricsTracker() {
+                @Override
+                public void recordConnectionCreatedMillis(long millis) { delegate.recordConnectionCreatedMillis(millis); }
+
+                @Override
+                public void recordConnectionAcquiredNanos(long nanos) { delegate.recordConnectionAcquiredNanos(nanos); }
+
+                @Override
+                public void recordConnectionUsageMillis(long millis) {
+                    delegate.recordConnectionUsageMillis(millis);
+                    ConnectionHoldTimeFilter.connectionReleased(millis);
+                }
+
+                @Override
+                public void recordConnectionTimeout() { delegate.recordConnectionTimeout(); }
+
+                @Override
+                public void close() { delegate.close(); }
+            };
+        };
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.bankticketsystem.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Суммарное время удержания соединений JDBC за запрос API (http.server.requests.connection.hold по method и uri);
+// время сообщает трекер Hikari при возврате соединения в пул (ConnectionHoldTimeConfig)
+@Component
+public class ConnectionHoldTimeFilter extends OncePerRequestFilter {
+
+    private static final ThreadLocal<long[]> HELD_MILLIS = new ThreadLocal<>();
+
+    private final MeterRegistry registry;
+
+    public ConnectionHoldTimeFilter(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    // Вызывается в потоке, который вернул соединение в пул
+    static void connectionReleased(long usageMillis) {
+        long[] held = HELD_MILLIS.get();
+        if (held != null) held[0] += usageMillis;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long[] held = new long[1];
+        HELD_MILLIS.set(held);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            HELD_MILLIS.remove();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            Timer.builder("http.server.requests.connection.hold")
+                    .description("Total time a request held pooled JDBC connections")
+                    .tag("method", request.getMethod())
+                    .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                    .register(registry)
+                    .record(held[0], TimeUnit.MILLISECONDS);
+        }
+    }
+}
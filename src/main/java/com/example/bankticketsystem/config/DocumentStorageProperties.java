@@ -0,0 +1,29 @@
+package com.example.bankticketsystem.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.storage")
+public class DocumentStorageProperties {
+
+    // Корневой каталог хранилища файлов документов
+    private Path root = Path.of("data/documents");
+
+    // Максимальный размер одного загружаемого файла
+    private DataSize maxFileSize = DataSize.ofMegabytes(50);
+
+    // Загруженный, но так и не привязанный к заявке файл (или файл удалённого документа) удаляется через это время
+    private Duration orphanTtl = Duration.ofHours(24);
+
+    public Path getRoot() { return root; }
+    public void setRoot(Path root) { this.root = root; }
+
+    public DataSize getMaxFileSize() { return maxFileSize; }
+    public void setMaxFileSize(DataSize maxFileSize) { this.maxFileSize = maxFileSize; }
+
+    public Duration getOrphanTtl() { return orphanTtl; }
+    public void setOrphanTtl(Duration orphanTtl) { this.orphanTtl = orphanTtl; }
+}
@@ -0,0 +1,176 @@
+package com.example.bankticketsystem.config;
+
+import com.example.bankticketsystem.dto.ApplicationDto;
+import com.example.bankticketsystem.dto.ApplicationHistoryDto;
+import com.example.bankticketsystem.dto.DocumentDto;
+import com.example.bankticketsystem.dto.UserDto;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+// Ручные сериализаторы DTO, которые массово отдают list, stream и history: поля пишутся прямо в генератор,
+// без интроспекции и рефлексии. Вывод как у Jackson по умолчанию (порядок полей, null, ISO-8601, без
+// ApplicationDto.version); в бинарных форматах UUID пишутся байтами
+@JsonComponent
+public class DtoJsonSerializers {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString APPLICANT_ID = new SerializedString("applicantId");
+    private static final SerializableString PRODUCT_ID = new SerializedString("productId");
+    private static final SerializableString STATUS = new SerializedString("status");
+    private static final SerializableString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializableString DOCUMENTS = new SerializedString("documents");
+    private static final SerializableString TAGS = new SerializedString("tags");
+    private static final SerializableString FILE_NAME = new SerializedString("fileName");
+    private static final SerializableString CONTENT_TYPE = new SerializedString("contentType");
+    private static final SerializableString STORAGE_PATH = new SerializedString("storagePath");
+    private static final SerializableString SIZE = new SerializedString("size");
+    private static final SerializableString APPLICATION_ID = new SerializedString("applicationId");
+    private static final SerializableString OLD_STATUS = new SerializedString("oldStatus");
+    private static final SerializableString NEW_STATUS = new SerializedString("newStatus");
+    private static final SerializableString CHANGED_BY_ROLE = new SerializedString("changedByRole");
+    private static final SerializableString CHANGED_AT = new SerializedString("changedAt");
+    private static final SerializableString USERNAME = new SerializedString("username");
+    private static final SerializableString EMAIL = new SerializedString("email");
+    private static final SerializableString PASSWORD = new SerializedString("password");
+    private static final SerializableString ROLE = new SerializedString("role");
+
+    // Для ObjectMapper вне контекста Spring (бенчмарки, тесты)
+    public static SimpleModule module() {
+        return new SimpleModule("DtoJsonSerializers")
+                .addSerializer(ApplicationDto.class, new ApplicationDtoSerializer())
+                .addSerializer(ApplicationHistoryDto.class, new ApplicationHistoryDtoSerializer())
+                .addSerializer(UserDto.class, new UserDtoSerializer());
+    }
+
+    public static class ApplicationDtoSerializer extends JsonSerializer<ApplicationDto> {
+        @Override
+        public void serialize(ApplicationDto dto, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(dto);
+            writeUuid(gen, ID, dto.getId());
+            writeUuid(gen, APPLICANT_ID, dto.getApplicantId());
+            writeUuid(gen, PRODUCT_ID, dto.getProductId());
+            writeEnum(gen, STATUS, dto.getStatus());
+            writeInstant(gen, provider, CREATED_AT, dto.getCreatedAt());
+
+            gen.writeFieldName(DOCUMENTS);
+            List<DocumentDto> documents = dto.getDocuments();
+            if (documents == null) {
+                gen.writeNull();
+            } else {
+                gen.writeStartArray(documents, documents.size());
+                for (DocumentDto d : documents) {
+                    if (d == null) {
+                        gen.writeNull();
+                        continue;
+                    }
+                    gen.writeStartObject(d);
+                    writeUuid(gen, ID, d.getId());
+                    writeString(gen, FILE_NAME, d.getFileName());
+                    writeString(gen, CONTENT_TYPE, d.getContentType());
+                    writeString(gen, STORAGE_PATH, d.getStoragePath());
+                    gen.writeFieldName(SIZE);
+                    if (d.getSize() == null) gen.writeNull();
+                    else gen.writeNumber(d.getSize());
+                    gen.writeEndObject();
+                }
+                gen.writeEndArray();
+            }
+
+            gen.writeFieldName(TAGS);
+            List<String> tags = dto.getTags();
+            if (tags == null) {
+                gen.writeNull();
+            } else {
+                gen.writeStartArray(tags, tags.size());
+                for (String t : tags) gen.writeString(t);
+                gen.writeEndArray();
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    public static class ApplicationHistoryDtoSerializer extends JsonSerializer<ApplicationHistoryDto> {
+        @Override
+        public void serialize(ApplicationHistoryDto dto, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(dto);
+            writeUuid(gen, ID, dto.getId());
+            writeUuid(gen, APPLICATION_ID, dto.getApplicationId());
+            writeEnum(gen, OLD_STATUS, dto.getOldStatus());
+            writeEnum(gen, NEW_STATUS, dto.getNewStatus());
+            writeEnum(gen, CHANGED_BY_ROLE, dto.getChangedByRole());
+            writeInstant(gen, provider, CHANGED_AT, dto.getChangedAt());
+            gen.writeEndObject();
+        }
+    }
+
+    public static class UserDtoSerializer extends JsonSerializer<UserDto> {
+        @Override
+        public void serialize(UserDto dto, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(dto);
+            writeUuid(gen, ID, dto.getId());
+            writeString(gen, USERNAME, dto.getUsername());
+            writeString(gen, EMAIL, dto.getEmail());
+            writeString(gen, PASSWORD, dto.getPassword());
+            writeEnum(gen, ROLE, dto.getRole());
+            writeInstant(gen, provider, CREATED_AT, dto.getCreatedAt());
+            gen.writeEndObject();
+        }
+    }
+
+    private static void writeUuid(JsonGenerator gen, SerializableString name, UUID value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else if (gen.canWriteBinaryNatively() && !(gen instanceof TokenBuffer)) {
+            // CBOR/Smile: 16 байт вместо строки, как в стандартном UUIDSerializer (TokenBuffer - convertValue)
+            gen.writeBinary(toBytes(value));
+        } else {
+            gen.writeString(value.toString());
+        }
+    }
+
+    private static byte[] toBytes(UUID value) {
+        return ByteBuffer.allocate(16)
+                .putLong(value.getMostSignificantBits())
+                .putLong(value.getLeastSignificantBits())
+                .array();
+    }
+
+    private static void writeString(JsonGenerator gen, SerializableString name, String value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) gen.writeNull();
+        else gen.writeString(value);
+    }
+
+    private static void writeEnum(JsonGenerator gen, SerializableString name, Enum<?> value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) gen.writeNull();
+        else gen.writeString(value.name());
+    }
+
+    private static void writeInstant(JsonGenerator gen, SerializerProvider provider,
+                                     SerializableString name, Instant value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else if (provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)) {
+            // Нестандартная настройка маппера - отдаём формат на откуп JavaTimeModule
+            provider.defaultSerializeValue(value, gen);
+        } else {
+            gen.writeString(value.toString());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.bankticketsystem.config;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+// Тело @ResponseBody пишется в сокет ещё до postHandle: отмечаем момент перед записью,
+// чтобы медленный клиент не уменьшал адаптивный лимит (ConcurrencyLimitInterceptor)
+@ControllerAdvice
+public class HandlerTimeAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest) {
+            ConcurrencyLimitInterceptor.handlerReturned(servletRequest.getServletRequest());
+        }
+        return body;
+    }
+}
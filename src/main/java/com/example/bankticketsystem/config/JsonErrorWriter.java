@@ -0,0 +1,28 @@
+package com.example.bankticketsystem.config;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.time.Instant;
+
+// Ответ об ошибке из фильтров и интерсепторов - в том же формате (ProblemDetail + прежние поля), что у GlobalExceptionHandler
+final class JsonErrorWriter {
+
+    private JsonErrorWriter() {}
+
+    static void write(HttpServletResponse response, HttpStatus status, String message, String path) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        response.getWriter().write("{\"type\":\"about:blank\",\"title\":\"" + status.getReasonPhrase() +
+                "\",\"status\":" + status.value() + ",\"detail\":\"" + escape(message) +
+                "\",\"instance\":\"" + escape(path) + "\",\"timestamp\":\"" + Instant.now() +
+                "\",\"error\":\"" + status.getReasonPhrase() + "\",\"message\":\"" + escape(message) +
+                "\",\"path\":\"" + escape(path) + "\"}");
+    }
+
+    private static String escape(String s) {
+        return s == null ? "" : s.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
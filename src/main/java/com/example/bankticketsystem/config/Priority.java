@@ -0,0 +1,8 @@
+package com.example.bankticketsystem.config;
+
+// При перегрузке запросы отбрасываются начиная с LOW
+public enum Priority {
+    HIGH,
+    NORMAL,
+    LOW
+}
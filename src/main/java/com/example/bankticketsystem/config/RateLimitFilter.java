@@ -0,0 +1,118 @@
+package com.example.bankticketsystem.config;
+
+import com.example.bankticketsystem.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Token bucket на актора для /api/**: актор - параметр actorId, если это существующий пользователь, иначе IP клиента.
+// Отдельные корзины для чтения, записи и админских операций; корзины в ограниченном кэше Caffeine
+@Component
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    public enum Category { READ, WRITE, ADMIN }
+
+    private final RateLimitProperties properties;
+    private final UserRepository userRepository;
+    private final Map<Category, RateLimitProperties.Limit> limits = new EnumMap<>(Category.class);
+    private final Map<Category, Counter> rejected = new EnumMap<>(Category.class);
+    private final Cache<String, TokenBucket> buckets;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public RateLimitFilter(RateLimitProperties properties, UserRepository userRepository, MeterRegistry registry) {
+        this.properties = properties;
+        this.userRepository = userRepository;
+        limits.put(Category.READ, properties.getRead());
+        limits.put(Category.WRITE, properties.getWrite());
+        limits.put(Category.ADMIN, properties.getAdmin());
+        for (Category c : Category.values()) {
+            rejected.put(c, Counter.builder("http.server.requests.rate.limited")
+                    .description("Requests rejected with 429 by the rate limiter")
+                    .tag("category", c.name().toLowerCase())
+                    .register(registry));
+        }
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBuckets())
+                .expireAfterAccess(properties.getIdleTimeout())
+                .build();
+        Gauge.builder("rate.limit.buckets", buckets, Cache::estimatedSize)
+                .description("Token buckets currently held in memory")
+                .register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Проверка при запросе, а не @ConditionalOnProperty: в AOT-сборке (fast-start) условия фиксируются при сборке
+        return !properties.isEnabled() || !request.getRequestURI().startsWith("/api/") || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Category category = categorize(request);
+        RateLimitProperties.Limit limit = limits.get(category);
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(bucketKey(category, request),
+                k -> new TokenBucket(limit.getCapacity(), limit.getRefillPerSecond(), now));
+
+        long waitNanos = bucket.tryConsume(now);
+        if (waitNanos == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        rejected.get(category).increment();
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        JsonErrorWriter.write(response, HttpStatus.TOO_MANY_REQUESTS, "Rate limit exceeded for " +
+                category.name().toLowerCase() + " requests, retry after " + retryAfter + "s", request.getRequestURI());
+    }
+
+    Category categorize(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        for (String pattern : properties.getAdminPaths()) {
+            if (pathMatcher.match(pattern, path)) return Category.ADMIN;
+        }
+        String method = request.getMethod();
+        return "GET".equals(method) || "HEAD".equals(method) ? Category.READ : Category.WRITE;
+    }
+
+    // Своя корзина только у существующего пользователя: иначе каждый новый случайный UUID в actorId давал бы
+    // полную корзину и вытеснял корзины настоящих акторов. Есть корзина - актор уже проверен; иначе поиск по
+    // первичному ключу, обычно из кэша второго уровня (регион user). Остальные запросы - в корзину IP
+    private String bucketKey(Category category, HttpServletRequest request) {
+        UUID actorId = parseActorId(request.getParameter("actorId"));
+        if (actorId != null) {
+            String key = category.name() + ":actor:" + actorId;
+            if (buckets.getIfPresent(key) != null || userRepository.findById(actorId).isPresent()) return key;
+        }
+        return category.name() + ":ip:" + request.getRemoteAddr();
+    }
+
+    private static UUID parseActorId(String actorId) {
+        if (actorId == null || actorId.isBlank()) return null;
+        try {
+            return UUID.fromString(actorId.trim());
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.bankticketsystem.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Верхняя граница числа корзин в памяти; при переполнении вытесняются давно не использованные
+    private long maxBuckets = 100_000;
+
+    // Корзина без запросов дольше этого времени удаляется (к этому моменту она всё равно полная)
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    private Limit read = new Limit(100, 50);
+    private Limit write = new Limit(20, 10);
+    private Limit admin = new Limit(5, 0.2);
+
+    // Ant-шаблоны путей тяжёлых админских операций, у них своя, более строгая корзина
+    private List<String> adminPaths = new ArrayList<>(List.of(
+            "/api/v1/applications/stats/reconcile",
+            "/api/v1/applications/summaries/rebuild",
+            "/api/v1/users/import"));
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public long getMaxBuckets() { return maxBuckets; }
+    public void setMaxBuckets(long maxBuckets) { this.maxBuckets = maxBuckets; }
+
+    public Duration getIdleTimeout() { return idleTimeout; }
+    public void setIdleTimeout(Duration idleTimeout) { this.idleTimeout = idleTimeout; }
+
+    public Limit getRead() { return read; }
+    public void setRead(Limit read) { this.read = read; }
+
+    public Limit getWrite() { return write; }
+    public void setWrite(Limit write) { this.write = write; }
+
+    public Limit getAdmin() { return admin; }
+    public void setAdmin(Limit admin) { this.admin = admin; }
+
+    public List<String> getAdminPaths() { return adminPaths; }
+    public void setAdminPaths(List<String> adminPaths) { this.adminPaths = adminPaths; }
+
+    public static class Limit {
+        // Размер всплеска
+        private int capacity;
+        // Устойчивая скорость, запросов в секунду
+        private double refillPerSecond;
+
+        public Limit() {}
+
+        public Limit(int capacity, double refillPerSecond) {
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+        }
+
+        public int getCapacity() { return capacity; }
+        public void setCapacity(int capacity) { this.capacity = capacity; }
+
+        public double getRefillPerSecond() { return refillPerSecond; }
+        public void setRefillPerSecond(double refillPerSecond) { this.refillPerSecond = refillPerSecond; }
+    }
+}
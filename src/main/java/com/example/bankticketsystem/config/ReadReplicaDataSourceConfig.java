@@ -0,0 +1,66 @@
+package com.example.bankticketsystem.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// Основная БД + реплики вместо автонастроенного datasource при app.datasource.routing.enabled=true:
+// запись и работа вне транзакций - на основную, @Transactional(readOnly = true) - на реплики
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+@ConditionalOnProperty(prefix = "app.datasource.routing", name = "enabled", havingValue = "true")
+public class ReadReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource ds = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        ds.setPoolName("primary");
+        return ds;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             ReadReplicaProperties properties,
+                                                             MeterRegistry registry) {
+        List<ReplicaTarget> targets = new ArrayList<>();
+        int i = 0;
+        for (ReadReplicaProperties.Replica r : properties.getReplicas()) {
+            String name = r.getName() != null ? r.getName() : "replica-" + i;
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName(name);
+            pool.setJdbcUrl(r.getUrl());
+            pool.setUsername(r.getUsername());
+            pool.setPassword(r.getPassword());
+            pool.setMaximumPoolSize(r.getMaximumPoolSize());
+            pool.setReadOnly(true);
+            // hikaricp.* и время удержания соединения в запросе, как у основного пула
+            pool.setMetricsTrackerFactory(ConnectionHoldTimeConfig.trackerFactory(() -> registry));
+            targets.add(new ReplicaTarget(name, pool, properties.getMaxReplicationLag(), registry));
+            i++;
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, targets, registry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ReplicaHealthChecker replicaHealthChecker(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new ReplicaHealthChecker(replicaRoutingDataSource.getReplicas());
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.bankticketsystem.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+// Периодически измеряет отставание реплик; недоступная или отстающая больше порога реплика
+// не получает чтение, пока не догонит
+public class ReplicaHealthChecker {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaHealthChecker.class);
+
+    // Если реплика успела проиграть весь полученный WAL, отставания нет, даже когда на primary давно не было записей
+    static final String LAG_QUERY =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())), 0) END";
+
+    private final List<ReplicaTarget> replicas;
+
+    public ReplicaHealthChecker(List<ReplicaTarget> replicas) {
+        this.replicas = replicas;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.routing.health-check-interval:5s}")
+    public void checkAll() {
+        for (ReplicaTarget replica : replicas) {
+            check(replica);
+        }
+    }
+
+    void check(ReplicaTarget replica) {
+        boolean wasUsable = replica.isUsable();
+        try (Connection con = replica.getDataSource().getConnection();
+             Statement st = con.createStatement()) {
+            st.setQueryTimeout(2);
+            try (ResultSet rs = st.executeQuery(LAG_QUERY)) {
+                rs.next();
+                replica.markHealthy(rs.getDouble(1));
+            }
+        } catch (Exception ex) {
+            replica.markDown();
+            if (wasUsable) {
+                log.warn("Replica {} is unreachable, routing reads to primary: {}", replica.getName(), ex.getMessage());
+            }
+            return;
+        }
+        if (wasUsable != replica.isUsable()) {
+            log.info("Replica {} is now {} (lag {}s)", replica.getName(),
+                    replica.isUsable() ? "in rotation" : "out of rotation", replica.getLagSeconds());
+        }
+    }
+}
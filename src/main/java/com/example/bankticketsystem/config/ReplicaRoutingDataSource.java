@@ -0,0 +1,86 @@
+package com.example.bankticketsystem.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Read-only транзакции - на здоровую реплику (по кругу), остальное - на основную БД.
+// Нужен LazyConnectionDataSourceProxy: флаг read-only привязывается к транзакции после запроса соединения
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private final List<ReplicaTarget> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Map<String, Counter> routeCounters = new HashMap<>();
+    private final Counter fallbackCounter;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<ReplicaTarget> replicas, MeterRegistry registry) {
+        this.replicas = List.copyOf(replicas);
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        routeCounters.put(PRIMARY, routeCounter(registry, PRIMARY));
+        for (ReplicaTarget r : this.replicas) {
+            targets.put(r.getName(), r.getDataSource());
+            routeCounters.put(r.getName(), routeCounter(registry, r.getName()));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        this.fallbackCounter = Counter.builder("datasource.routing.fallbacks")
+                .description("Read-only connections sent to the primary because no replica was usable")
+                .register(registry);
+    }
+
+    private static Counter routeCounter(MeterRegistry registry, String route) {
+        return Counter.builder("datasource.routing.connections")
+                .description("Connections handed out per routing target")
+                .tag("route", route)
+                .register(registry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String key = PRIMARY;
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            ReplicaTarget replica = pickReplica();
+            if (replica != null) {
+                key = replica.getName();
+            } else {
+                fallbackCounter.increment();
+            }
+        }
+        routeCounters.get(key).increment();
+        return key;
+    }
+
+    public List<ReplicaTarget> getReplicas() {
+        return replicas;
+    }
+
+    public void close() throws Exception {
+        for (ReplicaTarget r : replicas) {
+            if (r.getDataSource() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private ReplicaTarget pickReplica() {
+        int size = replicas.size();
+        if (size == 0) return null;
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            ReplicaTarget candidate = replicas.get((start + i) % size);
+            if (candidate.isUsable()) return candidate;
+        }
+        return null;
+    }
+}
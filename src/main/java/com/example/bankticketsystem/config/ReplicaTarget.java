@@ -0,0 +1,52 @@
+package com.example.bankticketsystem.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// Пул реплики и её состояние по последней проверке
+public class ReplicaTarget {
+
+    private final String name;
+    private final DataSource dataSource;
+    private final Duration maxLag;
+
+    // До первой проверки реплика считается недоступной, чтобы не читать с неё устаревшие данные
+    private volatile boolean healthy = false;
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReplicaTarget(String name, DataSource dataSource, Duration maxLag, MeterRegistry registry) {
+        this.name = name;
+        this.dataSource = dataSource;
+        this.maxLag = maxLag;
+        Gauge.builder("datasource.replica.lag.seconds", this, t -> t.lagSeconds)
+                .description("Replication lag observed by the last health check")
+                .tag("replica", name)
+                .register(registry);
+        Gauge.builder("datasource.replica.usable", this, t -> t.isUsable() ? 1 : 0)
+                .description("1 if read-only traffic is currently routed to this replica")
+                .tag("replica", name)
+                .register(registry);
+    }
+
+    public String getName() { return name; }
+    public DataSource getDataSource() { return dataSource; }
+    public boolean isHealthy() { return healthy; }
+    public double getLagSeconds() { return lagSeconds; }
+
+    public boolean isUsable() {
+        return healthy && lagSeconds <= maxLag.toMillis() / 1000.0;
+    }
+
+    void markHealthy(double lagSeconds) {
+        this.lagSeconds = lagSeconds;
+        this.healthy = true;
+    }
+
+    void markDown() {
+        this.healthy = false;
+        this.lagSeconds = Double.NaN;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.bankticketsystem.config;
+
+import java.lang.annotation.*;
+
+// Приоритет метода (или всех методов контроллера) для адаптивного лимита;
+// без аннотации GET - NORMAL, изменяющие запросы - HIGH
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequestPriority {
+    Priority value();
+}
@@ -0,0 +1,88 @@
+package com.example.bankticketsystem.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.function.Consumer;
+
+// Проверка при старте вместо Liquibase на каждом инстансе: все changeset'ы мастер-changelog должны быть
+// в databasechangelog (их применяет --migrate). Один запрос без блокировки; лишние changeset'ы в БД
+// допустимы, чтобы старые инстансы работали после миграции следующего релиза
+public class SchemaVersionCheck implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaVersionCheck.class);
+
+    record ChangeSet(String id, String author, String file) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ResourceLoader resourceLoader;
+    private final String changeLog;
+    private final boolean enabled;
+
+    public SchemaVersionCheck(JdbcTemplate jdbcTemplate, ResourceLoader resourceLoader, String changeLog, boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.resourceLoader = resourceLoader;
+        this.changeLog = changeLog;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enabled) return;
+        List<ChangeSet> expected = expectedChangeSets();
+        Set<ChangeSet> applied = new HashSet<>();
+        try {
+            jdbcTemplate.query("SELECT id, author, filename FROM databasechangelog",
+                    rs -> { applied.add(new ChangeSet(rs.getString(1), rs.getString(2), rs.getString(3))); });
+        } catch (DataAccessException ex) {
+            throw new IllegalStateException("Database schema is not initialized, run the application with --migrate first", ex);
+        }
+        List<String> missing = expected.stream().filter(c -> !applied.contains(c)).map(ChangeSet::id).toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Database schema is behind this build, run the application with --migrate. "
+                    + "Missing changesets: " + missing);
+        }
+        log.info("Database schema is up to date ({} changesets)", expected.size());
+    }
+
+    // Все changeset'ы из файлов, подключённых в master changelog (пути файлов - от корня classpath, как их пишет Liquibase)
+    List<ChangeSet> expectedChangeSets() {
+        List<ChangeSet> result = new ArrayList<>();
+        readElements(resourceLoader.getResource(changeLog), "include", include -> {
+            String file = include.getAttributeValue(null, "file");
+            readElements(resourceLoader.getResource("classpath:" + file), "changeSet", changeSet -> result.add(new ChangeSet(
+                    changeSet.getAttributeValue(null, "id"), changeSet.getAttributeValue(null, "author"), file)));
+        });
+        return result;
+    }
+
+    private static void readElements(Resource resource, String element, Consumer<XMLStreamReader> action) {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        try (InputStream in = resource.getInputStream()) {
+            XMLStreamReader reader = factory.createXMLStreamReader(in);
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamReader.START_ELEMENT && element.equals(reader.getLocalName())) {
+                    action.accept(reader);
+                }
+            }
+            reader.close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot read changelog " + resource, ex);
+        } catch (XMLStreamException ex) {
+            throw new IllegalStateException("Cannot parse changelog " + resource, ex);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.bankticketsystem.config;
+
+import liquibase.integration.spring.SpringLiquibase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+// При выключенном на старте Liquibase схема проверяется SchemaVersionCheck до валидации Hibernate:
+// на непромигрированной БД приложение падает с понятным сообщением
+@Configuration(proxyBeanMethods = false)
+public class SchemaVersionCheckConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaVersionCheckConfig.class);
+
+    // spring.liquibase.enabled читается при старте, а не в @ConditionalOnProperty: в AOT-сборке (fast-start)
+    // условия, в том числе автоконфигурации Liquibase, фиксируются при сборке
+    @Bean
+    public SchemaVersionCheck schemaVersionCheck(DataSource dataSource, ResourceLoader resourceLoader,
+                                                 ObjectProvider<SpringLiquibase> liquibase,
+                                                 @Value("${spring.liquibase.enabled:true}") boolean liquibaseEnabled,
+                                                 @Value("${spring.liquibase.change-log}") String changeLog,
+                                                 @Value("${app.schema.verify-on-startup:true}") boolean enabled) {
+        if (liquibaseEnabled) {
+            // Миграции при старте: проверять нечего, если Liquibase действительно есть в контексте
+            if (liquibase.getIfAvailable() != null) enabled = false;
+            else log.warn("spring.liquibase.enabled=true has no effect in this build (Spring AOT fixed it at build time); "
+                    + "apply migrations with --migrate");
+        }
+        return new SchemaVersionCheck(new JdbcTemplate(dataSource), resourceLoader, changeLog, enabled);
+    }
+
+    // Как у Liquibase: EntityManagerFactory (и ddl-auto: validate) создаётся только после проверки
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor schemaVersionCheckDependsOn() {
+        return new EntityManagerFactoryDependsOnPostProcessor(SchemaVersionCheck.class);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.bankticketsystem.config;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+// Token bucket без блокировок: состояние - неизменяемый снимок, заменяемый через compareAndSet
+public class TokenBucket {
+
+    private record State(double tokens, long refilledAt) {}
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final AtomicReference<State> state;
+
+    public TokenBucket(int capacity, double refillPerSecond, long now) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("capacity must be >= 1 and refillPerSecond > 0");
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerSecond / 1_000_000_000d;
+        this.state = new AtomicReference<>(new State(capacity, now));
+    }
+
+    // 0 - токен взят; иначе через сколько наносекунд появится следующий токен
+    public long tryConsume(long now) {
+        while (true) {
+            State s = state.get();
+            long at = Math.max(now, s.refilledAt());
+            double tokens = Math.min(capacity, s.tokens() + (at - s.refilledAt()) * tokensPerNano);
+            if (tokens < 1) {
+                return (long) Math.ceil((1 - tokens) / tokensPerNano);
+            }
+            if (state.compareAndSet(s, new State(tokens - 1, at))) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.bankticketsystem.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.users.import")
+public class UserImportProperties {
+
+    // Строк на один проход: проверка дубликатов в БД, хэширование и вставка идут пачками такого размера
+    private int chunkSize = 1000;
+
+    // Потоков для bcrypt; 0 - по числу процессоров
+    private int hashParallelism = 0;
+
+    // Сколько ошибок по строкам попадает в отчёт; остальные только считаются
+    private int maxReportedErrors = 1000;
+
+    public int getChunkSize() { return chunkSize; }
+    public void setChunkSize(int chunkSize) { this.chunkSize = chunkSize; }
+
+    public int getHashParallelism() { return hashParallelism; }
+    public void setHashParallelism(int hashParallelism) { this.hashParallelism = hashParallelism; }
+
+    public int getMaxReportedErrors() { return maxReportedErrors; }
+    public void setMaxReportedErrors(int maxReportedErrors) { this.maxReportedErrors = maxReportedErrors; }
+}
@@ -1,11 +1,21 @@
 package com.example.bankticketsystem.controller;
 
+import com.example.bankticketsystem.config.Priority;
+import com.example.bankticketsystem.config.RequestPriority;
 import com.example.bankticketsystem.dto.ApplicationDto;
+import com.example.bankticketsystem.dto.ApplicationFilter;
 import com.example.bankticketsystem.dto.ApplicationHistoryDto;
 import com.example.bankticketsystem.dto.ApplicationRequest;
+import com.example.bankticketsystem.dto.ApplicationStatsDto;
+import com.example.bankticketsystem.dto.ApplicationSummaryDto;
 import com.example.bankticketsystem.exception.BadRequestException;
 import com.example.bankticketsystem.util.ApplicationPage;
 import com.example.bankticketsystem.service.ApplicationService;
+import com.example.bankticketsystem.service.ApplicationStatsService;
+import com.example.bankticketsystem.service.ApplicationViewService;
+import com.example.bankticketsystem.service.IdempotencyService;
+import com.example.bankticketsystem.util.ApplicationSummaryPage;
+import com.example.bankticketsystem.util.ETagUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -13,6 +23,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -20,6 +31,7 @@ import org.springframework.web.util.UriComponentsBuilder;
 import jakarta.servlet.http.HttpServletResponse;
 import java.net.URI;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Tag(name = "Applications", description = "API for managing applications")
@@ -29,40 +41,71 @@ public class ApplicationController {
 
     private static final int MAX_PAGE_SIZE = 50;
     private final ApplicationService applicationService;
+    private final ApplicationStatsService statsService;
+    private final ApplicationViewService viewService;
+    private final IdempotencyService idempotencyService;
 
-    public ApplicationController(ApplicationService applicationService) {
+    public ApplicationController(ApplicationService applicationService,
+                                 ApplicationStatsService statsService,
+                                 ApplicationViewService viewService,
+                                 IdempotencyService idempotencyService) {
         this.applicationService = applicationService;
+        this.statsService = statsService;
+        this.viewService = viewService;
+        this.idempotencyService = idempotencyService;
     }
 
-    // Create: POST "/api/v1/applications" + ApplicationRequest(applicantId,productId,documents(fileName,contentType,storagePath)) (Body)
+    // Create: POST "/api/v1/applications" [Idempotency-Key: <key>] + ApplicationRequest(applicantId,productId,documents(fileName,contentType,storagePath|sha256)) (Body)
     @Operation(summary = "Create a new application", description = "Registers a new application: applicantId, productId, documents " +
-            "(fileName, contentType, storagePath), tags ([name,...])")
+            "(fileName, contentType and either storagePath or sha256 of a file from POST /api/v1/documents/uploads), tags ([name,...]). With an Idempotency-Key header a retried request " +
+            "returns the first response (marked with Idempotent-Replayed: true) instead of creating a duplicate")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Application created successfully"),
-            @ApiResponse(responseCode = "400", description = "Invalid request body"),
-            @ApiResponse(responseCode = "404", description = "Applicant or product with their ID are not found")
+            @ApiResponse(responseCode = "400", description = "Invalid request body or Idempotency-Key"),
+            @ApiResponse(responseCode = "404", description = "Applicant, product or uploaded file with their ID are not found"),
+            @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still in progress"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key was already used with a different request body")
     })
     @PostMapping
-    public ResponseEntity<ApplicationDto> create(@Valid @RequestBody ApplicationRequest req, UriComponentsBuilder uriBuilder) {
+    public ResponseEntity<ApplicationDto> create(@Valid @RequestBody ApplicationRequest req,
+                                                 @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                                 UriComponentsBuilder uriBuilder) {
+        if (idempotencyKey == null) {
+            return doCreate(req, uriBuilder);
+        }
+        return idempotencyService.execute(idempotencyKey, req, ApplicationDto.class, () -> doCreate(req, uriBuilder));
+    }
+
+    private ResponseEntity<ApplicationDto> doCreate(ApplicationRequest req, UriComponentsBuilder uriBuilder) {
         ApplicationDto dto = applicationService.createApplication(req);
         URI location = uriBuilder.path("/api/v1/applications/{id}").buildAndExpand(dto.getId()).toUri();
         return ResponseEntity.created(location).body(dto);
     }
 
-    // ReadAll: GET "/api/v1/applications?page=0&size=20"
-    @Operation(summary = "Read all applications with pagination", description = "Returns a paginated list of applications")
+    // ReadAll: GET "/api/v1/applications?page=0&size=20&status=SUBMITTED&productId=&createdFrom=&createdTo=&tag=&tagMode=any"
+    @Operation(summary = "Read all applications with pagination", description = "Returns a paginated list of applications, " +
+            "optionally filtered by status (several values allowed), productId, createdFrom/createdTo (ISO-8601, [from, to)) " +
+            "and tags (tagMode=any|all)")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "List of applications"),
-            @ApiResponse(responseCode = "400", description = "Page size too large")
+            @ApiResponse(responseCode = "400", description = "Page size too large or invalid filter")
     })
+    @RequestPriority(Priority.LOW)
     @GetMapping
     public ResponseEntity<List<ApplicationDto>> list(@RequestParam(defaultValue = "0") int page,
                                                      @RequestParam(defaultValue = "20") int size,
+                                                     @RequestParam(required = false) List<String> status,
+                                                     @RequestParam(required = false) UUID productId,
+                                                     @RequestParam(required = false) String createdFrom,
+                                                     @RequestParam(required = false) String createdTo,
+                                                     @RequestParam(required = false) List<String> tag,
+                                                     @RequestParam(required = false) String tagMode,
                                                      HttpServletResponse response) {
         if (size > MAX_PAGE_SIZE) {
             throw new BadRequestException("size cannot be greater than " + MAX_PAGE_SIZE);
         }
-        Page<ApplicationDto> p = applicationService.list(page, size);
+        ApplicationFilter filter = ApplicationFilter.of(status, productId, createdFrom, createdTo, tag, tagMode);
+        Page<ApplicationDto> p = applicationService.list(page, size, filter);
         response.setHeader("X-Total-Count", String.valueOf(p.getTotalElements()));
         return ResponseEntity.ok(p.getContent());
     }
@@ -72,28 +115,98 @@ public class ApplicationController {
             "ID, applicantId, productId, status, createdAt, documents (fileName, contentType, storagePath), tags ([name,...])")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Data about a single user"),
+            @ApiResponse(responseCode = "304", description = "Application has not changed since the ETag in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Product with this ID is not found")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<ApplicationDto> get(@PathVariable UUID id) {
+    public ResponseEntity<ApplicationDto> get(@PathVariable UUID id,
+                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            // Дешёвая проверка: читаем только версию, документы и теги не загружаются
+            Optional<Long> version = applicationService.findVersion(id);
+            if (version.isEmpty()) return ResponseEntity.notFound().build();
+            String etag = ETagUtil.of(id, version.get());
+            if (ETagUtil.matchesAny(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
         ApplicationDto dto = applicationService.get(id);
-        return dto == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(dto);
+        return dto == null ? ResponseEntity.notFound().build()
+                : ResponseEntity.ok().eTag(ETagUtil.of(dto.getId(), dto.getVersion())).body(dto);
     }
 
     // ReadAllByStream: GET “/api/v1/applications/stream?cursor=<base64>&limit=20
-    @Operation(summary = "Read all applications with endless scrolling", description = "Returns endless scrolling of the list of applications by cursor")
+    @Operation(summary = "Read all applications with endless scrolling", description = "Returns endless scrolling of the list of applications by cursor. " +
+            "Accepts the same filters as the paginated list; the cursor must be used with the same filters")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "List of applications"),
-            @ApiResponse(responseCode = "400", description = "Page size too large")
+            @ApiResponse(responseCode = "400", description = "Page size too large or invalid filter")
     })
+    @RequestPriority(Priority.LOW)
     @GetMapping("/stream")
     public ResponseEntity<List<ApplicationDto>> stream(@RequestParam(required = false) String cursor,
-                                                       @RequestParam(required = false, defaultValue = "20") int limit) {
+                                                       @RequestParam(required = false, defaultValue = "20") int limit,
+                                                       @RequestParam(required = false) List<String> status,
+                                                       @RequestParam(required = false) UUID productId,
+                                                       @RequestParam(required = false) String createdFrom,
+                                                       @RequestParam(required = false) String createdTo,
+                                                       @RequestParam(required = false) List<String> tag,
+                                                       @RequestParam(required = false) String tagMode) {
         if (limit > 50) {
             throw new BadRequestException("limit cannot be greater than 50");
         }
 
-        ApplicationPage page = applicationService.streamWithNextCursor(cursor, limit);
+        ApplicationFilter filter = ApplicationFilter.of(status, productId, createdFrom, createdTo, tag, tagMode);
+        ApplicationPage page = applicationService.streamWithNextCursor(cursor, limit, filter);
+
+        HttpHeaders headers = new HttpHeaders();
+        if (page.nextCursor() != null) {
+            headers.add("X-Next-Cursor", page.nextCursor());
+        }
+        return ResponseEntity.ok().headers(headers).body(page.items());
+    }
+
+    // ReadSummaries: GET "/api/v1/applications/summaries?cursor=<base64>&limit=20"
+    @Operation(summary = "Read application summaries with endless scrolling", description = "Returns applications with applicant " +
+            "username, product name, tag names and document count from the denormalized read model. " +
+            "The cursor for the next page is returned in the X-Next-Cursor header")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "List of application summaries"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or page size too large")
+    })
+    @RequestPriority(Priority.LOW)
+    @GetMapping("/summaries")
+    public ResponseEntity<List<ApplicationSummaryDto>> summaries(@RequestParam(required = false) String cursor,
+                                                                 @RequestParam(required = false, defaultValue = "20") int limit) {
+        if (limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("limit cannot be greater than " + MAX_PAGE_SIZE);
+        }
+        ApplicationSummaryPage page = viewService.listSummaries(cursor, limit);
+
+        HttpHeaders headers = new HttpHeaders();
+        if (page.nextCursor() != null) {
+            headers.add("X-Next-Cursor", page.nextCursor());
+        }
+        return ResponseEntity.ok().headers(headers).body(page.items());
+    }
+
+    // Search: GET "/api/v1/applications/search?q={query}&cursor=<base64>&limit=20"
+    @Operation(summary = "Full-text search over applications", description = "Searches applications by product name, tag names " +
+            "and document file names (web search syntax: \"phrase\", or, -word). Results are ordered by relevance; " +
+            "the cursor for the next page is returned in the X-Next-Cursor header")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Matching application summaries, most relevant first"),
+            @ApiResponse(responseCode = "400", description = "Empty or too long query, invalid cursor or page size too large")
+    })
+    @RequestPriority(Priority.LOW)
+    @GetMapping("/search")
+    public ResponseEntity<List<ApplicationSummaryDto>> search(@RequestParam("q") String q,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false, defaultValue = "20") int limit) {
+        if (limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("limit cannot be greater than " + MAX_PAGE_SIZE);
+        }
+        ApplicationSummaryPage page = viewService.search(q, cursor, limit);
 
         HttpHeaders headers = new HttpHeaders();
         if (page.nextCursor() != null) {
@@ -102,6 +215,48 @@ public class ApplicationController {
         return ResponseEntity.ok().headers(headers).body(page.items());
     }
 
+    // RebuildSummaries: POST "/api/v1/applications/summaries/rebuild?actorId={adminId}"
+    @Operation(summary = "Rebuild the application read model", description = "Regenerates all application summaries from the " +
+            "base tables if the actor has sufficient rights. Returns the number of rows written in X-Total-Count")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Read model rebuilt"),
+            @ApiResponse(responseCode = "401", description = "Actor is unauthorized (actorId is null"),
+            @ApiResponse(responseCode = "403", description = "Insufficient level of actor's rights (not ADMIN)"),
+            @ApiResponse(responseCode = "404", description = "Actor with this ID is not found")
+    })
+    @RequestPriority(Priority.LOW)
+    @PostMapping("/summaries/rebuild")
+    public ResponseEntity<Void> rebuildSummaries(@RequestParam("actorId") UUID actorId) {
+        int rows = viewService.rebuild(actorId);
+        return ResponseEntity.noContent().header("X-Total-Count", String.valueOf(rows)).build();
+    }
+
+    // ReadStats: GET "/api/v1/applications/stats"
+    @Operation(summary = "Read application statistics", description = "Returns counts of applications: total, by status, " +
+            "by product ID and by tag name. Served from incrementally maintained counters, not by scanning applications")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Application counts")
+    })
+    @GetMapping("/stats")
+    public ResponseEntity<ApplicationStatsDto> stats() {
+        return ResponseEntity.ok(statsService.getStats());
+    }
+
+    // ReconcileStats: POST "/api/v1/applications/stats/reconcile?actorId={adminId}"
+    @Operation(summary = "Rebuild application statistics", description = "Recounts all statistics counters from the applications " +
+            "and tags tables if the actor has sufficient rights")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Counters rebuilt, returns the new statistics"),
+            @ApiResponse(responseCode = "401", description = "Actor is unauthorized (actorId is null"),
+            @ApiResponse(responseCode = "403", description = "Insufficient level of actor's rights (not ADMIN)"),
+            @ApiResponse(responseCode = "404", description = "Actor with this ID is not found")
+    })
+    @RequestPriority(Priority.LOW)
+    @PostMapping("/stats/reconcile")
+    public ResponseEntity<ApplicationStatsDto> reconcileStats(@RequestParam("actorId") UUID actorId) {
+        return ResponseEntity.ok(statsService.reconcile(actorId));
+    }
+
     // Update(addTags): PUT “/api/v1/applications/{id}/tags?actorId={applicantOrManagerId}” + List<String> tags (Body)
     @Operation(summary = "Update the list of tags for a specific application found by ID", description = "Add some tags of single application " +
             "if the actor has sufficient rights")
@@ -109,12 +264,14 @@ public class ApplicationController {
             @ApiResponse(responseCode = "204", description = "Tags added successfully"),
             @ApiResponse(responseCode = "401", description = "Actor is unauthorized (actorId is null"),
             @ApiResponse(responseCode = "403", description = "Insufficient level of actor's rights (not APPLICANT, ADMIN or MANAGER)"),
-            @ApiResponse(responseCode = "404", description = "Application or actor with their ID are not found")
+            @ApiResponse(responseCode = "404", description = "Application or actor with their ID are not found"),
+            @ApiResponse(responseCode = "412", description = "Application has changed since the ETag in If-Match")
     })
     @PutMapping("/{id}/tags")
-    public ResponseEntity<Void> addTags(@PathVariable UUID id, @RequestBody List<String> tags, @RequestParam("actorId") UUID actorId) {
-        applicationService.attachTags(id, tags, actorId);
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<Void> addTags(@PathVariable UUID id, @RequestBody List<String> tags, @RequestParam("actorId") UUID actorId,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long version = applicationService.attachTags(id, tags, actorId, ETagUtil.expectedVersion(ifMatch, id));
+        return ResponseEntity.noContent().eTag(ETagUtil.of(id, version)).build();
     }
 
     // Delete(deleteTags): DELETE “/api/v1/applications/{id}/tags?actorId={applicantOrManagerId}” + List<String> tags (Body)
@@ -124,12 +281,14 @@ public class ApplicationController {
             @ApiResponse(responseCode = "204", description = "Tags removed successfully"),
             @ApiResponse(responseCode = "401", description = "Actor is unauthorized (actorId is null"),
             @ApiResponse(responseCode = "403", description = "Insufficient level of actor's rights (not APPLICANT, ADMIN or MANAGER)"),
-            @ApiResponse(responseCode = "404", description = "Application or actor with their ID are not found")
+            @ApiResponse(responseCode = "404", description = "Application or actor with their ID are not found"),
+            @ApiResponse(responseCode = "412", description = "Application has changed since the ETag in If-Match")
     })
     @DeleteMapping("/{id}/tags")
-    public ResponseEntity<Void> removeTags(@PathVariable UUID id, @RequestBody List<String> tags, @RequestParam("actorId") UUID actorId) {
-        applicationService.removeTags(id, tags, actorId);
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<Void> removeTags(@PathVariable UUID id, @RequestBody List<String> tags, @RequestParam("actorId") UUID actorId,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long version = applicationService.removeTags(id, tags, actorId, ETagUtil.expectedVersion(ifMatch, id));
+        return ResponseEntity.noContent().eTag(ETagUtil.of(id, version)).build();
     }
 
     // Update(changeStatus): PUT “/api/v1/applications/{id}/status?actorId={actorId}” + ApplicationStatus
@@ -142,13 +301,35 @@ public class ApplicationController {
             @ApiResponse(responseCode = "403", description = "Insufficient level of actor's rights (not ADMIN or MANAGER)"),
             @ApiResponse(responseCode = "404", description = "Application or actor with their ID are not found"),
             @ApiResponse(responseCode = "409", description = "Status must be correct (DRAFT, SUBMITTED, IN_REVIEW, APPROVED, or REJECTED) " +
-                    "and managers cannot update the status of their own application")
+                    "and managers cannot update the status of their own application"),
+            @ApiResponse(responseCode = "412", description = "Application has changed since the ETag in If-Match")
     })
     @PutMapping("/{id}/status")
     public ResponseEntity<ApplicationDto> changeStatus(
-            @PathVariable("id") UUID id, @RequestBody String status, @RequestParam("actorId") UUID actorId) {
-        ApplicationDto updated = applicationService.changeStatus(id, status, actorId);
-        return ResponseEntity.ok(updated);
+            @PathVariable("id") UUID id, @RequestBody String status, @RequestParam("actorId") UUID actorId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        ApplicationDto updated = applicationService.changeStatus(id, status, actorId, ETagUtil.expectedVersion(ifMatch, id));
+        return ResponseEntity.ok().eTag(ETagUtil.of(updated.getId(), updated.getVersion())).body(updated);
+    }
+
+    // Claim: POST "/api/v1/applications/claim?actorId={managerOrAdminId}&limit=10"
+    @Operation(summary = "Claim submitted applications for review", description = "Atomically moves up to limit oldest SUBMITTED " +
+            "applications of the manager's assigned products (any product for admin) to IN_REVIEW and records history. " +
+            "Applications being claimed concurrently by other managers are skipped, so each one is claimed exactly once")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Claimed applications (empty if the queue is empty)"),
+            @ApiResponse(responseCode = "400", description = "limit must be between 1 and 50"),
+            @ApiResponse(responseCode = "401", description = "Actor is unauthorized (actorId is null"),
+            @ApiResponse(responseCode = "403", description = "Insufficient level of actor's rights (not ADMIN or MANAGER)"),
+            @ApiResponse(responseCode = "404", description = "Actor with this ID is not found")
+    })
+    @PostMapping("/claim")
+    public ResponseEntity<List<ApplicationDto>> claim(@RequestParam("actorId") UUID actorId,
+                                                      @RequestParam(required = false, defaultValue = "10") int limit) {
+        if (limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("limit cannot be greater than " + MAX_PAGE_SIZE);
+        }
+        return ResponseEntity.ok(applicationService.claim(actorId, limit));
     }
 
     // Delete: DELETE “/api/v1/applications/{id}?actorId={actorId}”
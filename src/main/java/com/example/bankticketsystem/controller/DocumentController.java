@@ -0,0 +1,115 @@
+package com.example.bankticketsystem.controller;
+
+import com.example.bankticketsystem.dto.DocumentUploadDto;
+import com.example.bankticketsystem.service.DocumentService;
+import com.example.bankticketsystem.util.FileResponseUtil;
+import com.example.bankticketsystem.util.ZipResponseUtil;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+
+@Tag(name = "Documents", description = "API for uploading and downloading document files")
+@RestController
+@RequestMapping("/api/v1")
+public class DocumentController {
+
+    private final DocumentService documentService;
+
+    public DocumentController(DocumentService documentService) {
+        this.documentService = documentService;
+    }
+
+    // Upload: POST "/api/v1/documents/uploads?actorId={actorId}" + multipart/form-data (part "file")
+    @Operation(summary = "Upload a document file (multipart)", description = "Stores the file part under its SHA-256 " +
+            "(a file with the same content is not written again) and returns sha256, which is then passed in " +
+            "ApplicationRequest.documents[].sha256")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "File stored"),
+            @ApiResponse(responseCode = "400", description = "File part is missing or empty"),
+            @ApiResponse(responseCode = "401", description = "Actor is unauthorized (actorId is null)"),
+            @ApiResponse(responseCode = "404", description = "Actor with this ID is not found"),
+            @ApiResponse(responseCode = "413", description = "File is larger than the upload limit")
+    })
+    @PostMapping(path = "/documents/uploads", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<DocumentUploadDto> uploadMultipart(@RequestParam(required = false) UUID actorId,
+                                                             @RequestPart("file") MultipartFile file) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(documentService.upload(actorId, file));
+    }
+
+    // Upload: POST "/api/v1/documents/uploads?actorId={actorId}&fileName={fileName}" [X-Content-Sha256: <hex>] + file content (Body, Content-Type - тип файла)
+    @Operation(summary = "Upload a document file (raw body)", description = "Streams the request body into the document storage " +
+            "without buffering it in memory; Content-Type of the request is the file type. With X-Content-Sha256 of a file " +
+            "that is already stored the body is not read at all, otherwise the header is checked against the content")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "File stored (or already stored - see deduplicated)"),
+            @ApiResponse(responseCode = "400", description = "fileName is missing or content does not match X-Content-Sha256"),
+            @ApiResponse(responseCode = "401", description = "Actor is unauthorized (actorId is null)"),
+            @ApiResponse(responseCode = "404", description = "Actor with this ID is not found"),
+            @ApiResponse(responseCode = "413", description = "File is larger than the upload limit")
+    })
+    @PostMapping("/documents/uploads")
+    public ResponseEntity<DocumentUploadDto> upload(@RequestParam(required = false) UUID actorId,
+                                                    @RequestParam(required = false) String fileName,
+                                                    @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                                                    @RequestHeader(value = "X-Content-Sha256", required = false) String sha256,
+                                                    HttpServletRequest request) throws IOException {
+        DocumentUploadDto dto = documentService.upload(actorId, request.getInputStream(), fileName, contentType, sha256);
+        return ResponseEntity.status(HttpStatus.CREATED).body(dto);
+    }
+
+    // Download: GET "/api/v1/applications/{id}/documents/{documentId}/content?actorId={actorId}" [Range: bytes=...]
+    @Operation(summary = "Download a document file", description = "Returns the stored file of an application document " +
+            "if the actor is its applicant, a manager or an admin. Supports single Range requests (206)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "File content"),
+            @ApiResponse(responseCode = "206", description = "Requested byte range of the file"),
+            @ApiResponse(responseCode = "401", description = "Actor is unauthorized (actorId is null)"),
+            @ApiResponse(responseCode = "403", description = "Insufficient level of actor's rights (not APPLICANT, ADMIN or MANAGER)"),
+            @ApiResponse(responseCode = "404", description = "Application, document or its stored file is not found"),
+            @ApiResponse(responseCode = "416", description = "Range is outside of the file")
+    })
+    @GetMapping("/applications/{id}/documents/{documentId}/content")
+    public void download(@PathVariable("id") UUID id,
+                         @PathVariable("documentId") UUID documentId,
+                         @RequestParam(required = false) UUID actorId,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        // Проверки и чтение метаданных - в транзакции сервиса, сам файл отдаётся уже без соединения с БД
+        DocumentService.Content content = documentService.content(id, documentId, actorId);
+        FileResponseUtil.write(request, response, content.path(), content.size(), content.contentType(), content.fileName());
+    }
+
+    // DownloadAll: GET "/api/v1/applications/{id}/documents.zip?actorId={actorId}"
+    @Operation(summary = "Download all document files of an application as ZIP", description = "Streams a ZIP archive " +
+            "assembled on the fly from the stored files of the application's documents (documents with an external " +
+            "storagePath are skipped); already-compressed files are stored without recompression. Same access rule as " +
+            "the history: applicant, manager or admin")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "ZIP archive"),
+            @ApiResponse(responseCode = "401", description = "Actor is unauthorized (actorId is null)"),
+            @ApiResponse(responseCode = "403", description = "Insufficient level of actor's rights (not APPLICANT, ADMIN or MANAGER)"),
+            @ApiResponse(responseCode = "404", description = "Application or a stored file of its documents is not found")
+    })
+    @GetMapping("/applications/{id}/documents.zip")
+    public void downloadAll(@PathVariable("id") UUID id,
+                            @RequestParam(required = false) UUID actorId,
+                            HttpServletResponse response) throws IOException {
+        List<ZipResponseUtil.Entry> entries = documentService.bundle(id, actorId).stream()
+                .map(c -> new ZipResponseUtil.Entry(c.path(), c.fileName(), c.contentType()))
+                .toList();
+        ZipResponseUtil.write(response, "application-" + id + "-documents.zip", entries);
+    }
+}
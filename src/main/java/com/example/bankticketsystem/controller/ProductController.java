@@ -1,5 +1,7 @@
 package com.example.bankticketsystem.controller;
 
+import com.example.bankticketsystem.config.Priority;
+import com.example.bankticketsystem.config.RequestPriority;
 import com.example.bankticketsystem.dto.ProductDto;
 import com.example.bankticketsystem.dto.ProductRequest;
 import com.example.bankticketsystem.service.ProductService;
@@ -52,6 +54,7 @@ public class ProductController {
             @ApiResponse(responseCode = "200", description = "List of products"),
             @ApiResponse(responseCode = "400", description = "Page size too large")
     })
+    @RequestPriority(Priority.LOW)
     @GetMapping
     public ResponseEntity<List<ProductDto>> list(@RequestParam(defaultValue = "0") int page,
                                                  @RequestParam(defaultValue = "20") int size,
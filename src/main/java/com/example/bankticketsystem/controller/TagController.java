@@ -1,9 +1,11 @@
 package com.example.bankticketsystem.controller;
 
+import com.example.bankticketsystem.config.Priority;
+import com.example.bankticketsystem.config.RequestPriority;
 import com.example.bankticketsystem.dto.TagDto;
 import com.example.bankticketsystem.exception.BadRequestException;
 import com.example.bankticketsystem.service.TagService;
-import com.example.bankticketsystem.service.ApplicationService;
+import com.example.bankticketsystem.util.TagApplicationsPage;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -11,6 +13,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -51,6 +54,7 @@ public class TagController {
             @ApiResponse(responseCode = "200", description = "List of applications"),
             @ApiResponse(responseCode = "400", description = "Page size too large")
     })
+    @RequestPriority(Priority.LOW)
     @GetMapping
     public ResponseEntity<List<TagDto>> list(@RequestParam(defaultValue = "0") int page,
                                              @RequestParam(defaultValue = "20") int size,
@@ -63,15 +67,28 @@ public class TagController {
         return ResponseEntity.ok(p.getContent());
     }
 
-    // Read: GET "/api/v1/tags/{name}/applications"
-    @Operation(summary = "Read certain tag by its name", description = "Returns data about a single tag: name and list of applications that uses this tag")
+    // Read: GET "/api/v1/tags/{name}/applications?cursor={cursor}&limit=20"
+    @Operation(summary = "Read certain tag by its name", description = "Returns data about a single tag: name and a page of applications " +
+            "that use this tag (newest first). The cursor for the next page is returned in the X-Next-Cursor header")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Data about a single tag"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or page size too large"),
             @ApiResponse(responseCode = "404", description = "Tag with this name is not found")
     })
+    @RequestPriority(Priority.LOW)
     @GetMapping("/{name}/applications")
-    public ResponseEntity<TagDto> getTagWithApplications(@PathVariable String name) {
-        TagDto tagWithApplications = tagService.getTagWithApplications(name);
-        return ResponseEntity.ok(tagWithApplications);
+    public ResponseEntity<TagDto> getTagWithApplications(@PathVariable String name,
+                                                         @RequestParam(required = false) String cursor,
+                                                         @RequestParam(required = false, defaultValue = "20") int limit) {
+        if (limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("limit cannot be greater than " + MAX_PAGE_SIZE);
+        }
+        TagApplicationsPage page = tagService.getTagWithApplications(name, cursor, limit);
+
+        HttpHeaders headers = new HttpHeaders();
+        if (page.nextCursor() != null) {
+            headers.add("X-Next-Cursor", page.nextCursor());
+        }
+        return ResponseEntity.ok().headers(headers).body(page.tag());
     }
 }
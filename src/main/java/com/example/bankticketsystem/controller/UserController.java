@@ -1,21 +1,28 @@
 package com.example.bankticketsystem.controller;
 
+import com.example.bankticketsystem.config.Priority;
+import com.example.bankticketsystem.config.RequestPriority;
 import com.example.bankticketsystem.dto.UserDto;
+import com.example.bankticketsystem.dto.UserImportResultDto;
 import com.example.bankticketsystem.dto.UserRequest;
 import com.example.bankticketsystem.exception.BadRequestException;
 import com.example.bankticketsystem.repository.UserRepository;
+import com.example.bankticketsystem.service.UserImportService;
 import com.example.bankticketsystem.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
 import java.net.URI;
 import java.util.List;
 import java.util.UUID;
@@ -27,9 +34,11 @@ public class UserController {
 
     private static final int MAX_PAGE_SIZE = 50;
     private final UserService userService;
+    private final UserImportService userImportService;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, UserImportService userImportService) {
         this.userService = userService;
+        this.userImportService = userImportService;
     }
 
     // Create: POST “/api/v1/users” + UserDto(username,email,password) (Body)
@@ -47,12 +56,32 @@ public class UserController {
         return ResponseEntity.created(location).body(dto);
     }
 
+    // Import: POST "/api/v1/users/import?actorId={actorId}" + CSV (text/csv, заголовок username,email,password) или NDJSON (application/x-ndjson) (Body)
+    @Operation(summary = "Bulk import users", description = "Creates clients from a streamed CSV (header row with username, " +
+            "email and password columns) or NDJSON body. Rows that fail validation or duplicate an existing or earlier " +
+            "username/email are skipped and listed in the report with their line numbers; the rest are created")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import report: total, created, failed and per-row errors"),
+            @ApiResponse(responseCode = "400", description = "CSV header is missing required columns"),
+            @ApiResponse(responseCode = "401", description = "Actor is unauthorized (actorId is null)"),
+            @ApiResponse(responseCode = "403", description = "Insufficient level of actor's rights (not ADMIN)"),
+            @ApiResponse(responseCode = "404", description = "Actor with this ID is not found"),
+            @ApiResponse(responseCode = "415", description = "Body is neither text/csv nor application/x-ndjson")
+    })
+    @PostMapping(path = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<UserImportResultDto> importUsers(@RequestParam(required = false) UUID actorId,
+                                                           @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                           HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(userImportService.importUsers(actorId, request.getInputStream(), contentType));
+    }
+
     // ReadAll: GET “api/v1/users?page=0&size=20”
     @Operation(summary = "Read all users with pagination", description = "Returns a paginated list of users")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "List of users"),
             @ApiResponse(responseCode = "400", description = "Page size too large")
     })
+    @RequestPriority(Priority.LOW)
     @GetMapping
     public ResponseEntity<List<UserDto>> list(@RequestParam(defaultValue = "0") int page,
                                               @RequestParam(defaultValue = "20") int size,
@@ -1,13 +1,18 @@
 package com.example.bankticketsystem.controller;
 
+import com.example.bankticketsystem.config.Priority;
+import com.example.bankticketsystem.config.RequestPriority;
 import com.example.bankticketsystem.dto.UserProductAssignmentDto;
 import com.example.bankticketsystem.dto.UserProductAssignmentRequest;
+import com.example.bankticketsystem.exception.BadRequestException;
 import com.example.bankticketsystem.service.UserProductAssignmentService;
+import com.example.bankticketsystem.util.AssignmentPage;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -21,6 +26,7 @@ import java.util.UUID;
 @RequestMapping("/api/v1/assignments")
 public class UserProductAssignmentController {
 
+    private static final int MAX_PAGE_SIZE = 50;
     private final UserProductAssignmentService svc;
 
     public UserProductAssignmentController(UserProductAssignmentService svc){ this.svc = svc; }
@@ -43,17 +49,29 @@ public class UserProductAssignmentController {
         return ResponseEntity.created(location).body(dto);
     }
 
-    // Read: GET "/api/v1/assignments?userId={?}&productId={?}"
-    @Operation(summary = "Read all user-product assignments", description = "Returns list of assignments between user and product: " +
-            "id, userId, productId, role, assignedAt")
+    // Read: GET "/api/v1/assignments?userId={?}&productId={?}&cursor={cursor}&limit=20"
+    @Operation(summary = "Read all user-product assignments", description = "Returns a page of assignments between user and product: " +
+            "id, userId, productId, role, assignedAt. The cursor for the next page is returned in the X-Next-Cursor header")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "List of user-product assignments"),
+            @ApiResponse(responseCode = "200", description = "Page of user-product assignments"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or page size too large"),
     })
+    @RequestPriority(Priority.LOW)
     @GetMapping
     public ResponseEntity<List<UserProductAssignmentDto>> list(@RequestParam(required = false) UUID userId,
-                                                               @RequestParam(required = false) UUID productId) {
-        var list = svc.list(userId, productId);
-        return ResponseEntity.ok(list);
+                                                               @RequestParam(required = false) UUID productId,
+                                                               @RequestParam(required = false) String cursor,
+                                                               @RequestParam(required = false, defaultValue = "20") int limit) {
+        if (limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("limit cannot be greater than " + MAX_PAGE_SIZE);
+        }
+        AssignmentPage page = svc.list(userId, productId, cursor, limit);
+
+        HttpHeaders headers = new HttpHeaders();
+        if (page.nextCursor() != null) {
+            headers.add("X-Next-Cursor", page.nextCursor());
+        }
+        return ResponseEntity.ok().headers(headers).body(page.items());
     }
 
     // Delete: DELETE “/api/v1/assignments?actorId={?}&userId={?}&productId={?}"
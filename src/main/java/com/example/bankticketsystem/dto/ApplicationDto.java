@@ -1,6 +1,7 @@
 package com.example.bankticketsystem.dto;
 
 import com.example.bankticketsystem.model.enums.ApplicationStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.Size;
 
 import java.time.Instant;
@@ -15,6 +16,9 @@ public class ApplicationDto {
     private Instant createdAt;
     private List<DocumentDto> documents;
     private List<String> tags;
+    // Используется только для ETag, в тело ответа не попадает
+    @JsonIgnore
+    private Long version;
 
     public UUID getId() { return id; }
     public void setId(UUID id) { this.id = id; }
@@ -36,4 +40,7 @@ public class ApplicationDto {
 
     public List<String> getTags() { return tags; }
     public void setTags(List<String> tags) { this.tags = tags; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
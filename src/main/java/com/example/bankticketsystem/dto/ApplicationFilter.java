@@ -0,0 +1,95 @@
+package com.example.bankticketsystem.dto;
+
+import com.example.bankticketsystem.exception.BadRequestException;
+import com.example.bankticketsystem.model.enums.ApplicationStatus;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+public class ApplicationFilter {
+
+    public static final int MAX_TAGS = 20;
+
+    private final Set<ApplicationStatus> statuses;
+    private final UUID productId;
+    private final Instant createdFrom;
+    private final Instant createdTo;
+    private final Set<String> tags;
+    private final boolean matchAllTags;
+
+    public ApplicationFilter(Set<ApplicationStatus> statuses, UUID productId, Instant createdFrom, Instant createdTo,
+                             Set<String> tags, boolean matchAllTags) {
+        this.statuses = statuses == null || statuses.isEmpty() ? Set.of()
+                : Collections.unmodifiableSet(EnumSet.copyOf(statuses));
+        this.productId = productId;
+        this.createdFrom = createdFrom;
+        this.createdTo = createdTo;
+        this.tags = tags == null ? Set.of() : Collections.unmodifiableSet(new TreeSet<>(tags));
+        this.matchAllTags = matchAllTags;
+    }
+
+    public static ApplicationFilter empty() {
+        return new ApplicationFilter(null, null, null, null, null, false);
+    }
+
+    // Разбор query-параметров: status=A,B или status=A&status=B, даты ISO-8601, tagMode=any|all
+    public static ApplicationFilter of(List<String> statuses, UUID productId, String createdFrom, String createdTo,
+                                       List<String> tags, String tagMode) {
+        Set<ApplicationStatus> parsedStatuses = EnumSet.noneOf(ApplicationStatus.class);
+        if (statuses != null) {
+            for (String s : statuses) {
+                if (s == null || s.isBlank()) continue;
+                ApplicationStatus status = ApplicationStatus.fromName(s.trim().toUpperCase());
+                if (status == null) {
+                    throw new BadRequestException("Unknown status: " + s + ". List of statuses: " +
+                            Arrays.toString(ApplicationStatus.values()));
+                }
+                parsedStatuses.add(status);
+            }
+        }
+        Instant from = parseInstant("createdFrom", createdFrom);
+        Instant to = parseInstant("createdTo", createdTo);
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new BadRequestException("createdFrom must be before createdTo");
+        }
+        Set<String> tagNames = new TreeSet<>();
+        if (tags != null) {
+            for (String t : tags) {
+                if (t != null && !t.isBlank()) tagNames.add(t.trim());
+            }
+        }
+        if (tagNames.size() > MAX_TAGS) {
+            throw new BadRequestException("No more than " + MAX_TAGS + " tags can be used in a filter");
+        }
+        boolean all;
+        if (tagMode == null || tagMode.isBlank() || tagMode.equalsIgnoreCase("any")) {
+            all = false;
+        } else if (tagMode.equalsIgnoreCase("all")) {
+            all = true;
+        } else {
+            throw new BadRequestException("tagMode must be 'any' or 'all'");
+        }
+        return new ApplicationFilter(parsedStatuses, productId, from, to, tagNames, all);
+    }
+
+    private static Instant parseInstant(String name, String value) {
+        if (value == null || value.isBlank()) return null;
+        try {
+            return Instant.parse(value.trim());
+        } catch (DateTimeParseException ex) {
+            throw new BadRequestException(name + " must be an ISO-8601 instant, e.g. 2025-01-31T00:00:00Z");
+        }
+    }
+
+    public boolean isEmpty() {
+        return statuses.isEmpty() && productId == null && createdFrom == null && createdTo == null && tags.isEmpty();
+    }
+
+    public Set<ApplicationStatus> getStatuses() { return statuses; }
+    public UUID getProductId() { return productId; }
+    public Instant getCreatedFrom() { return createdFrom; }
+    public Instant getCreatedTo() { return createdTo; }
+    public Set<String> getTags() { return tags; }
+    public boolean isMatchAllTags() { return matchAllTags; }
+}
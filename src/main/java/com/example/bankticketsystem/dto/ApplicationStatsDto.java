@@ -0,0 +1,19 @@
+package com.example.bankticketsystem.dto;
+
+import java.util.Map;
+
+public class ApplicationStatsDto {
+    private long total;
+    private Map<String, Long> byStatus;
+    private Map<String, Long> byProduct;
+    private Map<String, Long> byTag;
+
+    public long getTotal() { return total; }
+    public void setTotal(long total) { this.total = total; }
+    public Map<String, Long> getByStatus() { return byStatus; }
+    public void setByStatus(Map<String, Long> byStatus) { this.byStatus = byStatus; }
+    public Map<String, Long> getByProduct() { return byProduct; }
+    public void setByProduct(Map<String, Long> byProduct) { this.byProduct = byProduct; }
+    public Map<String, Long> getByTag() { return byTag; }
+    public void setByTag(Map<String, Long> byTag) { this.byTag = byTag; }
+}
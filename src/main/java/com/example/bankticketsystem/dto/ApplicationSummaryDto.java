@@ -0,0 +1,41 @@
+package com.example.bankticketsystem.dto;
+
+import com.example.bankticketsystem.model.enums.ApplicationStatus;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public class ApplicationSummaryDto {
+    private UUID id;
+    private UUID applicantId;
+    private String applicantUsername;
+    private UUID productId;
+    private String productName;
+    private ApplicationStatus status;
+    private Instant createdAt;
+    private Instant updatedAt;
+    private List<String> tags;
+    private int documentCount;
+
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+    public UUID getApplicantId() { return applicantId; }
+    public void setApplicantId(UUID applicantId) { this.applicantId = applicantId; }
+    public String getApplicantUsername() { return applicantUsername; }
+    public void setApplicantUsername(String applicantUsername) { this.applicantUsername = applicantUsername; }
+    public UUID getProductId() { return productId; }
+    public void setProductId(UUID productId) { this.productId = productId; }
+    public String getProductName() { return productName; }
+    public void setProductName(String productName) { this.productName = productName; }
+    public ApplicationStatus getStatus() { return status; }
+    public void setStatus(ApplicationStatus status) { this.status = status; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+    public List<String> getTags() { return tags; }
+    public void setTags(List<String> tags) { this.tags = tags; }
+    public int getDocumentCount() { return documentCount; }
+    public void setDocumentCount(int documentCount) { this.documentCount = documentCount; }
+}
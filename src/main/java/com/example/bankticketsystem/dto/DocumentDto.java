@@ -10,6 +10,8 @@ public class DocumentDto {
     private String fileName;
     private String contentType;
     private String storagePath;
+    // Размер файла во встроенном хранилище; null - файл хранится у клиента
+    private Long size;
 
     public UUID getId() { return id; }
     public void setId(UUID id) { this.id = id; }
@@ -22,4 +24,7 @@ public class DocumentDto {
 
     public String getStoragePath() { return storagePath; }
     public void setStoragePath(String storagePath) { this.storagePath = storagePath; }
+
+    public Long getSize() { return size; }
+    public void setSize(Long size) { this.size = size; }
 }
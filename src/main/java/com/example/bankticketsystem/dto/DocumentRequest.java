@@ -7,6 +7,8 @@ public class DocumentRequest {
     private String fileName;
     private String contentType;
     private String storagePath;
+    // SHA-256 файла, загруженного через POST /api/v1/documents/uploads (вместо storagePath)
+    private String sha256;
 
     public String getFileName() { return fileName; }
     public void setFileName(String fileName) { this.fileName = fileName; }
@@ -16,4 +18,7 @@ public class DocumentRequest {
 
     public String getStoragePath() { return storagePath; }
     public void setStoragePath(String storagePath) { this.storagePath = storagePath; }
+
+    public String getSha256() { return sha256; }
+    public void setSha256(String sha256) { this.sha256 = sha256; }
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.example.bankticketsystem.dto;
+
+// Загруженный файл; sha256 передаётся в ApplicationRequest.documents[].sha256
+public class DocumentUploadDto {
+    private String sha256;
+    private String fileName;
+    private String contentType;
+    private long size;
+    // true - файл с тем же содержимым уже был в хранилище, новые данные не записывались
+    private boolean deduplicated;
+
+    public String getSha256() { return sha256; }
+    public void setSha256(String sha256) { this.sha256 = sha256; }
+
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+
+    public long getSize() { return size; }
+    public void setSize(long size) { this.size = size; }
+
+    public boolean isDeduplicated() { return deduplicated; }
+    public void setDeduplicated(boolean deduplicated) { this.deduplicated = deduplicated; }
+}
@@ -0,0 +1,44 @@
+package com.example.bankticketsystem.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Отчёт об импорте пользователей: строки с ошибками пропускаются, остальные создаются
+public class UserImportResultDto {
+    private int total;
+    private int created;
+    private int failed;
+    // Не больше app.users.import.max-reported-errors, в порядке строк
+    private List<RowError> errors = new ArrayList<>();
+
+    public int getTotal() { return total; }
+    public void setTotal(int total) { this.total = total; }
+
+    public int getCreated() { return created; }
+    public void setCreated(int created) { this.created = created; }
+
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+
+    public List<RowError> getErrors() { return errors; }
+    public void setErrors(List<RowError> errors) { this.errors = errors; }
+
+    public static class RowError {
+        // Номер строки во входных данных, с 1 (для CSV заголовок - строка 1)
+        private long line;
+        private String message;
+
+        public RowError() {}
+
+        public RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public long getLine() { return line; }
+        public void setLine(long line) { this.line = line; }
+
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
+}
@@ -1,9 +1,7 @@
 package com.example.bankticketsystem.exception;
 
 import org.springframework.http.HttpStatus;
-import org.springframework.web.bind.annotation.ResponseStatus;
 
-@ResponseStatus(HttpStatus.BAD_REQUEST)
-public class BadRequestException extends RuntimeException {
-    public BadRequestException(String message) { super(message); }
+public class BadRequestException extends DomainException {
+    public BadRequestException(String message) { super(HttpStatus.BAD_REQUEST, message); }
 }
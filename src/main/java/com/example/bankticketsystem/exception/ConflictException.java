@@ -1,9 +1,7 @@
 package com.example.bankticketsystem.exception;
 
 import org.springframework.http.HttpStatus;
-import org.springframework.web.bind.annotation.ResponseStatus;
 
-@ResponseStatus(HttpStatus.CONFLICT)
-public class ConflictException extends RuntimeException {
-    public ConflictException(String message) { super(message); }
+public class ConflictException extends DomainException {
+    public ConflictException(String message) { super(HttpStatus.CONFLICT, message); }
 }
@@ -0,0 +1,19 @@
+package com.example.bankticketsystem.exception;
+
+import org.springframework.http.HttpStatus;
+
+// Ожидаемые ошибки сервисов со статусом ответа. Без стека: они не логируются, а стек
+// через все фильтры и прокси был основной ценой ответа 404/400
+public abstract class DomainException extends RuntimeException {
+
+    private final HttpStatus status;
+
+    protected DomainException(HttpStatus status, String message) {
+        super(message, null, false, false);
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
@@ -1,51 +1,54 @@
 package com.example.bankticketsystem.exception;
 
-import org.springframework.http.HttpHeaders;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.ErrorResponse;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.context.request.WebRequest;
 import java.time.Instant;
 import java.util.*;
 import org.springframework.validation.FieldError;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
+// Ошибки - ProblemDetail (RFC 9457) с прежними полями (timestamp, error, message, path, errors);
+// формат выбирается content negotiation, как для любого тела
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
-    @ExceptionHandler(BadRequestException.class)
-    public ResponseEntity<Object> handleBadRequest(BadRequestException ex, WebRequest request) {
-        return buildError(HttpStatus.BAD_REQUEST, ex.getMessage(), request, null);
-    }
+    // Статические части ответа по коду статуса: иначе ProblemDetail.getTitle() ищет статус перебором
+    // HttpStatus.values() при каждой сериализации
+    private static final String[] TITLES = new String[600];
 
-    @ExceptionHandler(UnauthorizedException.class)
-    public ResponseEntity<Object> handleConflict(UnauthorizedException ex, WebRequest request) {
-        return buildError(HttpStatus.UNAUTHORIZED, ex.getMessage(), request, null);
+    static {
+        for (HttpStatus s : HttpStatus.values()) TITLES[s.value()] = s.getReasonPhrase();
     }
 
-    @ExceptionHandler(ForbiddenException.class)
-    public ResponseEntity<Object> handleConflict(ForbiddenException ex, WebRequest request) {
-        return buildError(HttpStatus.FORBIDDEN, ex.getMessage(), request, null);
+    // Все исключения сервисов: статус уже в исключении
+    @ExceptionHandler(DomainException.class)
+    public ResponseEntity<ProblemDetail> handleDomain(DomainException ex, HttpServletRequest request) {
+        return problem(ex.getStatus(), ex.getMessage(), request, null);
     }
 
-    @ExceptionHandler(NotFoundException.class)
-    public ResponseEntity<Object> handleNotFound(NotFoundException ex, WebRequest request) {
-        return buildError(HttpStatus.NOT_FOUND, ex.getMessage(), request, null);
+    @ExceptionHandler(org.springframework.web.multipart.MaxUploadSizeExceededException.class)
+    public ResponseEntity<ProblemDetail> handleMaxUploadSize(org.springframework.web.multipart.MaxUploadSizeExceededException ex, HttpServletRequest request) {
+        return problem(HttpStatus.PAYLOAD_TOO_LARGE, "File is larger than the upload limit", request, null);
     }
 
-    @ExceptionHandler(ConflictException.class)
-    public ResponseEntity<Object> handleConflict(ConflictException ex, WebRequest request) {
-        return buildError(HttpStatus.CONFLICT, ex.getMessage(), request, null);
+    @ExceptionHandler(org.springframework.orm.ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ProblemDetail> handleOptimisticLock(org.springframework.orm.ObjectOptimisticLockingFailureException ex, HttpServletRequest request) {
+        return problem(HttpStatus.CONFLICT, "Entity was modified concurrently, reload it and retry", request, null);
     }
 
     @ExceptionHandler(org.springframework.dao.DataIntegrityViolationException.class)
-    public ResponseEntity<Object> handleConstraint(org.springframework.dao.DataIntegrityViolationException ex, WebRequest request) {
-        return buildError(HttpStatus.CONFLICT, "Database constraint violation", request, null);
+    public ResponseEntity<ProblemDetail> handleConstraint(org.springframework.dao.DataIntegrityViolationException ex, HttpServletRequest request) {
+        return problem(HttpStatus.CONFLICT, "Database constraint violation", request, null);
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    protected ResponseEntity<Object> handleValidation(MethodArgumentNotValidException ex, WebRequest request) {
+    protected ResponseEntity<ProblemDetail> handleValidation(MethodArgumentNotValidException ex, HttpServletRequest request) {
         List<Map<String,String>> errors = new ArrayList<>();
         for (FieldError fe : ex.getBindingResult().getFieldErrors()) {
             Map<String,String> e = new HashMap<>();
@@ -53,32 +56,41 @@ public class GlobalExceptionHandler {
             e.put("message", fe.getDefaultMessage());
             errors.add(e);
         }
-        return buildError(HttpStatus.BAD_REQUEST, "Validation failed", request, errors);
+        return problem(HttpStatus.BAD_REQUEST, "Validation failed", request, errors);
     }
 
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
-    public ResponseEntity<?> handleUUIDException(MethodArgumentTypeMismatchException ex) {
+    public ResponseEntity<ProblemDetail> handleUUIDException(MethodArgumentTypeMismatchException ex, HttpServletRequest request) {
         if (ex.getRequiredType() == UUID.class) {
-            throw new BadRequestException("Invalid UUID: " + ex.getValue());
+            return problem(HttpStatus.BAD_REQUEST, "Invalid UUID: " + ex.getValue(), request, null);
         }
-        throw ex;
+        return problem(HttpStatus.BAD_REQUEST, ex.getMessage(), request, null);
     }
 
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<Object> handleGeneric(Exception ex, WebRequest request) {
-        return buildError(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage(), request, null);
+    public ResponseEntity<ProblemDetail> handleGeneric(Exception ex, HttpServletRequest request) {
+        // Исключения Spring MVC со своим статусом (неизвестный путь - 404, не тот метод - 405, нет параметра - 400),
+        // а не 500: сканеры шлют их потоком
+        if (ex instanceof ErrorResponse er) {
+            ResponseEntity<ProblemDetail> response = problem(er.getStatusCode(), er.getBody().getDetail(), request, null);
+            // Например, Allow у 405
+            return ResponseEntity.status(er.getStatusCode()).headers(er.getHeaders()).body(response.getBody());
+        }
+        return problem(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage(), request, null);
     }
 
-    private ResponseEntity<Object> buildError(HttpStatus status, String message, WebRequest request, List<Map<String,String>> errors) {
-        Map<String,Object> body = new LinkedHashMap<>();
-        body.put("timestamp", Instant.now().toString());
-        body.put("status", status.value());
-        body.put("error", status.getReasonPhrase());
-        body.put("message", message);
-        body.put("path", request.getDescription(false).replace("uri=", ""));
+    private ResponseEntity<ProblemDetail> problem(HttpStatusCode status, String message, HttpServletRequest request,
+                                                  List<Map<String,String>> errors) {
+        String title = status.value() < TITLES.length ? TITLES[status.value()] : null;
+        ProblemDetail body = ProblemDetail.forStatusAndDetail(status, message);
+        body.setTitle(title);
+        body.setProperty("timestamp", Instant.now().toString());
+        body.setProperty("error", title);
+        body.setProperty("message", message);
+        body.setProperty("path", request.getRequestURI());
         if (errors != null && !errors.isEmpty()) {
-            body.put("errors", errors);
+            body.setProperty("errors", errors);
         }
-        return new ResponseEntity<>(body, new HttpHeaders(), status);
+        return ResponseEntity.status(status).body(body);
     }
 }
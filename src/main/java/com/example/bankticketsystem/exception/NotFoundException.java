@@ -1,9 +1,7 @@
 package com.example.bankticketsystem.exception;
 
 import org.springframework.http.HttpStatus;
-import org.springframework.web.bind.annotation.ResponseStatus;
 
-@ResponseStatus(HttpStatus.NOT_FOUND)
-public class NotFoundException extends RuntimeException {
-    public NotFoundException(String message) { super(message); }
+public class NotFoundException extends DomainException {
+    public NotFoundException(String message) { super(HttpStatus.NOT_FOUND, message); }
 }
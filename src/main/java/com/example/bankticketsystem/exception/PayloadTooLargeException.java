@@ -0,0 +1,7 @@
+package com.example.bankticketsystem.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class PayloadTooLargeException extends DomainException {
+    public PayloadTooLargeException(String message) { super(HttpStatus.PAYLOAD_TOO_LARGE, message); }
+}
@@ -0,0 +1,7 @@
+package com.example.bankticketsystem.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class PreconditionFailedException extends DomainException {
+    public PreconditionFailedException(String message) { super(HttpStatus.PRECONDITION_FAILED, message); }
+}
@@ -0,0 +1,7 @@
+package com.example.bankticketsystem.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class UnprocessableEntityException extends DomainException {
+    public UnprocessableEntityException(String message) { super(HttpStatus.UNPROCESSABLE_ENTITY, message); }
+}
@@ -2,6 +2,8 @@ package com.example.bankticketsystem.model.entity;
 
 import com.example.bankticketsystem.model.enums.ApplicationStatus;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.Instant;
 import java.util.*;
 
@@ -41,6 +43,7 @@ public class Application {
     private List<ApplicationHistory> history = new ArrayList<>();
 
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "application-tags")
     @JoinTable(
             name = "application_tag",
             joinColumns = @JoinColumn(name = "application_id"),
@@ -20,6 +20,14 @@ public class Document {
     @Column(name = "storage_path", length = 1000)
     private String storagePath;
 
+    // SHA-256 файла во встроенном хранилище, один файл на все документы с тем же содержимым
+    // (null - файл хранится у клиента по storagePath)
+    @Column(name = "storage_key", length = 64)
+    private String storageKey;
+
+    @Column(name = "size_bytes")
+    private Long sizeBytes;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "application_id", nullable = false)
     private Application application;
@@ -38,6 +46,12 @@ public class Document {
     public String getStoragePath() { return storagePath; }
     public void setStoragePath(String storagePath) { this.storagePath = storagePath; }
 
+    public String getStorageKey() { return storageKey; }
+    public void setStorageKey(String storageKey) { this.storageKey = storageKey; }
+
+    public Long getSizeBytes() { return sizeBytes; }
+    public void setSizeBytes(Long sizeBytes) { this.sizeBytes = sizeBytes; }
+
     public Application getApplication() { return application; }
     public void setApplication(Application application) { this.application = application; }
 }
@@ -1,9 +1,13 @@
 package com.example.bankticketsystem.model.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.*;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "tag")
 @Table(name = "tag", uniqueConstraints = @UniqueConstraint(columnNames = {"name"}))
 public class Tag {
 
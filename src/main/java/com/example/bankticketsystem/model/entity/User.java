@@ -2,10 +2,14 @@ package com.example.bankticketsystem.model.entity;
 
 import com.example.bankticketsystem.model.enums.UserRole;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.Instant;
 import java.util.UUID;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
 @Table(name = "app_user")
 public class User {
 
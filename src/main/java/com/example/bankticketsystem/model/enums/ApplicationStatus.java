@@ -1,9 +1,23 @@
 package com.example.bankticketsystem.model.enums;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public enum ApplicationStatus {
     DRAFT,
     SUBMITTED,
     IN_REVIEW,
     APPROVED,
-    REJECTED
+    REJECTED;
+
+    private static final Map<String, ApplicationStatus> BY_NAME = new HashMap<>();
+
+    static {
+        for (ApplicationStatus s : values()) BY_NAME.put(s.name(), s);
+    }
+
+    // Как valueOf, но неизвестное имя - null, а не IllegalArgumentException со стектрейсом
+    public static ApplicationStatus fromName(String name) {
+        return BY_NAME.get(name);
+    }
 }
@@ -1,6 +1,7 @@
 package com.example.bankticketsystem.repository;
 
 import com.example.bankticketsystem.model.entity.Application;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -8,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.Instant;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.List;
 
@@ -18,6 +20,15 @@ public interface ApplicationRepository extends JpaRepository<Application, UUID>,
     long countByProductId(UUID productId);
     List<Application> findByProductId(UUID productId);
     List<Application> findByApplicantId(UUID applicantId);
+
+    // Заявка вместе с документами и тегами одним запросом: без OSIV DTO собирается целиком внутри транзакции
+    @EntityGraph(attributePaths = {"documents", "tags"})
+    Optional<Application> findWithDocumentsAndTagsById(UUID id);
+
+    // Только версия - для проверки If-None-Match без загрузки документов и тегов
+    @Query("SELECT COALESCE(a.version, 0) FROM Application a WHERE a.id = :id")
+    Optional<Long> findVersionById(@Param("id") UUID id);
+
     // Первый запрос — первая страница, без WHERE по курсору
     @Query(value = "SELECT * FROM application " +
             "ORDER BY created_at DESC, id DESC " +
@@ -32,4 +43,41 @@ public interface ApplicationRepository extends JpaRepository<Application, UUID>,
     List<Application> findByKeyset(@Param("ts") Instant ts,
                                    @Param("id") UUID id,
                                    @Param("limit") int limit);
+
+    // Заявки с тегом - первая страница (keyset по (created_at, id) через application_tag)
+    @Query(value = "SELECT a.* FROM application a " +
+            "JOIN application_tag at ON at.application_id = a.id " +
+            "WHERE at.tag_id = :tagId " +
+            "ORDER BY a.created_at DESC, a.id DESC " +
+            "LIMIT :limit", nativeQuery = true)
+    List<Application> findFirstPageByTag(@Param("tagId") UUID tagId,
+                                         @Param("limit") int limit);
+
+    // Заявки с тегом - последующие страницы
+    @Query(value = "SELECT a.* FROM application a " +
+            "JOIN application_tag at ON at.application_id = a.id " +
+            "WHERE at.tag_id = :tagId AND (a.created_at, a.id) < (:ts, :id) " +
+            "ORDER BY a.created_at DESC, a.id DESC " +
+            "LIMIT :limit", nativeQuery = true)
+    List<Application> findByTagKeyset(@Param("tagId") UUID tagId,
+                                      @Param("ts") Instant ts,
+                                      @Param("id") UUID id,
+                                      @Param("limit") int limit);
+
+    // Очередь на рассмотрение: самые старые SUBMITTED по продуктам менеджера.
+    // SKIP LOCKED - строки, уже захваченные другим менеджером, пропускаются, а не ждут освобождения
+    @Query(value = "SELECT a.* FROM application a " +
+            "WHERE a.status = 'SUBMITTED' AND a.applicant_id <> :actorId " +
+            "AND a.product_id IN (SELECT upa.product_id FROM user_product_assignment upa WHERE upa.user_id = :actorId) " +
+            "ORDER BY a.created_at, a.id " +
+            "LIMIT :limit FOR UPDATE OF a SKIP LOCKED", nativeQuery = true)
+    List<Application> lockSubmittedForManager(@Param("actorId") UUID actorId,
+                                              @Param("limit") int limit);
+
+    // То же для админа - без ограничения по продуктам
+    @Query(value = "SELECT a.* FROM application a " +
+            "WHERE a.status = 'SUBMITTED' " +
+            "ORDER BY a.created_at, a.id " +
+            "LIMIT :limit FOR UPDATE OF a SKIP LOCKED", nativeQuery = true)
+    List<Application> lockSubmitted(@Param("limit") int limit);
 }
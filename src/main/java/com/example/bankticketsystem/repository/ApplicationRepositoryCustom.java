@@ -1,5 +1,6 @@
 package com.example.bankticketsystem.repository;
 
+import com.example.bankticketsystem.dto.ApplicationFilter;
 import com.example.bankticketsystem.model.entity.Application;
 
 import java.time.Instant;
@@ -8,4 +9,11 @@ import java.util.UUID;
 
 public interface ApplicationRepositoryCustom {
     List<Application> findByKeyset(Instant ts, UUID id, int limit);
+
+    // ts/id == null - первая страница
+    List<Application> findFiltered(ApplicationFilter filter, Instant ts, UUID id, int limit);
+
+    List<Application> findFilteredPage(ApplicationFilter filter, int offset, int limit);
+
+    long countFiltered(ApplicationFilter filter);
 }
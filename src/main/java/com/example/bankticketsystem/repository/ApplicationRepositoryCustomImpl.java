@@ -1,5 +1,6 @@
 package com.example.bankticketsystem.repository;
 
+import com.example.bankticketsystem.dto.ApplicationFilter;
 import com.example.bankticketsystem.model.entity.Application;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
@@ -7,8 +8,11 @@ import jakarta.persistence.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Repository
 public class ApplicationRepositoryCustomImpl implements ApplicationRepositoryCustom {
@@ -34,4 +38,79 @@ public class ApplicationRepositoryCustomImpl implements ApplicationRepositoryCus
             return q.getResultList();
         }
     }
+
+    @Override
+    public List<Application> findFiltered(ApplicationFilter filter, Instant ts, UUID id, int limit) {
+        Map<String, Object> params = new HashMap<>();
+        StringBuilder sql = new StringBuilder("SELECT a.* FROM application a WHERE TRUE");
+        appendFilter(sql, params, filter);
+        if (ts != null && id != null) {
+            sql.append(" AND (a.created_at, a.id) < (CAST(:ts AS timestamp with time zone), CAST(:id AS uuid))");
+            params.put("ts", ts);
+            params.put("id", id);
+        }
+        sql.append(" ORDER BY a.created_at DESC, a.id DESC LIMIT :limit");
+        params.put("limit", limit);
+        return createQuery(sql.toString(), params, Application.class).getResultList();
+    }
+
+    @Override
+    public List<Application> findFilteredPage(ApplicationFilter filter, int offset, int limit) {
+        Map<String, Object> params = new HashMap<>();
+        StringBuilder sql = new StringBuilder("SELECT a.* FROM application a WHERE TRUE");
+        appendFilter(sql, params, filter);
+        sql.append(" ORDER BY a.created_at DESC, a.id DESC LIMIT :limit OFFSET :offset");
+        params.put("limit", limit);
+        params.put("offset", offset);
+        return createQuery(sql.toString(), params, Application.class).getResultList();
+    }
+
+    @Override
+    public long countFiltered(ApplicationFilter filter) {
+        Map<String, Object> params = new HashMap<>();
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM application a WHERE TRUE");
+        appendFilter(sql, params, filter);
+        return ((Number) createQuery(sql.toString(), params, null).getSingleResult()).longValue();
+    }
+
+    // Условия складываются так, чтобы их покрывали индексы из 013-add-application-filter-indexes:
+    // статусы подставляются литералами (значения enum), иначе планировщик не докажет условие частичного индекса
+    private void appendFilter(StringBuilder sql, Map<String, Object> params, ApplicationFilter filter) {
+        if (!filter.getStatuses().isEmpty()) {
+            sql.append(filter.getStatuses().stream()
+                    .map(s -> "'" + s.name() + "'")
+                    .collect(Collectors.joining(", ", " AND a.status IN (", ")")));
+        }
+        if (filter.getProductId() != null) {
+            sql.append(" AND a.product_id = CAST(:productId AS uuid)");
+            params.put("productId", filter.getProductId());
+        }
+        if (filter.getCreatedFrom() != null) {
+            sql.append(" AND a.created_at >= CAST(:createdFrom AS timestamp with time zone)");
+            params.put("createdFrom", filter.getCreatedFrom());
+        }
+        if (filter.getCreatedTo() != null) {
+            sql.append(" AND a.created_at < CAST(:createdTo AS timestamp with time zone)");
+            params.put("createdTo", filter.getCreatedTo());
+        }
+        if (!filter.getTags().isEmpty()) {
+            // application_tag(tag_id, application_id) - индекс из 009; пара (application_id, tag_id) уникальна
+            String tagIds = "SELECT t.id FROM tag t WHERE t.name IN (:tags)";
+            if (filter.isMatchAllTags()) {
+                sql.append(" AND a.id IN (SELECT at.application_id FROM application_tag at WHERE at.tag_id IN (")
+                        .append(tagIds).append(") GROUP BY at.application_id HAVING COUNT(*) = :tagCount)");
+                params.put("tagCount", filter.getTags().size());
+            } else {
+                sql.append(" AND EXISTS (SELECT 1 FROM application_tag at WHERE at.application_id = a.id AND at.tag_id IN (")
+                        .append(tagIds).append("))");
+            }
+            params.put("tags", filter.getTags());
+        }
+    }
+
+    private Query createQuery(String sql, Map<String, Object> params, Class<?> resultClass) {
+        Query q = resultClass == null ? em.createNativeQuery(sql) : em.createNativeQuery(sql, resultClass);
+        params.forEach(q::setParameter);
+        return q;
+    }
 }
@@ -0,0 +1,66 @@
+package com.example.bankticketsystem.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Счётчики application_stats_counter с полосами. JDBC, а не нативный update через Hibernate:
+// тот сбрасывал бы все регионы кэша второго уровня на каждую запись
+@Repository
+public class ApplicationStatsRepository {
+
+    private static final String UPSERT =
+            "INSERT INTO application_stats_counter (dimension, dim_key, stripe, count) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (dimension, dim_key, stripe) " +
+            "DO UPDATE SET count = application_stats_counter.count + EXCLUDED.count";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ApplicationStatsRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // deltas: dimension -> (key -> delta). Порядок итерации задаёт порядок блокировок строк
+    public void increment(Map<String, Map<String, Long>> deltas, int stripes) {
+        List<Object[]> rows = new ArrayList<>();
+        deltas.forEach((dimension, byKey) -> byKey.forEach((key, delta) -> {
+            if (delta != 0) {
+                rows.add(new Object[]{dimension, key, (short) ThreadLocalRandom.current().nextInt(stripes), delta});
+            }
+        }));
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT, rows);
+        }
+    }
+
+    // dimension -> (key -> count), нулевые счётчики не возвращаются
+    public Map<String, Map<String, Long>> sumAll() {
+        Map<String, Map<String, Long>> result = new TreeMap<>();
+        jdbcTemplate.query("SELECT dimension, dim_key, SUM(count) AS total FROM application_stats_counter " +
+                        "GROUP BY dimension, dim_key HAVING SUM(count) <> 0 ORDER BY dimension, dim_key",
+                rs -> {
+                    result.computeIfAbsent(rs.getString("dimension"), d -> new LinkedHashMap<>())
+                            .put(rs.getString("dim_key"), rs.getLong("total"));
+                });
+        return result;
+    }
+
+    // Пересчёт с нуля. EXCLUSIVE-блокировка ждёт незавершённые инкременты и не пускает новые
+    // до коммита, поэтому пересчитанные значения не теряют и не удваивают параллельные изменения
+    public void rebuild() {
+        jdbcTemplate.execute("LOCK TABLE application_stats_counter IN EXCLUSIVE MODE");
+        jdbcTemplate.update("DELETE FROM application_stats_counter");
+        jdbcTemplate.update("INSERT INTO application_stats_counter (dimension, dim_key, stripe, count) " +
+                "SELECT 'status', status, 0, COUNT(*) FROM application GROUP BY status");
+        jdbcTemplate.update("INSERT INTO application_stats_counter (dimension, dim_key, stripe, count) " +
+                "SELECT 'product', CAST(product_id AS varchar), 0, COUNT(*) FROM application GROUP BY product_id");
+        jdbcTemplate.update("INSERT INTO application_stats_counter (dimension, dim_key, stripe, count) " +
+                "SELECT 'tag', t.name, 0, COUNT(*) FROM application_tag at JOIN tag t ON t.id = at.tag_id GROUP BY t.name");
+    }
+}
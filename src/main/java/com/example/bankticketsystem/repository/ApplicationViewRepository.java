@@ -0,0 +1,139 @@
+package com.example.bankticketsystem.repository;
+
+import com.example.bankticketsystem.dto.ApplicationSummaryDto;
+import com.example.bankticketsystem.model.enums.ApplicationStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+// Денормализованная проекция заявок (application_view). JDBC, как счётчики статистики:
+// строки пересобираются INSERT ... SELECT, который JPA не выражает
+@Repository
+public class ApplicationViewRepository {
+
+    // Строка проекции целиком из базовых таблиц. search_vector: продукт (вес A), теги (B), имена файлов (C);
+    // имена файлов индексируются и целиком, и по частям ("passport_scan.pdf" -> passport, scan, pdf)
+    private static final String PROJECTION =
+            "SELECT a.id, a.applicant_id, u.username, a.product_id, p.name, a.status, a.created_at, a.updated_at, " +
+            "tg.names, dc.cnt, " +
+            "setweight(to_tsvector('simple', p.name), 'A') || " +
+            "setweight(to_tsvector('simple', array_to_string(tg.names, ' ')), 'B') || " +
+            "setweight(to_tsvector('simple', dc.names), 'C') " +
+            "FROM application a " +
+            "JOIN app_user u ON u.id = a.applicant_id " +
+            "JOIN product p ON p.id = a.product_id " +
+            "CROSS JOIN LATERAL (SELECT COALESCE(array_agg(t.name ORDER BY t.name), '{}') AS names " +
+            "    FROM application_tag at JOIN tag t ON t.id = at.tag_id WHERE at.application_id = a.id) tg " +
+            "CROSS JOIN LATERAL (SELECT COUNT(*) AS cnt, COALESCE(string_agg(d.file_name || ' ' || " +
+            "    regexp_replace(d.file_name, '[^[:alnum:]]+', ' ', 'g'), ' '), '') AS names " +
+            "    FROM document d WHERE d.application_id = a.id) dc ";
+
+    private static final String INSERT =
+            "INSERT INTO application_view (id, applicant_id, applicant_username, product_id, product_name, status, " +
+            "created_at, updated_at, tag_names, document_count, search_vector) ";
+
+    private static final String ON_CONFLICT =
+            "ON CONFLICT (id) DO UPDATE SET applicant_id = EXCLUDED.applicant_id, " +
+            "applicant_username = EXCLUDED.applicant_username, product_id = EXCLUDED.product_id, " +
+            "product_name = EXCLUDED.product_name, status = EXCLUDED.status, " +
+            "created_at = EXCLUDED.created_at, updated_at = EXCLUDED.updated_at, " +
+            "tag_names = EXCLUDED.tag_names, document_count = EXCLUDED.document_count, " +
+            "search_vector = EXCLUDED.search_vector";
+
+    // Ранжированный поиск: websearch-синтаксис ("фраза", or, -слово), keyset по (rank, id)
+    private static final String SEARCH =
+            "SELECT * FROM (SELECT v.id, v.applicant_id, v.applicant_username, v.product_id, v.product_name, v.status, " +
+            "v.created_at, v.updated_at, v.tag_names, v.document_count, ts_rank(v.search_vector, q) AS rank " +
+            "FROM application_view v, websearch_to_tsquery('simple', ?) q WHERE v.search_vector @@ q) r ";
+
+    private static final String COLUMNS =
+            "SELECT id, applicant_id, applicant_username, product_id, product_name, status, created_at, updated_at, " +
+            "tag_names, document_count FROM application_view ";
+
+    private static final RowMapper<ApplicationSummaryDto> ROW_MAPPER = (rs, i) -> {
+        ApplicationSummaryDto dto = new ApplicationSummaryDto();
+        dto.setId(rs.getObject("id", UUID.class));
+        dto.setApplicantId(rs.getObject("applicant_id", UUID.class));
+        dto.setApplicantUsername(rs.getString("applicant_username"));
+        dto.setProductId(rs.getObject("product_id", UUID.class));
+        dto.setProductName(rs.getString("product_name"));
+        dto.setStatus(ApplicationStatus.valueOf(rs.getString("status")));
+        dto.setCreatedAt(rs.getObject("created_at", OffsetDateTime.class).toInstant());
+        OffsetDateTime updatedAt = rs.getObject("updated_at", OffsetDateTime.class);
+        dto.setUpdatedAt(updatedAt == null ? null : updatedAt.toInstant());
+        Array tags = rs.getArray("tag_names");
+        dto.setTags(tags == null ? List.of() : List.of((String[]) tags.getArray()));
+        dto.setDocumentCount(rs.getInt("document_count"));
+        return dto;
+    };
+
+    private static final RowMapper<RankedSummary> RANKED_ROW_MAPPER =
+            (rs, i) -> new RankedSummary(ROW_MAPPER.mapRow(rs, i), rs.getFloat("rank"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ApplicationViewRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Пересобирает строки заявок из базовых таблиц; удалённые заявки убираются из проекции
+    public void refresh(Collection<UUID> applicationIds) {
+        if (applicationIds.isEmpty()) return;
+        Object[] ids = applicationIds.toArray();
+        jdbcTemplate.update(INSERT + PROJECTION + "WHERE a.id = ANY(?) " + ON_CONFLICT,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids)));
+        jdbcTemplate.update("DELETE FROM application_view v WHERE v.id = ANY(?) " +
+                        "AND NOT EXISTS (SELECT 1 FROM application a WHERE a.id = v.id)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids)));
+    }
+
+    public void refreshApplicantNames(Collection<UUID> userIds) {
+        if (userIds.isEmpty()) return;
+        jdbcTemplate.update("UPDATE application_view v SET applicant_username = u.username FROM app_user u " +
+                        "WHERE v.applicant_id = u.id AND u.id = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", userIds.toArray())));
+    }
+
+    // Название продукта входит в search_vector - строки продукта пересобираются целиком
+    public void refreshProductNames(Collection<UUID> productIds) {
+        if (productIds.isEmpty()) return;
+        jdbcTemplate.update(INSERT + PROJECTION + "WHERE a.product_id = ANY(?) " + ON_CONFLICT,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", productIds.toArray())));
+    }
+
+    // Полная пересборка. Читатели до коммита видят старую проекцию, писатели ждут блокировку
+    public int rebuild() {
+        jdbcTemplate.execute("LOCK TABLE application_view IN EXCLUSIVE MODE");
+        jdbcTemplate.update("DELETE FROM application_view");
+        return jdbcTemplate.update(INSERT + PROJECTION);
+    }
+
+    public List<ApplicationSummaryDto> findFirstPage(int limit) {
+        return jdbcTemplate.query(COLUMNS + "ORDER BY created_at DESC, id DESC LIMIT ?", ROW_MAPPER, limit);
+    }
+
+    public List<ApplicationSummaryDto> findByKeyset(Instant ts, UUID id, int limit) {
+        return jdbcTemplate.query(COLUMNS + "WHERE (created_at, id) < (?, ?) ORDER BY created_at DESC, id DESC LIMIT ?",
+                ROW_MAPPER, ts.atOffset(ZoneOffset.UTC), id, limit);
+    }
+
+    public List<RankedSummary> search(String query, int limit) {
+        return jdbcTemplate.query(SEARCH + "ORDER BY rank DESC, id DESC LIMIT ?",
+                RANKED_ROW_MAPPER, query, limit);
+    }
+
+    public List<RankedSummary> searchAfter(String query, float rank, UUID id, int limit) {
+        return jdbcTemplate.query(SEARCH + "WHERE (rank, id) < (?, ?) ORDER BY rank DESC, id DESC LIMIT ?",
+                RANKED_ROW_MAPPER, query, rank, id, limit);
+    }
+
+    public record RankedSummary(ApplicationSummaryDto summary, float rank) { }
+}
@@ -0,0 +1,93 @@
+package com.example.bankticketsystem.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+// Счётчики ссылок на файлы документов (document_blob) и права на них (document_blob_grant).
+// Блокировки строк здесь не дают сборщику мусора удалить файл, который сейчас прикрепляют
+@Repository
+public class DocumentBlobRepository {
+
+    // Повторная загрузка того же содержимого только продлевает жизнь файла
+    private static final String REGISTER =
+            "INSERT INTO document_blob (storage_key, size_bytes, ref_count, updated_at) VALUES (?, ?, 0, ?) " +
+            "ON CONFLICT (storage_key) DO UPDATE SET updated_at = EXCLUDED.updated_at";
+
+    // Право пользователя ссылаться на файл: он сам прислал его содержимое
+    private static final String GRANT =
+            "INSERT INTO document_blob_grant (storage_key, user_id, granted_at) VALUES (?, ?, ?) " +
+            "ON CONFLICT (storage_key, user_id) DO UPDATE SET granted_at = EXCLUDED.granted_at";
+
+    // Хэш содержимого не секрет: ссылаться на файл может только тот, кто его загрузил
+    // или уже прикрепил к своей заявке
+    private static final String OWNED =
+            "(EXISTS (SELECT 1 FROM document_blob_grant g WHERE g.storage_key = b.storage_key AND g.user_id = ?) " +
+            "OR EXISTS (SELECT 1 FROM document d JOIN application a ON a.id = d.application_id " +
+            "WHERE d.storage_key = b.storage_key AND a.applicant_id = ?))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DocumentBlobRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void register(String key, long size, Instant now) {
+        jdbcTemplate.update(REGISTER, key, size, Timestamp.from(now));
+    }
+
+    public void grant(String key, UUID userId, Instant now) {
+        jdbcTemplate.update(GRANT, key, userId, Timestamp.from(now));
+    }
+
+    // Размер файла, если он есть и доступен userId (и продление его жизни), иначе null
+    public Long touch(String key, UUID userId, Instant now) {
+        return single(jdbcTemplate.queryForList(
+                "UPDATE document_blob b SET updated_at = ? WHERE b.storage_key = ? AND " + OWNED + " RETURNING size_bytes",
+                Long.class, Timestamp.from(now), key, userId, userId));
+    }
+
+    // +1 ссылка; строка заблокирована до конца транзакции вызывающего. null - файла нет или он недоступен userId
+    public Long acquire(String key, UUID userId) {
+        return single(jdbcTemplate.queryForList(
+                "UPDATE document_blob b SET ref_count = ref_count + 1 WHERE b.storage_key = ? AND " + OWNED + " RETURNING size_bytes",
+                Long.class, key, userId, userId));
+    }
+
+    public boolean exists(String key) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM document_blob WHERE storage_key = ?)", Boolean.class, key));
+    }
+
+    // counts: ключ -> сколько ссылок снять. Ключи по порядку - одинаковый порядок блокировок строк
+    public void release(Map<String, Integer> counts, Instant now) {
+        List<Object[]> rows = new ArrayList<>();
+        new TreeMap<>(counts).forEach((key, n) -> rows.add(new Object[]{n, Timestamp.from(now), key}));
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE document_blob SET ref_count = ref_count - ?, updated_at = ? " +
+                    "WHERE storage_key = ?", rows);
+        }
+    }
+
+    public List<String> findUnreferenced(Instant cutoff, int limit) {
+        return jdbcTemplate.queryForList("SELECT storage_key FROM document_blob WHERE ref_count = 0 AND updated_at < ? " +
+                "ORDER BY updated_at LIMIT ?", String.class, Timestamp.from(cutoff), limit);
+    }
+
+    // Условие проверяется заново под блокировкой строки: файл мог быть привязан или загружен повторно
+    public boolean deleteIfUnreferenced(String key, Instant cutoff) {
+        return jdbcTemplate.update("DELETE FROM document_blob WHERE storage_key = ? AND ref_count = 0 AND updated_at < ?",
+                key, Timestamp.from(cutoff)) == 1;
+    }
+
+    private static Long single(List<Long> values) {
+        return values.isEmpty() ? null : values.get(0);
+    }
+}
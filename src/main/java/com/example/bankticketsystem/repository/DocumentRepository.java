@@ -3,8 +3,16 @@ package com.example.bankticketsystem.repository;
 import com.example.bankticketsystem.model.entity.Document;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface DocumentRepository extends JpaRepository<Document, UUID> {
     long countByApplicationId(UUID applicationId);
+
+    // Документы сразу для страницы заявок - один запрос вместо N
+    List<Document> findByApplicationIdIn(Collection<UUID> applicationIds);
+
+    Optional<Document> findByIdAndApplicationId(UUID id, UUID applicationId);
 }
@@ -0,0 +1,84 @@
+package com.example.bankticketsystem.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+// Сохранённые ответы POST с Idempotency-Key; строка без status_code - резервация: первый запрос ещё выполняется
+@Repository
+public class IdempotencyKeyRepository {
+
+    // Пространство advisory-блокировок ключей (первый аргумент pg_*_advisory_xact_lock)
+    private static final int LOCK_NAMESPACE = 0x1DE4;
+
+    // Ключ занимается, если его нет, он истёк или его резервация брошена (инстанс упал до начала действия
+    // или между его откатом и release). Пока владелец выполняет действие, он держит advisory-блокировку
+    // ключа: перехват невозможен, сколько бы действие ни длилось, и попытка не ждёт блокировку строки
+    private static final String RESERVE =
+            "WITH gate AS (SELECT pg_try_advisory_xact_lock(" + LOCK_NAMESPACE + ", hashtext(?)) AS free) " +
+            "INSERT INTO idempotency_key (idem_key, request_hash, created_at, expires_at) " +
+            "SELECT ?, ?, ?, ? FROM gate WHERE gate.free " +
+            "ON CONFLICT (idem_key) DO UPDATE SET request_hash = EXCLUDED.request_hash, status_code = NULL, " +
+            "location = NULL, response_body = NULL, created_at = EXCLUDED.created_at, expires_at = EXCLUDED.expires_at " +
+            "WHERE idempotency_key.expires_at < EXCLUDED.created_at " +
+            "OR (idempotency_key.status_code IS NULL AND idempotency_key.created_at < ?) " +
+            "RETURNING created_at";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdempotencyKeyRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Время резервации (её метка для lock/complete/release) или null, если ключ занят
+    public Instant tryReserve(String key, String requestHash, Instant now, Instant expiresAt, Instant staleBefore) {
+        List<Instant> reserved = jdbcTemplate.query(RESERVE,
+                (rs, n) -> rs.getObject("created_at", OffsetDateTime.class).toInstant(),
+                key, key, requestHash, Timestamp.from(now), Timestamp.from(expiresAt), Timestamp.from(staleBefore));
+        return reserved.isEmpty() ? null : reserved.get(0);
+    }
+
+    // Только в транзакции действия: блокировки держатся до её конца. false - резервацию уже перехватили
+    public boolean lock(String key, Instant reservedAt) {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(?, hashtext(?))", rs -> null, LOCK_NAMESPACE, key);
+        return !jdbcTemplate.queryForList("SELECT 1 FROM idempotency_key " +
+                        "WHERE idem_key = ? AND created_at = ? AND status_code IS NULL FOR UPDATE",
+                Integer.class, key, Timestamp.from(reservedAt)).isEmpty();
+    }
+
+    public boolean complete(String key, Instant reservedAt, StoredResponse response) {
+        return jdbcTemplate.update("UPDATE idempotency_key SET status_code = ?, location = ?, response_body = ? " +
+                        "WHERE idem_key = ? AND created_at = ? AND status_code IS NULL",
+                response.status(), response.location(), response.body(), key, Timestamp.from(reservedAt)) == 1;
+    }
+
+    // Снимается только своя незавершённая резервация - сохранённый ответ и чужую резервацию не трогаем
+    public void release(String key, Instant reservedAt) {
+        jdbcTemplate.update("DELETE FROM idempotency_key WHERE idem_key = ? AND created_at = ? AND status_code IS NULL",
+                key, Timestamp.from(reservedAt));
+    }
+
+    public Optional<StoredResponse> find(String key, Instant now) {
+        List<StoredResponse> rows = jdbcTemplate.query(
+                "SELECT request_hash, status_code, location, response_body FROM idempotency_key " +
+                        "WHERE idem_key = ? AND expires_at >= ?",
+                (rs, n) -> new StoredResponse(rs.getString("request_hash"),
+                        (Integer) rs.getObject("status_code"), rs.getString("location"), rs.getString("response_body")),
+                key, Timestamp.from(now));
+        return rows.stream().findFirst();
+    }
+
+    public int deleteExpired(Instant now) {
+        return jdbcTemplate.update("DELETE FROM idempotency_key WHERE expires_at < ?", Timestamp.from(now));
+    }
+
+    // status == null - запрос ещё выполняется
+    public record StoredResponse(String requestHash, Integer status, String location, String body) {
+        public boolean isCompleted() { return status != null; }
+    }
+}
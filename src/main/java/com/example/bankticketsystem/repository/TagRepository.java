@@ -1,19 +1,19 @@
 package com.example.bankticketsystem.repository;
 
-import com.example.bankticketsystem.model.entity.Application;
 import com.example.bankticketsystem.model.entity.Tag;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface TagRepository extends JpaRepository<Tag, UUID> {
     Optional<Tag> findByName(String name);
 
-    @Query("SELECT t FROM Tag t LEFT JOIN FETCH t.applications WHERE t.name = :name")
-    Optional<Tag> findByNameWithApplications(@Param("name") String name);
+    // Пары (applicationId, tagName) для страницы заявок - один запрос вместо N
+    @Query("SELECT a.id, t.name FROM Application a JOIN a.tags t WHERE a.id IN :applicationIds")
+    List<Object[]> findNamesByApplicationIds(@Param("applicationIds") Collection<UUID> applicationIds);
 }
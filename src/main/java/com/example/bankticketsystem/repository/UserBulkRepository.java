@@ -0,0 +1,61 @@
+package com.example.bankticketsystem.repository;
+
+import com.example.bankticketsystem.model.entity.User;
+import com.example.bankticketsystem.model.enums.UserRole;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+// Запросы массового импорта пользователей: один запрос на порцию вместо exists/save на каждого,
+// массивы передаются параметрами-массивами PostgreSQL
+@Repository
+public class UserBulkRepository {
+
+    // Конфликт по username или email (например, параллельная регистрация) - строка просто не вставляется
+    private static final String INSERT =
+            "INSERT INTO app_user (id, username, email, password_hash, role, created_at, version) " +
+            "SELECT id, username, email, password_hash, ?, ?, 0 " +
+            "FROM unnest(?::uuid[], ?::varchar[], ?::varchar[], ?::varchar[]) AS t(id, username, email, password_hash) " +
+            "ON CONFLICT DO NOTHING RETURNING id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserBulkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Set<String> findExistingUsernames(List<String> usernames) {
+        return new HashSet<>(jdbcTemplate.queryForList("SELECT username FROM app_user WHERE username = ANY(?)",
+                String.class, (Object) usernames.toArray(String[]::new)));
+    }
+
+    public Set<String> findExistingEmails(List<String> emails) {
+        return new HashSet<>(jdbcTemplate.queryForList("SELECT email FROM app_user WHERE email = ANY(?)",
+                String.class, (Object) emails.toArray(String[]::new)));
+    }
+
+    // Все пользователи пачки одним запросом (роль и время создания - общие); возвращает id реально вставленных
+    public Set<UUID> insertAll(List<User> users, UserRole role, Instant createdAt) {
+        if (users.isEmpty()) return Set.of();
+        int n = users.size();
+        UUID[] ids = new UUID[n];
+        String[] usernames = new String[n];
+        String[] emails = new String[n];
+        String[] hashes = new String[n];
+        for (int i = 0; i < n; i++) {
+            User u = users.get(i);
+            ids[i] = u.getId();
+            usernames[i] = u.getUsername();
+            emails[i] = u.getEmail();
+            hashes[i] = u.getPasswordHash();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList(INSERT, UUID.class, role.name(),
+                Timestamp.from(createdAt), ids, usernames, emails, hashes));
+    }
+}
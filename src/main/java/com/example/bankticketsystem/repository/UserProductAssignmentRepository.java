@@ -2,7 +2,10 @@ package com.example.bankticketsystem.repository;
 
 import com.example.bankticketsystem.model.entity.UserProductAssignment;
 import com.example.bankticketsystem.model.enums.AssignmentRole;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -18,4 +21,25 @@ public interface UserProductAssignmentRepository extends JpaRepository<UserProdu
     void deleteByUserIdAndProductId(UUID userId, UUID productId);
     void deleteByUserId(UUID userId);
     void deleteByProductId(UUID productId);
+
+    // Пары (productId, роль) пользователя - для индекса прав ProductPermissionIndex, без загрузки сущностей
+    @Query("SELECT a.product.id, a.roleOnProduct FROM UserProductAssignment a WHERE a.user.id = :userId")
+    List<Object[]> findProductRolesByUserId(@Param("userId") UUID userId);
+
+    // Страницы списка назначений (keyset по id): строки (id, userId, productId, роль, assignedAt)
+    // прямо из столбцов внешних ключей, без загрузки пользователей и продуктов
+    String PAGE_SELECT = "SELECT a.id, a.user.id, a.product.id, a.roleOnProduct, a.assignedAt FROM UserProductAssignment a ";
+
+    @Query(PAGE_SELECT + "WHERE a.id > :after ORDER BY a.id")
+    List<Object[]> findPage(@Param("after") UUID after, Limit limit);
+
+    @Query(PAGE_SELECT + "WHERE a.user.id = :userId AND a.id > :after ORDER BY a.id")
+    List<Object[]> findPageByUserId(@Param("userId") UUID userId, @Param("after") UUID after, Limit limit);
+
+    @Query(PAGE_SELECT + "WHERE a.product.id = :productId AND a.id > :after ORDER BY a.id")
+    List<Object[]> findPageByProductId(@Param("productId") UUID productId, @Param("after") UUID after, Limit limit);
+
+    @Query(PAGE_SELECT + "WHERE a.user.id = :userId AND a.product.id = :productId AND a.id > :after ORDER BY a.id")
+    List<Object[]> findPageByUserIdAndProductId(@Param("userId") UUID userId, @Param("productId") UUID productId,
+                                                @Param("after") UUID after, Limit limit);
 }
@@ -8,8 +8,10 @@ import com.example.bankticketsystem.model.enums.UserRole;
 import com.example.bankticketsystem.repository.*;
 import com.example.bankticketsystem.util.ApplicationPage;
 import com.example.bankticketsystem.util.CursorUtil;
+import com.example.bankticketsystem.util.UuidV7;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.*;
@@ -26,17 +28,26 @@ public class ApplicationService {
     private final UserService userService;
     private final ProductService productService;
     private final TagService tagService;
+    private final ApplicationStatsService statsService;
+    private final ApplicationViewService viewService;
+    private final DocumentService documentService;
 
     public ApplicationService(ApplicationRepository applicationRepository,
                               ApplicationHistoryRepository applicationHistoryRepository,
                               @Lazy UserService userService,
                               @Lazy ProductService productService,
-                              TagService tagService) {
+                              TagService tagService,
+                              ApplicationStatsService statsService,
+                              ApplicationViewService viewService,
+                              @Lazy DocumentService documentService) {
         this.applicationRepository = applicationRepository;
         this.applicationHistoryRepository = applicationHistoryRepository;
         this.userService = userService;
         this.productService = productService;
         this.tagService =tagService;
+        this.statsService = statsService;
+        this.viewService = viewService;
+        this.documentService = documentService;
     }
 
     @Transactional
@@ -53,7 +64,7 @@ public class ApplicationService {
                 .orElseThrow(() -> new NotFoundException("Product not found"));
 
         Application app = new Application();
-        UUID applicationId = UUID.randomUUID();
+        UUID applicationId = UuidV7.next();
         app.setId(applicationId);
         app.setApplicant(applicant);
         app.setProduct(product);
@@ -63,20 +74,16 @@ public class ApplicationService {
         List<DocumentRequest> docsReq = req.getDocuments() == null ? List.of() : req.getDocuments();
         List<Document> docs = new ArrayList<>();
         for (DocumentRequest dreq : docsReq) {
-            Document d = new Document();
-            d.setId(UUID.randomUUID());
-            d.setFileName(dreq.getFileName());
-            d.setContentType(dreq.getContentType());
-            d.setStoragePath(dreq.getStoragePath());
-            d.setApplication(app);
-            docs.add(d);
+            docs.add(documentService.newDocument(dreq, app));
         }
         app.setDocuments(docs);
 
         applicationRepository.save(app);
+        statsService.applicationCreated(app);
+        viewService.applicationChanged(applicationId);
 
         ApplicationHistory hist = new ApplicationHistory();
-        hist.setId(UUID.randomUUID());
+        hist.setId(UuidV7.next());
         hist.setApplication(app);
         hist.setOldStatus(null);
         hist.setNewStatus(app.getStatus());
@@ -90,6 +97,8 @@ public class ApplicationService {
         return toDto(app);
     }
 
+    // list и stream читают сущности, а не application_view: в ApplicationDto нужны документы и version.
+    // Документы и теги страницы догружаются одним IN-запросом (default_batch_fetch_size), без N+1
     @Transactional(readOnly = true)
     public Page<ApplicationDto> list(int page, int size) {
         Pageable p = PageRequest.of(page, size);
@@ -97,8 +106,23 @@ public class ApplicationService {
         return applications.map(this::toDto);
     }
 
+    @Transactional(readOnly = true)
+    public Page<ApplicationDto> list(int page, int size, ApplicationFilter filter) {
+        if (filter == null || filter.isEmpty()) return list(page, size);
+        Pageable p = PageRequest.of(page, size);
+        List<ApplicationDto> items = applicationRepository.findFilteredPage(filter, (int) p.getOffset(), size)
+                .stream().map(this::toDto).collect(Collectors.toList());
+        return new PageImpl<>(items, p, applicationRepository.countFiltered(filter));
+    }
+
+    @Transactional(readOnly = true)
     public ApplicationDto get(UUID id) {
-        return applicationRepository.findById(id).map(this::toDto).orElse(null);
+        return applicationRepository.findWithDocumentsAndTagsById(id).map(this::toDto).orElse(null);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Long> findVersion(UUID id) {
+        return applicationRepository.findVersionById(id);
     }
 
     private ApplicationDto toDto(Application app) {
@@ -108,12 +132,14 @@ public class ApplicationService {
         dto.setProductId(app.getProduct() != null ? app.getProduct().getId() : null);
         dto.setStatus(app.getStatus());
         dto.setCreatedAt(app.getCreatedAt());
+        dto.setVersion(app.getVersion());
         List<com.example.bankticketsystem.dto.DocumentDto> docs = app.getDocuments().stream().map(d -> {
             com.example.bankticketsystem.dto.DocumentDto dd = new com.example.bankticketsystem.dto.DocumentDto();
             dd.setId(d.getId());
             dd.setFileName(d.getFileName());
             dd.setContentType(d.getContentType());
             dd.setStoragePath(d.getStoragePath());
+            dd.setSize(d.getSizeBytes());
             return dd;
         }).collect(Collectors.toList());
         List<String> tagNames = app.getTags() == null ? List.of() :
@@ -152,8 +178,36 @@ public class ApplicationService {
         return new ApplicationPage(dtos, nextCursor);
     }
 
+    @Transactional(readOnly = true)
+    public ApplicationPage streamWithNextCursor(String cursor, int limit, ApplicationFilter filter) {
+        if (filter == null || filter.isEmpty()) return streamWithNextCursor(cursor, limit);
+        if (limit <= 0) throw new BadRequestException("limit must be greater than 0");
+        int capped = Math.min(limit, 50);
+
+        // Курсор тот же (createdAt, id): фильтр лишь сужает выборку, порядок не меняется
+        CursorUtil.Decoded dec = CursorUtil.decodeOrThrow(cursor);
+        List<Application> apps = applicationRepository.findFiltered(filter,
+                dec == null ? null : dec.timestamp, dec == null ? null : dec.id, capped);
+
+        List<ApplicationDto> dtos = apps.stream().map(this::toDto).collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (!apps.isEmpty()) {
+            Application last = apps.get(apps.size() - 1);
+            nextCursor = CursorUtil.encode(last.getCreatedAt(), last.getId());
+        }
+
+        return new ApplicationPage(dtos, nextCursor);
+    }
+
     @Transactional
     public void attachTags(UUID applicationId, List<String> tagNames, UUID actorId) {
+        attachTags(applicationId, tagNames, actorId, null);
+    }
+
+    // expectedVersion != null - оптимистическая проверка по If-Match; возвращает новую версию заявки
+    @Transactional
+    public Long attachTags(UUID applicationId, List<String> tagNames, UUID actorId, Long expectedVersion) {
         if (actorId == null) {
             throw new UnauthorizedException("You must specify the actorId to authorize in this request");
         }
@@ -166,14 +220,26 @@ public class ApplicationService {
             throw new ForbiddenException("You must have the rights of an applicant, manager, or administrator for this request");
         }
 
+        checkVersion(app, expectedVersion);
+
         for (String name : tagNames) {
             Tag t = tagService.createTag(name);
-            app.getTags().add(t);
+            if (app.getTags().add(t)) {
+                statsService.tagAdded(t.getName());
+            }
         }
         applicationRepository.save(app);
+        viewService.applicationChanged(applicationId);
+        return flushVersion(app, expectedVersion);
     }
 
+    @Transactional
     public void removeTags(UUID applicationId, List<String> tagNames, UUID actorId) {
+        removeTags(applicationId, tagNames, actorId, null);
+    }
+
+    @Transactional
+    public Long removeTags(UUID applicationId, List<String> tagNames, UUID actorId, Long expectedVersion) {
         if (actorId == null) {
             throw new UnauthorizedException("You must specify the actorId to authorize in this request");
         }
@@ -186,12 +252,25 @@ public class ApplicationService {
             throw new ForbiddenException("You must have the rights of an applicant, manager, or administrator for this request");
         }
 
-        app.getTags().removeIf(tag -> tagNames.contains(tag.getName()));
+        checkVersion(app, expectedVersion);
+
+        app.getTags().removeIf(tag -> {
+            if (!tagNames.contains(tag.getName())) return false;
+            statsService.tagRemoved(tag.getName());
+            return true;
+        });
         applicationRepository.save(app);
+        viewService.applicationChanged(applicationId);
+        return flushVersion(app, expectedVersion);
     }
 
     @Transactional
     public ApplicationDto changeStatus(UUID applicationId, String status, UUID actorId) {
+        return changeStatus(applicationId, status, actorId, null);
+    }
+
+    @Transactional
+    public ApplicationDto changeStatus(UUID applicationId, String status, UUID actorId, Long expectedVersion) {
         if (status == null) throw new BadRequestException("Status must be not empty");
 
         if (actorId == null) {
@@ -211,37 +290,91 @@ public class ApplicationService {
                 throw new ConflictException("Managers cannot change status of their own applications");
             }
         }
+        checkVersion(app, expectedVersion);
 
-        try {
-            ApplicationStatus newStatus = ApplicationStatus.valueOf(status.trim().toUpperCase());
-            ApplicationStatus oldStatus = app.getStatus();
-            if (oldStatus == newStatus) {
-                return toDto(app);
-            }
-            try {
-                app.setStatus(newStatus);
-                app.setUpdatedAt(Instant.now());
-                applicationRepository.save(app);
-
-                ApplicationHistory hist = new ApplicationHistory();
-                hist.setId(UUID.randomUUID());
-                hist.setApplication(app);
-                hist.setOldStatus(oldStatus);
-                hist.setNewStatus(newStatus);
-                hist.setChangedBy(actor.getRole());
-                hist.setChangedAt(Instant.now());
-
-                applicationHistoryRepository.save(hist);
-            } catch (DataIntegrityViolationException ex) {
-                Throwable root = ex.getRootCause() != null ? ex.getRootCause() : ex;
-                throw new ConflictException("DB constraint violated: " + root.getMessage());
-            }
-
-            return toDto(app);
-        } catch (IllegalArgumentException e) {
+        ApplicationStatus newStatus = ApplicationStatus.fromName(status.trim().toUpperCase());
+        if (newStatus == null) {
             throw new ConflictException("This status is incorrect. List of statuses: " +
                     "DRAFT, SUBMITTED, IN_REVIEW, APPROVED, REJECTED");
         }
+        ApplicationStatus oldStatus = app.getStatus();
+        if (oldStatus == newStatus) {
+            return toDto(app);
+        }
+        try {
+            recordStatusChange(app, newStatus, actor);
+            flushVersion(app, expectedVersion);
+        } catch (DataIntegrityViolationException ex) {
+            Throwable root = ex.getRootCause() != null ? ex.getRootCause() : ex;
+            throw new ConflictException("DB constraint violated: " + root.getMessage());
+        }
+
+        return toDto(app);
+    }
+
+    @Transactional
+    public List<ApplicationDto> claim(UUID actorId, int limit) {
+        if (actorId == null) {
+            throw new UnauthorizedException("You must specify the actorId to authorize in this request");
+        }
+        if (limit <= 0) throw new BadRequestException("limit must be greater than 0");
+        User actor = userService.findById(actorId)
+                .orElseThrow(() -> new NotFoundException("Actor not found: " + actorId));
+        if (actor.getRole() != UserRole.ROLE_MANAGER && actor.getRole() != UserRole.ROLE_ADMIN) {
+            throw new ForbiddenException("Only admin or manager can claim applications");
+        }
+        int capped = Math.min(limit, 50);
+
+        // Строки заблокированы до конца транзакции: параллельный claim их не увидит и не будет ждать
+        List<Application> apps = actor.getRole() == UserRole.ROLE_ADMIN
+                ? applicationRepository.lockSubmitted(capped)
+                : applicationRepository.lockSubmittedForManager(actorId, capped);
+        for (Application app : apps) {
+            recordStatusChange(app, ApplicationStatus.IN_REVIEW, actor);
+        }
+        return apps.stream().map(this::toDto).collect(Collectors.toList());
+    }
+
+    private void recordStatusChange(Application app, ApplicationStatus newStatus, User actor) {
+        ApplicationStatus oldStatus = app.getStatus();
+        app.setStatus(newStatus);
+        app.setUpdatedAt(Instant.now());
+        applicationRepository.save(app);
+        statsService.statusChanged(oldStatus, newStatus);
+        viewService.applicationChanged(app.getId());
+
+        ApplicationHistory hist = new ApplicationHistory();
+        hist.setId(UuidV7.next());
+        hist.setApplication(app);
+        hist.setOldStatus(oldStatus);
+        hist.setNewStatus(newStatus);
+        hist.setChangedBy(actor.getRole());
+        hist.setChangedAt(Instant.now());
+
+        applicationHistoryRepository.save(hist);
+    }
+
+    private void checkVersion(Application app, Long expectedVersion) {
+        if (expectedVersion == null) return;
+        long current = app.getVersion() == null ? 0 : app.getVersion();
+        if (current != expectedVersion) {
+            throw new PreconditionFailedException("Application " + app.getId() + " has been modified (version "
+                    + current + ", expected " + expectedVersion + ")");
+        }
+    }
+
+    // flush поднимает @Version сразу, чтобы вернуть клиенту актуальный ETag;
+    // конкурирующая запись между проверкой и flush ловится оптимистической блокировкой
+    private Long flushVersion(Application app, Long expectedVersion) {
+        try {
+            applicationRepository.flush();
+        } catch (ObjectOptimisticLockingFailureException ex) {
+            if (expectedVersion != null) {
+                throw new PreconditionFailedException("Application " + app.getId() + " has been modified concurrently");
+            }
+            throw ex;
+        }
+        return app.getVersion();
     }
 
     // вот здесь дискуссионно - если считать, что applicationRepository.delete(app); сразу выполняются полностью, то можно убрать транзакцию,
@@ -262,6 +395,9 @@ public class ApplicationService {
                 .orElseThrow(() -> new NotFoundException("Application not found: " + applicationId));
 
         try {
+            statsService.applicationDeleted(app);
+            viewService.applicationChanged(applicationId);
+            documentService.documentsDeleted(app.getDocuments());
             applicationRepository.delete(app);
         } catch (Exception ex) {
             throw new ConflictException("Failed to delete application (DB constraint): " + ex.getMessage());
@@ -270,19 +406,7 @@ public class ApplicationService {
 
     @Transactional(readOnly = true)
     public List<ApplicationHistoryDto> listHistory(UUID applicationId, UUID actorId) {
-        if (actorId == null) {
-            throw new UnauthorizedException("You must specify the actorId to authorize in this request");
-        }
-        User actor = userService.findById(actorId)
-                .orElseThrow(() -> new NotFoundException("Actor not found: " + actorId));
-
-        Application app = applicationRepository.findById(applicationId)
-                .orElseThrow(() -> new NotFoundException("Application not found: " + applicationId));
-
-        boolean isApplicant = app.getApplicant() != null && app.getApplicant().getId().equals(actor.getId());
-        if (!(isApplicant || actor.getRole() == UserRole.ROLE_ADMIN || actor.getRole() == UserRole.ROLE_MANAGER)) {
-            throw new ForbiddenException("Only applicant, manager or admin can see the history of application changes");
-        }
+        findReadable(applicationId, actorId, "Only applicant, manager or admin can see the history of application changes");
 
         List<ApplicationHistory> history = applicationHistoryRepository.findByApplicationIdOrderByChangedAtDesc(applicationId);
         return history.stream().map(h -> {
@@ -297,6 +421,25 @@ public class ApplicationService {
         }).collect(Collectors.toList());
     }
 
+    // Заявка, которую actor может читать целиком (история, файлы документов): заявитель, менеджер или админ
+    @Transactional(readOnly = true)
+    public Application findReadable(UUID applicationId, UUID actorId, String forbiddenMessage) {
+        if (actorId == null) {
+            throw new UnauthorizedException("You must specify the actorId to authorize in this request");
+        }
+        User actor = userService.findById(actorId)
+                .orElseThrow(() -> new NotFoundException("Actor not found: " + actorId));
+
+        Application app = applicationRepository.findById(applicationId)
+                .orElseThrow(() -> new NotFoundException("Application not found: " + applicationId));
+
+        boolean isApplicant = app.getApplicant() != null && app.getApplicant().getId().equals(actor.getId());
+        if (!(isApplicant || actor.getRole() == UserRole.ROLE_ADMIN || actor.getRole() == UserRole.ROLE_MANAGER)) {
+            throw new ForbiddenException(forbiddenMessage);
+        }
+        return app;
+    }
+
     public List<Application> findByApplicantId(UUID applicantId) {
         return applicationRepository.findByApplicantId(applicantId);
     }
@@ -306,6 +449,9 @@ public class ApplicationService {
     }
 
     public void delete(Application a) {
+        statsService.applicationDeleted(a);
+        viewService.applicationChanged(a.getId());
+        documentService.documentsDeleted(a.getDocuments());
         applicationRepository.delete(a);
     }
 }
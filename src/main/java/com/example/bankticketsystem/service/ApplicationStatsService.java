@@ -0,0 +1,135 @@
+package com.example.bankticketsystem.service;
+
+import com.example.bankticketsystem.dto.ApplicationStatsDto;
+import com.example.bankticketsystem.exception.ForbiddenException;
+import com.example.bankticketsystem.exception.NotFoundException;
+import com.example.bankticketsystem.exception.UnauthorizedException;
+import com.example.bankticketsystem.model.entity.Application;
+import com.example.bankticketsystem.model.entity.Tag;
+import com.example.bankticketsystem.model.entity.User;
+import com.example.bankticketsystem.model.enums.ApplicationStatus;
+import com.example.bankticketsystem.model.enums.UserRole;
+import com.example.bankticketsystem.repository.ApplicationStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+// Число заявок по статусам, продуктам и тегам, обновляемое инкрементально: дельты копятся в транзакции
+// и пишутся перед коммитом, так что строки счётчиков блокируются только на время коммита
+@Service
+public class ApplicationStatsService {
+
+    public static final String STATUS = "status";
+    public static final String PRODUCT = "product";
+    public static final String TAG = "tag";
+
+    private static final Logger log = LoggerFactory.getLogger(ApplicationStatsService.class);
+
+    private final ApplicationStatsRepository statsRepository;
+    private final UserService userService;
+    private final int stripes;
+
+    public ApplicationStatsService(ApplicationStatsRepository statsRepository,
+                                   @Lazy UserService userService,
+                                   @Value("${app.stats.stripes:8}") int stripes) {
+        this.statsRepository = statsRepository;
+        this.userService = userService;
+        this.stripes = Math.max(1, stripes);
+    }
+
+    public void applicationCreated(Application app) {
+        record(STATUS, app.getStatus().name(), 1);
+        record(PRODUCT, app.getProduct().getId().toString(), 1);
+    }
+
+    public void applicationDeleted(Application app) {
+        record(STATUS, app.getStatus().name(), -1);
+        record(PRODUCT, app.getProduct().getId().toString(), -1);
+        for (Tag t : app.getTags()) {
+            record(TAG, t.getName(), -1);
+        }
+    }
+
+    public void statusChanged(ApplicationStatus oldStatus, ApplicationStatus newStatus) {
+        record(STATUS, oldStatus.name(), -1);
+        record(STATUS, newStatus.name(), 1);
+    }
+
+    public void tagAdded(String tagName) {
+        record(TAG, tagName, 1);
+    }
+
+    public void tagRemoved(String tagName) {
+        record(TAG, tagName, -1);
+    }
+
+    @Transactional(readOnly = true)
+    public ApplicationStatsDto getStats() {
+        Map<String, Map<String, Long>> all = statsRepository.sumAll();
+        ApplicationStatsDto dto = new ApplicationStatsDto();
+        dto.setByStatus(all.getOrDefault(STATUS, Map.of()));
+        dto.setByProduct(all.getOrDefault(PRODUCT, Map.of()));
+        dto.setByTag(all.getOrDefault(TAG, Map.of()));
+        dto.setTotal(dto.getByStatus().values().stream().mapToLong(Long::longValue).sum());
+        return dto;
+    }
+
+    @Transactional
+    public ApplicationStatsDto reconcile(UUID actorId) {
+        if (actorId == null) {
+            throw new UnauthorizedException("You must specify the actorId to authorize in this request");
+        }
+        User actor = userService.findById(actorId)
+                .orElseThrow(() -> new NotFoundException("Actor not found: " + actorId));
+        if (actor.getRole() != UserRole.ROLE_ADMIN) {
+            throw new ForbiddenException("Only admin can reconcile application statistics");
+        }
+        statsRepository.rebuild();
+        return getStats();
+    }
+
+    // Плановая сверка с базовыми таблицами; по умолчанию выключена ("-")
+    @Scheduled(cron = "${app.stats.reconcile-cron:-}")
+    @Transactional
+    public void scheduledReconcile() {
+        statsRepository.rebuild();
+        log.info("Application statistics rebuilt from base tables");
+    }
+
+    @SuppressWarnings("unchecked")
+    private void record(String dimension, String key, long delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            statsRepository.increment(Map.of(dimension, Map.of(key, delta)), stripes);
+            return;
+        }
+        Map<String, Map<String, Long>> pending = (Map<String, Map<String, Long>>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            // TreeMap - одинаковый порядок блокировок строк во всех транзакциях, без взаимных блокировок
+            Map<String, Map<String, Long>> buffer = new TreeMap<>();
+            TransactionSynchronizationManager.bindResource(this, buffer);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    statsRepository.increment(buffer, stripes);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ApplicationStatsService.this);
+                }
+            });
+            pending = buffer;
+        }
+        pending.computeIfAbsent(dimension, d -> new TreeMap<>()).merge(key, delta, Long::sum);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.bankticketsystem.service;
+
+import com.example.bankticketsystem.dto.ApplicationSummaryDto;
+import com.example.bankticketsystem.exception.BadRequestException;
+import com.example.bankticketsystem.exception.ForbiddenException;
+import com.example.bankticketsystem.exception.NotFoundException;
+import com.example.bankticketsystem.exception.UnauthorizedException;
+import com.example.bankticketsystem.model.entity.User;
+import com.example.bankticketsystem.model.enums.UserRole;
+import com.example.bankticketsystem.repository.ApplicationViewRepository;
+import com.example.bankticketsystem.util.ApplicationSummaryPage;
+import com.example.bankticketsystem.util.CursorUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+// Ведёт и отдаёт application_view: запись только отмечает изменения, строки пересобираются
+// из базовых таблиц перед коммитом и откатываются вместе с изменением
+@Service
+public class ApplicationViewService {
+
+    private static final int MAX_QUERY_LENGTH = 200;
+
+    private final ApplicationViewRepository viewRepository;
+    private final UserService userService;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    public ApplicationViewService(ApplicationViewRepository viewRepository, @Lazy UserService userService) {
+        this.viewRepository = viewRepository;
+        this.userService = userService;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applicationChanged(UUID applicationId) {
+        pending().applications.add(applicationId);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applicantRenamed(UUID userId) {
+        pending().applicants.add(userId);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void productRenamed(UUID productId) {
+        pending().products.add(productId);
+    }
+
+    @Transactional(readOnly = true)
+    public ApplicationSummaryPage listSummaries(String cursor, int limit) {
+        if (limit <= 0) throw new BadRequestException("limit must be greater than 0");
+        int capped = Math.min(limit, 50);
+
+        CursorUtil.Decoded dec = CursorUtil.decodeOrThrow(cursor);
+        List<ApplicationSummaryDto> items = dec == null
+                ? viewRepository.findFirstPage(capped)
+                : viewRepository.findByKeyset(dec.timestamp, dec.id, capped);
+
+        String nextCursor = null;
+        if (items.size() == capped) {
+            ApplicationSummaryDto last = items.get(items.size() - 1);
+            nextCursor = CursorUtil.encode(last.getCreatedAt(), last.getId());
+        }
+        return new ApplicationSummaryPage(items, nextCursor);
+    }
+
+    @Transactional(readOnly = true)
+    public ApplicationSummaryPage search(String query, String cursor, int limit) {
+        if (query == null || query.isBlank()) throw new BadRequestException("Search query must not be empty");
+        if (query.length() > MAX_QUERY_LENGTH) {
+            throw new BadRequestException("Search query cannot be longer than " + MAX_QUERY_LENGTH + " characters");
+        }
+        if (limit <= 0) throw new BadRequestException("limit must be greater than 0");
+        int capped = Math.min(limit, 50);
+
+        CursorUtil.RankedDecoded dec = CursorUtil.decodeRankedOrThrow(cursor);
+        List<ApplicationViewRepository.RankedSummary> found = dec == null
+                ? viewRepository.search(query, capped)
+                : viewRepository.searchAfter(query, dec.rank, dec.id, capped);
+
+        String nextCursor = null;
+        if (found.size() == capped) {
+            ApplicationViewRepository.RankedSummary last = found.get(found.size() - 1);
+            nextCursor = CursorUtil.encodeRanked(last.rank(), last.summary().getId());
+        }
+        return new ApplicationSummaryPage(found.stream().map(ApplicationViewRepository.RankedSummary::summary).toList(), nextCursor);
+    }
+
+    @Transactional
+    public int rebuild(UUID actorId) {
+        if (actorId == null) {
+            throw new UnauthorizedException("You must specify the actorId to authorize in this request");
+        }
+        User actor = userService.findById(actorId)
+                .orElseThrow(() -> new NotFoundException("Actor not found: " + actorId));
+        if (actor.getRole() != UserRole.ROLE_ADMIN) {
+            throw new ForbiddenException("Only admin can rebuild the application view");
+        }
+        return viewRepository.rebuild();
+    }
+
+    // Изменения копятся до коммита транзакции записи (вызовы вне транзакции запрещены - MANDATORY)
+    private Pending pending() {
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Pending created = new Pending();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    // изменения сущностей ещё в persistence context - проекция читает базовые таблицы через JDBC
+                    em.flush();
+                    project(created);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ApplicationViewService.this);
+                }
+            });
+            pending = created;
+        }
+        return pending;
+    }
+
+    private void project(Pending pending) {
+        viewRepository.refresh(pending.applications);
+        viewRepository.refreshApplicantNames(pending.applicants);
+        viewRepository.refreshProductNames(pending.products);
+    }
+
+    private static class Pending {
+        final Set<UUID> applications = new LinkedHashSet<>();
+        final Set<UUID> applicants = new LinkedHashSet<>();
+        final Set<UUID> products = new LinkedHashSet<>();
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.bankticketsystem.service;
+
+import com.example.bankticketsystem.config.DocumentStorageProperties;
+import com.example.bankticketsystem.dto.DocumentRequest;
+import com.example.bankticketsystem.dto.DocumentUploadDto;
+import com.example.bankticketsystem.exception.BadRequestException;
+import com.example.bankticketsystem.exception.NotFoundException;
+import com.example.bankticketsystem.exception.UnauthorizedException;
+import com.example.bankticketsystem.model.entity.Application;
+import com.example.bankticketsystem.model.entity.Document;
+import com.example.bankticketsystem.repository.DocumentBlobRepository;
+import com.example.bankticketsystem.repository.DocumentRepository;
+import com.example.bankticketsystem.util.UuidV7;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+// Файлы документов: потоковая загрузка в DocumentStorageService, счётчики ссылок, скачивание с проверкой
+// доступа и удаление файлов без ссылок. Гонки со сборщиком решает строка document_blob: загрузка обновляет
+// updated_at, прикрепление блокирует строку, сборщик удаляет строку и файл в одной транзакции
+@Service
+public class DocumentService {
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentService.class);
+    private static final int GC_BATCH_SIZE = 500;
+
+    // Файл для отдачи клиенту; читается уже после завершения транзакции
+    public record Content(Path path, long size, String contentType, String fileName) {}
+
+    private final DocumentRepository documentRepository;
+    private final DocumentBlobRepository blobRepository;
+    private final DocumentStorageService storage;
+    private final UserService userService;
+    private final ApplicationService applicationService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration orphanTtl;
+    private volatile boolean legacySweepDone;
+
+    public DocumentService(DocumentRepository documentRepository,
+                           DocumentBlobRepository blobRepository,
+                           DocumentStorageService storage,
+                           @Lazy UserService userService,
+                           @Lazy ApplicationService applicationService,
+                           PlatformTransactionManager transactionManager,
+                           DocumentStorageProperties properties) {
+        this.documentRepository = documentRepository;
+        this.blobRepository = blobRepository;
+        this.storage = storage;
+        this.userService = userService;
+        this.applicationService = applicationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.orphanTtl = properties.getOrphanTtl();
+    }
+
+    // expectedSha256 (заголовок X-Content-Sha256): если этот файл уже загружал сам actor, тело запроса не читается вовсе,
+    // иначе тело читается и сверяется с хэшем - знание хэша не даёт доступа к чужому файлу
+    public DocumentUploadDto upload(UUID actorId, InputStream body, String fileName, String contentType, String expectedSha256) {
+        requireActor(actorId);
+        if (fileName == null || fileName.isBlank()) throw new BadRequestException("fileName is required");
+        String expected = expectedSha256 == null ? null : normalizeSha256(expectedSha256);
+        if (expected != null) {
+            Long size = blobRepository.touch(expected, actorId, Instant.now());
+            if (size != null && storage.exists(expected)) {
+                return toDto(expected, size, fileName, contentType, true);
+            }
+        }
+
+        DocumentStorageService.Part part = storage.receive(body);
+        try {
+            if (expected != null && !expected.equals(part.key())) {
+                throw new BadRequestException("File content does not match X-Content-Sha256: got " + part.key());
+            }
+            // Сначала строка (продлевает жизнь файла для сборщика), потом сам файл
+            blobRepository.register(part.key(), part.size(), Instant.now());
+            blobRepository.grant(part.key(), actorId, Instant.now());
+            boolean written = storage.publish(part);
+            return toDto(part.key(), part.size(), fileName, contentType, !written);
+        } finally {
+            storage.discard(part);
+        }
+    }
+
+    public DocumentUploadDto upload(UUID actorId, MultipartFile file) {
+        requireActor(actorId);
+        if (file.getOriginalFilename() == null || file.getOriginalFilename().isBlank()) {
+            throw new BadRequestException("Uploaded file must have a file name");
+        }
+        String key = storage.hash(file);
+        blobRepository.register(key, file.getSize(), Instant.now());
+        blobRepository.grant(key, actorId, Instant.now());
+        boolean duplicate = storage.exists(key);
+        if (!duplicate) {
+            storage.publish(key, file);
+        }
+        return toDto(key, file.getSize(), file.getOriginalFilename(), file.getContentType(), duplicate);
+    }
+
+    // Документ новой заявки: либо внешний storagePath, либо файл (sha256), загруженный самим заявителем
+    // или уже прикреплённый к его заявке. Ссылка на файл учитывается в транзакции создания заявки и откатывается вместе с ней
+    public Document newDocument(DocumentRequest req, Application app) {
+        Document d = new Document();
+        d.setId(UuidV7.next());
+        d.setFileName(req.getFileName());
+        d.setContentType(req.getContentType());
+        d.setApplication(app);
+        if (req.getSha256() == null) {
+            d.setStoragePath(req.getStoragePath());
+            return d;
+        }
+        if (req.getStoragePath() != null) {
+            throw new BadRequestException("Document must have either storagePath or sha256, not both");
+        }
+        String key = normalizeSha256(req.getSha256());
+        UUID ownerId = app.getApplicant() == null ? null : app.getApplicant().getId();
+        // Чужой файл неотличим от отсутствующего
+        Long size = ownerId == null ? null : blobRepository.acquire(key, ownerId);
+        if (size == null) {
+            throw new NotFoundException("Uploaded file not found: " + key);
+        }
+        d.setStorageKey(key);
+        d.setSizeBytes(size);
+        return d;
+    }
+
+    // Документы удаляются (вместе с заявкой): снимаем их ссылки на файлы в той же транзакции
+    public void documentsDeleted(Collection<Document> documents) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (Document d : documents) {
+            if (d.getStorageKey() != null) counts.merge(d.getStorageKey(), 1, Integer::sum);
+        }
+        if (!counts.isEmpty()) {
+            blobRepository.release(counts, Instant.now());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Content content(UUID applicationId, UUID documentId, UUID actorId) {
+        applicationService.findReadable(applicationId, actorId, "Only applicant, manager or admin can download documents");
+        Document d = documentRepository.findByIdAndApplicationId(documentId, applicationId)
+                .orElseThrow(() -> new NotFoundException("Document not found: " + documentId));
+        if (d.getStorageKey() == null) {
+            throw new NotFoundException("Document " + documentId + " is not stored here, see its storagePath");
+        }
+        return new Content(storage.path(d.getStorageKey()), d.getSizeBytes(), d.getContentType(), d.getFileName());
+    }
+
+    // Все файлы заявки из встроенного хранилища для ZIP-архива; документы с внешним storagePath
+    // сервису недоступны и в архив не попадают
+    @Transactional(readOnly = true)
+    public List<Content> bundle(UUID applicationId, UUID actorId) {
+        Application app = applicationService.findReadable(applicationId, actorId,
+                "Only applicant, manager or admin can download documents");
+        List<Content> contents = new ArrayList<>();
+        for (Document d : app.getDocuments()) {
+            if (d.getStorageKey() == null) continue;
+            Path path = storage.path(d.getStorageKey());
+            // Проверяем до начала ответа: после первого байта архива ошибку клиенту уже не вернуть
+            if (!Files.isRegularFile(path)) {
+                throw new NotFoundException("Stored file of document " + d.getId() + " is missing");
+            }
+            contents.add(new Content(path, d.getSizeBytes(), d.getContentType(), d.getFileName()));
+        }
+        contents.sort(Comparator.comparing(Content::fileName));
+        return contents;
+    }
+
+    @Scheduled(fixedDelayString = "${app.storage.gc-interval:PT1H}")
+    public void deleteUnreferencedFiles() {
+        Instant cutoff = Instant.now().minus(orphanTtl);
+        int deleted = storage.deletePartsOlderThan(cutoff);
+        if (!legacySweepDone) {
+            // Однократно: файлы под UUID-ключами, загруженные до адресации по содержимому и так и не
+            // прикреплённые, строки в document_blob не имеют. Новых UUID-ключей не появляется
+            deleted += storage.deleteLegacyObjectsOlderThan(cutoff, blobRepository::exists);
+            legacySweepDone = true;
+        }
+        List<String> batch;
+        int batchDeleted;
+        do {
+            batch = blobRepository.findUnreferenced(cutoff, GC_BATCH_SIZE);
+            batchDeleted = 0;
+            for (String key : batch) {
+                // Строка удаляется и файл стирается в одной транзакции: параллельная загрузка того же
+                // содержимого ждёт её на ON CONFLICT и затем записывает файл заново
+                Boolean removed = transactionTemplate.execute(status -> {
+                    if (!blobRepository.deleteIfUnreferenced(key, cutoff)) return false;
+                    storage.delete(key);
+                    return true;
+                });
+                if (Boolean.TRUE.equals(removed)) batchDeleted++;
+            }
+            deleted += batchDeleted;
+        } while (batch.size() == GC_BATCH_SIZE && batchDeleted > 0);
+        if (deleted > 0) {
+            log.info("Deleted {} unreferenced document files", deleted);
+        }
+    }
+
+    private void requireActor(UUID actorId) {
+        if (actorId == null) {
+            throw new UnauthorizedException("You must specify the actorId to authorize in this request");
+        }
+        userService.findById(actorId).orElseThrow(() -> new NotFoundException("Actor not found: " + actorId));
+    }
+
+    private static String normalizeSha256(String value) {
+        String key = value.trim().toLowerCase(Locale.ROOT);
+        if (!DocumentStorageService.isSha256(key)) {
+            throw new BadRequestException("sha256 must be 64 hex characters: " + value);
+        }
+        return key;
+    }
+
+    private static DocumentUploadDto toDto(String key, long size, String fileName, String contentType, boolean deduplicated) {
+        DocumentUploadDto dto = new DocumentUploadDto();
+        dto.setSha256(key);
+        dto.setFileName(fileName);
+        dto.setContentType(contentType);
+        dto.setSize(size);
+        dto.setDeduplicated(deduplicated);
+        return dto;
+    }
+}
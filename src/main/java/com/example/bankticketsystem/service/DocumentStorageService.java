@@ -0,0 +1,212 @@
+package com.example.bankticketsystem.service;
+
+import com.example.bankticketsystem.config.DocumentStorageProperties;
+import com.example.bankticketsystem.exception.BadRequestException;
+import com.example.bankticketsystem.exception.PayloadTooLargeException;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Хранилище файлов по содержимому: objects/<2 символа ключа>/<ключ>, ключ - SHA-256 байтов.
+// Хэш считается при потоковой записи, файл публикуется атомарным переносом - частичных файлов не видно
+@Service
+@EnableConfigurationProperties(DocumentStorageProperties.class)
+public class DocumentStorageService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+
+    // Принятый во временный каталог файл, ещё не опубликованный под своим ключом
+    public record Part(Path file, String key, long size) {}
+
+    private final Path objects;
+    private final Path tmp;
+    private final long maxFileSize;
+
+    public DocumentStorageService(DocumentStorageProperties properties) {
+        Path root = properties.getRoot().toAbsolutePath().normalize();
+        this.objects = root.resolve("objects");
+        this.tmp = root.resolve("tmp");
+        this.maxFileSize = properties.getMaxFileSize().toBytes();
+        try {
+            Files.createDirectories(objects);
+            Files.createDirectories(tmp);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot create document storage in " + root, ex);
+        }
+    }
+
+    // Поток пишется во временный файл и одновременно хэшируется; вызывающий обязан вызвать publish или discard
+    public Part receive(InputStream in) {
+        MessageDigest digest = sha256();
+        Path file = tmp.resolve(UUID.randomUUID() + ".part");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long size = 0;
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                size += n;
+                if (size > maxFileSize) throw tooLarge();
+                digest.update(buffer, 0, n);
+                out.write(buffer, 0, n);
+            }
+            out.close();
+            return new Part(file, HexFormat.of().formatHex(digest.digest()), size);
+        } catch (IOException ex) {
+            deleteQuietly(file);
+            throw new UncheckedIOException("Cannot store document file", ex);
+        } catch (RuntimeException ex) {
+            deleteQuietly(file);
+            throw ex;
+        }
+    }
+
+    // Multipart уже лежит во временном файле Tomcat - только читаем его, чтобы дубликат не записывать вовсе
+    public String hash(MultipartFile file) {
+        if (file.isEmpty()) throw new BadRequestException("Uploaded file is empty");
+        if (file.getSize() > maxFileSize) throw tooLarge();
+        MessageDigest digest = sha256();
+        try (InputStream in = file.getInputStream()) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, n);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot read uploaded file", ex);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public boolean exists(String key) {
+        return Files.isRegularFile(path(key));
+    }
+
+    // Файл с тем же содержимым уже есть - временный файл просто удаляется
+    public boolean publish(Part part) {
+        try {
+            Path target = path(part.key());
+            if (Files.exists(target)) return false;
+            Files.createDirectories(target.getParent());
+            Files.move(part.file(), target, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot store document file", ex);
+        } finally {
+            deleteQuietly(part.file());
+        }
+    }
+
+    // transferTo по возможности просто переименовывает временный файл Tomcat
+    public void publish(String key, MultipartFile file) {
+        Path part = tmp.resolve(UUID.randomUUID() + ".part");
+        try {
+            file.transferTo(part);
+            Path target = path(key);
+            Files.createDirectories(target.getParent());
+            Files.move(part, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot store document file", ex);
+        } finally {
+            deleteQuietly(part);
+        }
+    }
+
+    public void discard(Part part) {
+        deleteQuietly(part.file());
+    }
+
+    public Path path(String key) {
+        // Ключ только SHA-256 (или UUID файлов, загруженных до адресации по содержимому) - никаких выходов за пределы хранилища
+        if (!isKey(key)) throw new BadRequestException("Invalid storage key: " + key);
+        return objects.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    public boolean delete(String key) {
+        return deleteQuietly(path(key));
+    }
+
+    // Недописанные файлы упавших загрузок
+    public int deletePartsOlderThan(Instant cutoff) {
+        int deleted = 0;
+        try (Stream<Path> files = Files.list(tmp)) {
+            for (Path p : (Iterable<Path>) files::iterator) {
+                if (lastModified(p).isBefore(cutoff) && deleteQuietly(p)) deleted++;
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot list document storage", ex);
+        }
+        return deleted;
+    }
+
+    // Файлы под UUID-ключами (загрузки до адресации по содержимому), которых нет в document_blob
+    public int deleteLegacyObjectsOlderThan(Instant cutoff, Predicate<String> registered) {
+        int deleted = 0;
+        try (Stream<Path> files = Files.walk(objects, 2)) {
+            for (Path p : (Iterable<Path>) files::iterator) {
+                String key = p.getFileName().toString();
+                if (!Files.isRegularFile(p) || isSha256(key) || !isKey(key)) continue;
+                if (lastModified(p).isBefore(cutoff) && !registered.test(key) && deleteQuietly(p)) deleted++;
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot list document storage", ex);
+        }
+        return deleted;
+    }
+
+    public static boolean isSha256(String key) {
+        return key != null && SHA256_HEX.matcher(key).matches();
+    }
+
+    private PayloadTooLargeException tooLarge() {
+        return new PayloadTooLargeException("File is larger than " + maxFileSize + " bytes");
+    }
+
+    private static boolean isKey(String key) {
+        if (isSha256(key)) return true;
+        try {
+            return key != null && UUID.fromString(key).toString().equals(key);
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static Instant lastModified(Path p) {
+        try {
+            return Files.getLastModifiedTime(p).toInstant();
+        } catch (IOException ex) {
+            // Файл уже удалён параллельно - не кандидат
+            return Instant.MAX;
+        }
+    }
+
+    private static boolean deleteQuietly(Path p) {
+        try {
+            return Files.deleteIfExists(p);
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.bankticketsystem.service;
+
+import com.example.bankticketsystem.exception.BadRequestException;
+import com.example.bankticketsystem.exception.ConflictException;
+import com.example.bankticketsystem.exception.UnprocessableEntityException;
+import com.example.bankticketsystem.repository.IdempotencyKeyRepository;
+import com.example.bankticketsystem.repository.IdempotencyKeyRepository.StoredResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+// Выполняет POST не больше одного раза на Idempotency-Key и повторяет первый успешный ответ.
+// Уровни: кэш готовых ответов, запросы в работе на этом инстансе, таблица idempotency_key.
+// Ошибка освобождает ключ - клиент может исправить запрос и повторить с тем же ключом
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+    private static final long POLL_INTERVAL_MS = 50;
+
+    private final IdempotencyKeyRepository repository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration lease;
+    private final Duration waitTimeout;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<String, StoredResponse> completed;
+    private final ConcurrentMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyKeyRepository repository,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${app.idempotency.lease:30s}") Duration lease,
+                              @Value("${app.idempotency.wait-timeout:10s}") Duration waitTimeout,
+                              @Value("${app.idempotency.hot-cache-size:10000}") long hotCacheSize) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = ttl;
+        this.lease = lease;
+        this.waitTimeout = waitTimeout;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(hotCacheSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public <T> ResponseEntity<T> execute(String key, Object request, Class<T> bodyType,
+                                         Supplier<ResponseEntity<T>> action) {
+        if (key == null || key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException(HEADER + " must be non-empty and not longer than " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = fingerprint(request);
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+
+        while (true) {
+            StoredResponse hot = completed.getIfPresent(key);
+            if (hot != null) return replay(key, hot, requestHash, bodyType);
+
+            CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(key, mine);
+            if (running != null) {
+                // Дубликат на этом же инстансе: ждём первый запрос, затем берём его ответ из кэша
+                // или, если он упал, пробуем занять ключ сами
+                awaitQuietly(running, deadline, key);
+                continue;
+            }
+            try {
+                return runOnce(key, requestHash, bodyType, action, mine, deadline);
+            } finally {
+                inFlight.remove(key, mine);
+            }
+        }
+    }
+
+    private <T> ResponseEntity<T> runOnce(String key, String requestHash, Class<T> bodyType,
+                                          Supplier<ResponseEntity<T>> action,
+                                          CompletableFuture<StoredResponse> mine, long deadline) {
+        Reservation reservation;
+        try {
+            reservation = reserveOrAwait(key, requestHash, deadline);
+        } catch (RuntimeException ex) {
+            // Дубликаты на этом инстансе не должны ждать до таймаута
+            mine.completeExceptionally(ex);
+            throw ex;
+        }
+        if (reservation.stored() != null) {
+            completed.put(key, reservation.stored());
+            mine.complete(reservation.stored());
+            return replay(key, reservation.stored(), requestHash, bodyType);
+        }
+
+        Instant reservedAt = reservation.reservedAt();
+        Completed<T> result;
+        try {
+            // Действие и сохранённый ответ - одна транзакция: либо есть и результат, и ответ, либо ничего,
+            // и повтор (после сбоя или перехвата резервации) не создаёт дубликат
+            result = transactionTemplate.execute(tx -> {
+                if (!repository.lock(key, reservedAt)) {
+                    throw new ConflictException("A request with this " + HEADER + " is still in progress, retry later");
+                }
+                ResponseEntity<T> response = action.get();
+                StoredResponse stored = new StoredResponse(requestHash, response.getStatusCode().value(),
+                        response.getHeaders().getLocation() == null ? null : response.getHeaders().getLocation().toString(),
+                        toJson(response.getBody()));
+                if (!repository.complete(key, reservedAt, stored)) {
+                    throw new IllegalStateException("Reservation of " + HEADER + " " + key + " was lost");
+                }
+                return new Completed<>(response, stored);
+            });
+        } catch (RuntimeException ex) {
+            releaseQuietly(key, reservedAt);
+            mine.completeExceptionally(ex);
+            throw ex;
+        }
+        completed.put(key, result.stored());
+        mine.complete(result.stored());
+        return result.response();
+    }
+
+    // Ключ занят нами (reservedAt) или ответ уже сохранён другим инстансом (stored).
+    // Пока ключ занят другим, пробуем занять его снова: владелец мог снять резервацию после ошибки
+    // или упасть до начала действия, и тогда его lease истекает
+    private Reservation reserveOrAwait(String key, String requestHash, long deadline) {
+        while (true) {
+            Instant now = Instant.now();
+            Instant reservedAt = repository.tryReserve(key, requestHash, now, now.plus(ttl), now.minus(lease));
+            if (reservedAt != null) return new Reservation(reservedAt, null);
+            Optional<StoredResponse> stored = repository.find(key, now);
+            if (stored.isPresent()) {
+                // Другое тело с тем же ключом - 422 сразу, не дожидаясь завершения первого запроса
+                if (!stored.get().requestHash().equals(requestHash)) throw differentBody(key);
+                if (stored.get().isCompleted()) return new Reservation(null, stored.get());
+            }
+            if (System.nanoTime() >= deadline) {
+                throw new ConflictException("A request with this " + HEADER + " is still in progress, retry later");
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL_MS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new ConflictException("A request with this " + HEADER + " is still in progress, retry later");
+            }
+        }
+    }
+
+    // Действие откатилось: клиент может сразу повторить с тем же ключом, не дожидаясь lease
+    private void releaseQuietly(String key, Instant reservedAt) {
+        try {
+            repository.release(key, reservedAt);
+        } catch (RuntimeException ex) {
+            log.warn("Could not release {} {}: {}", HEADER, key, ex.getMessage());
+        }
+    }
+
+    private record Reservation(Instant reservedAt, StoredResponse stored) {
+    }
+
+    private record Completed<T>(ResponseEntity<T> response, StoredResponse stored) {
+    }
+
+    private void awaitQuietly(CompletableFuture<StoredResponse> running, long deadline, String key) {
+        try {
+            running.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException ex) {
+            // Первый запрос завершился ошибкой и освободил ключ
+        } catch (TimeoutException ex) {
+            throw new ConflictException("A request with this " + HEADER + " is still in progress, retry later");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("A request with this " + HEADER + " is still in progress, retry later");
+        }
+    }
+
+    private <T> ResponseEntity<T> replay(String key, StoredResponse stored, String requestHash, Class<T> bodyType) {
+        if (!stored.requestHash().equals(requestHash)) throw differentBody(key);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(stored.status()).header(REPLAYED_HEADER, "true");
+        if (stored.location() != null) builder.location(URI.create(stored.location()));
+        try {
+            return builder.body(stored.body() == null ? null : objectMapper.readValue(stored.body(), bodyType));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Stored response for " + HEADER + " " + key + " is not readable", ex);
+        }
+    }
+
+    private static UnprocessableEntityException differentBody(String key) {
+        return new UnprocessableEntityException(HEADER + " " + key + " was already used with a different request body");
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.cleanup-interval:PT1H}")
+    public void deleteExpired() {
+        int deleted = repository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            log.info("Deleted {} expired idempotency keys", deleted);
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("Cannot fingerprint request", ex);
+        }
+    }
+
+    private String toJson(Object body) {
+        try {
+            return body == null ? null : objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot serialize response", ex);
+        }
+    }
+}
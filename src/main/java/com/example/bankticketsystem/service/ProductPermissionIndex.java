@@ -0,0 +1,91 @@
+package com.example.bankticketsystem.service;
+
+import com.example.bankticketsystem.model.enums.AssignmentRole;
+import com.example.bankticketsystem.repository.UserProductAssignmentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Матрица userId -> productId -> роль в памяти для проверок владения. Строка пользователя грузится одним
+// запросом, сбрасывается после коммита изменений назначений и устаревает через app.permissions.max-age
+@Service
+public class ProductPermissionIndex {
+
+    private final UserProductAssignmentRepository repo;
+    private final long maxAgeNanos;
+    private final ConcurrentMap<UUID, Row> rows = new ConcurrentHashMap<>();
+    // Растёт при каждой инвалидации: строка, загрузка которой началась раньше, в индекс не попадает
+    private final AtomicLong generation = new AtomicLong();
+
+    private record Row(Map<UUID, AssignmentRole> roles, long loadedAt) {
+    }
+
+    public ProductPermissionIndex(UserProductAssignmentRepository repo,
+                                  @Value("${app.permissions.max-age:PT5M}") Duration maxAge) {
+        this.repo = repo;
+        this.maxAgeNanos = maxAge.toNanos();
+    }
+
+    public boolean hasRole(UUID userId, UUID productId, AssignmentRole role) {
+        if (userId == null || productId == null) return false;
+        return role != null && role == roles(userId).get(productId);
+    }
+
+    public Map<UUID, AssignmentRole> roles(UUID userId) {
+        Row row = rows.get(userId);
+        long now = System.nanoTime();
+        if (row != null && now - row.loadedAt() < maxAgeNanos) return row.roles();
+
+        long gen = generation.get();
+        List<Object[]> pairs = repo.findProductRolesByUserId(userId);
+        Map<UUID, AssignmentRole> roles = new HashMap<>(pairs.size() * 2);
+        for (Object[] pair : pairs) {
+            roles.put((UUID) pair[0], (AssignmentRole) pair[1]);
+        }
+        Row loaded = new Row(Map.copyOf(roles), now);
+        // Проверка и вставка - один шаг под блокировкой ключа: инвалидация (тоже через compute) не может
+        // пройти между ними и оставить в индексе строку, загруженную до её коммита
+        rows.compute(userId, (k, old) -> generation.get() == gen ? loaded : old);
+        return loaded.roles();
+    }
+
+    // Назначения пользователя изменены
+    public void invalidate(UUID userId) {
+        nowAndAfterCompletion(() -> rows.compute(userId, (k, old) -> {
+            generation.incrementAndGet();
+            return null;
+        }));
+    }
+
+    // Изменены назначения неизвестного набора пользователей (например, всех по продукту)
+    public void invalidateAll() {
+        nowAndAfterCompletion(() -> {
+            // Сначала поколение: загрузка, проверившая его раньше, ещё держит блокировку ключа, и clear её дождётся
+            generation.incrementAndGet();
+            rows.clear();
+        });
+    }
+
+    private static void nowAndAfterCompletion(Runnable action) {
+        action.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Ещё раз после коммита: до него другой поток мог загрузить из БД прежнее состояние
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        }
+    }
+}
@@ -9,6 +9,7 @@ import com.example.bankticketsystem.model.entity.User;
 import com.example.bankticketsystem.model.enums.AssignmentRole;
 import com.example.bankticketsystem.model.enums.UserRole;
 import com.example.bankticketsystem.repository.ProductRepository;
+import com.example.bankticketsystem.util.UuidV7;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.data.domain.*;
@@ -25,15 +26,18 @@ public class ProductService {
     private final UserService userService;
     private final ApplicationService applicationService;
     private final UserProductAssignmentService assignmentService;
+    private final ApplicationViewService viewService;
 
     public ProductService(ProductRepository productRepository,
                           @Lazy UserService userService,
                           @Lazy ApplicationService applicationService,
-                          @Lazy UserProductAssignmentService assignmentService) {
+                          @Lazy UserProductAssignmentService assignmentService,
+                          @Lazy ApplicationViewService viewService) {
         this.productRepository = productRepository;
         this.userService = userService;
         this.applicationService = applicationService;
         this.assignmentService = assignmentService;
+        this.viewService = viewService;
     }
 
     public ProductDto create(ProductRequest req) {
@@ -52,7 +56,7 @@ public class ProductService {
         }
 
         Product p = new Product();
-        p.setId(UUID.randomUUID());
+        p.setId(UuidV7.next());
         p.setName(req.getName());
         p.setDescription(req.getDescription());
         p = productRepository.save(p);
@@ -78,6 +82,7 @@ public class ProductService {
         return d;
     }
 
+    @Transactional
     public ProductDto updateProduct(UUID productId, ProductRequest req, UUID actorId) {
         if (req == null) throw new BadRequestException("Request is required");
 
@@ -97,7 +102,10 @@ public class ProductService {
             throw new ForbiddenException("Only ADMIN or PRODUCT_OWNER can update product");
         }
 
-        if (req.getName() != null) product.setName(req.getName());
+        if (req.getName() != null && !req.getName().equals(product.getName())) {
+            product.setName(req.getName());
+            viewService.productRenamed(productId);
+        }
         if (req.getDescription() != null) product.setDescription(req.getDescription());
         Product saved = productRepository.save(product);
         return toDto(saved);
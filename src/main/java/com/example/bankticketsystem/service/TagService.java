@@ -3,17 +3,27 @@ package com.example.bankticketsystem.service;
 import com.example.bankticketsystem.dto.ApplicationDto;
 import com.example.bankticketsystem.dto.DocumentDto;
 import com.example.bankticketsystem.dto.TagDto;
+import com.example.bankticketsystem.exception.BadRequestException;
 import com.example.bankticketsystem.exception.NotFoundException;
 import com.example.bankticketsystem.model.entity.Application;
+import com.example.bankticketsystem.model.entity.Document;
 import com.example.bankticketsystem.model.entity.Tag;
+import com.example.bankticketsystem.repository.ApplicationRepository;
+import com.example.bankticketsystem.repository.DocumentRepository;
 import com.example.bankticketsystem.repository.TagRepository;
+import com.example.bankticketsystem.util.CursorUtil;
+import com.example.bankticketsystem.util.TagApplicationsPage;
+import com.example.bankticketsystem.util.UuidV7;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -21,15 +31,22 @@ import java.util.stream.Collectors;
 public class TagService {
 
     private final TagRepository repo;
-    public TagService(TagRepository repo) {
+    private final ApplicationRepository applicationRepository;
+    private final DocumentRepository documentRepository;
+
+    public TagService(TagRepository repo,
+                      ApplicationRepository applicationRepository,
+                      DocumentRepository documentRepository) {
         this.repo = repo;
+        this.applicationRepository = applicationRepository;
+        this.documentRepository = documentRepository;
     }
 
     public Tag createIfNotExists(String name) {
         return repo.findByName(name)
                 .orElseGet(() -> {
                     Tag t = new Tag();
-                    t.setId(UUID.randomUUID());
+                    t.setId(UuidV7.next());
                     t.setName(name);
                     return repo.save(t);
                 });
@@ -43,42 +60,68 @@ public class TagService {
     }
 
     @Transactional(readOnly = true)
-    public TagDto getTagWithApplications(String name) {
-        Tag tag = repo.findByNameWithApplications(name)
+    public TagApplicationsPage getTagWithApplications(String name, String cursor, int limit) {
+        if (limit <= 0) throw new BadRequestException("limit must be greater than 0");
+        int capped = Math.min(limit, 50);
+
+        Tag tag = repo.findByName(name)
                 .orElseThrow(() -> new NotFoundException("Tag not found: " + name));
+        CursorUtil.Decoded dec = CursorUtil.decodeOrThrow(cursor);
 
-        TagDto dto = toDto(tag);
+        List<Application> apps = dec == null
+                ? applicationRepository.findFirstPageByTag(tag.getId(), capped)
+                : applicationRepository.findByTagKeyset(tag.getId(), dec.timestamp, dec.id, capped);
 
-        List<ApplicationDto> applicationDtos = tag.getApplications().stream()
-                .map(this::toApplicationDto)
-                .collect(Collectors.toList());
+        // Документы и теги всей страницы - двумя запросами, а не по два на каждую заявку
+        List<UUID> ids = apps.stream().map(Application::getId).toList();
+        Map<UUID, List<DocumentDto>> docsByApp = new HashMap<>();
+        Map<UUID, List<String>> tagsByApp = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (Document d : documentRepository.findByApplicationIdIn(ids)) {
+                docsByApp.computeIfAbsent(d.getApplication().getId(), k -> new ArrayList<>()).add(toDocumentDto(d));
+            }
+            for (Object[] row : repo.findNamesByApplicationIds(ids)) {
+                tagsByApp.computeIfAbsent((UUID) row[0], k -> new ArrayList<>()).add((String) row[1]);
+            }
+        }
 
-        dto.setApplications(applicationDtos);
-        return dto;
+        TagDto dto = toDto(tag);
+        dto.setApplications(apps.stream()
+                .map(a -> toApplicationDto(a,
+                        docsByApp.getOrDefault(a.getId(), List.of()),
+                        tagsByApp.getOrDefault(a.getId(), List.of())))
+                .collect(Collectors.toList()));
+
+        String nextCursor = null;
+        if (apps.size() == capped) {
+            Application last = apps.get(apps.size() - 1);
+            nextCursor = CursorUtil.encode(last.getCreatedAt(), last.getId());
+        }
+        return new TagApplicationsPage(dto, nextCursor);
     }
 
-    private ApplicationDto toApplicationDto(Application app) {
+    private ApplicationDto toApplicationDto(Application app, List<DocumentDto> docs, List<String> tagNames) {
         ApplicationDto dto = new ApplicationDto();
         dto.setId(app.getId());
         dto.setApplicantId(app.getApplicant() != null ? app.getApplicant().getId() : null);
         dto.setProductId(app.getProduct() != null ? app.getProduct().getId() : null);
         dto.setStatus(app.getStatus());
         dto.setCreatedAt(app.getCreatedAt());
-        List<DocumentDto> docs = app.getDocuments().stream().map(d -> {
-            DocumentDto dd = new DocumentDto();
-            dd.setId(d.getId());
-            dd.setFileName(d.getFileName());
-            dd.setContentType(d.getContentType());
-            dd.setStoragePath(d.getStoragePath());
-            return dd;
-        }).collect(Collectors.toList());
-        List<String> tagNames = app.getTags() == null ? List.of() :
-                app.getTags().stream().map(Tag::getName).toList();
         dto.setDocuments(docs);
         dto.setTags(tagNames);
         return dto;
     }
 
+    private DocumentDto toDocumentDto(Document d) {
+        DocumentDto dd = new DocumentDto();
+        dd.setId(d.getId());
+        dd.setFileName(d.getFileName());
+        dd.setContentType(d.getContentType());
+        dd.setStoragePath(d.getStoragePath());
+        dd.setSize(d.getSizeBytes());
+        return dd;
+    }
+
     private TagDto toDto(Tag t) {
         TagDto dto = new TagDto();
         dto.setId(UUID.randomUUID());
@@ -0,0 +1,344 @@
+package com.example.bankticketsystem.service;
+
+import com.example.bankticketsystem.config.UserImportProperties;
+import com.example.bankticketsystem.dto.UserImportResultDto;
+import com.example.bankticketsystem.dto.UserRequest;
+import com.example.bankticketsystem.exception.*;
+import com.example.bankticketsystem.model.entity.User;
+import com.example.bankticketsystem.model.enums.UserRole;
+import com.example.bankticketsystem.repository.UserBulkRepository;
+import com.example.bankticketsystem.repository.UserRepository;
+import com.example.bankticketsystem.util.UuidV7;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.password4j.Password;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+// Массовое создание клиентов из потокового CSV или NDJSON. Порция строк проверяется как в POST /users,
+// дубликаты ищутся одним запросом на колонку, bcrypt - параллельно, вставка - одним запросом в своей транзакции.
+// Плохая строка попадает в отчёт и пропускается
+@Service
+@EnableConfigurationProperties(UserImportProperties.class)
+public class UserImportService {
+
+    public static final MediaType TEXT_CSV = new MediaType("text", "csv");
+
+    // Строка входных данных: либо разобранный запрос, либо ошибка разбора
+    private record Row(long line, UserRequest request, String error) {}
+
+    // Строка, прошедшая проверки: нормализованные username/email и пароль для хэширования
+    private record Candidate(long line, String username, String email, String password) {}
+
+    private final UserRepository userRepository;
+    private final UserBulkRepository bulkRepository;
+    private final Validator validator;
+    private final ObjectReader jsonReader;
+    private final TransactionTemplate transactionTemplate;
+    private final UserImportProperties properties;
+    private final ForkJoinPool hashPool;
+
+    public UserImportService(UserRepository userRepository,
+                             UserBulkRepository bulkRepository,
+                             Validator validator,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager,
+                             UserImportProperties properties) {
+        this.userRepository = userRepository;
+        this.bulkRepository = bulkRepository;
+        this.validator = validator;
+        this.jsonReader = objectMapper.readerFor(UserRequest.class);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        int parallelism = properties.getHashParallelism() > 0
+                ? properties.getHashParallelism() : Runtime.getRuntime().availableProcessors();
+        // Свой пул, а не common: bcrypt занимает процессор целиком и не должен тормозить parallel streams остального приложения
+        this.hashPool = new ForkJoinPool(parallelism);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashPool.shutdown();
+    }
+
+    public UserImportResultDto importUsers(UUID actorId, InputStream body, String contentType) {
+        requireAdmin(actorId);
+        MediaType type = parseContentType(contentType);
+        Charset charset = type.getCharset() != null ? type.getCharset() : StandardCharsets.UTF_8;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, charset));
+        Import state = new Import();
+        try {
+            Iterator<Row> rows = type.equalsTypeAndSubtype(TEXT_CSV) ? csvRows(reader) : ndjsonRows(reader);
+            List<Row> chunk = new ArrayList<>(properties.getChunkSize());
+            while (rows.hasNext()) {
+                chunk.add(rows.next());
+                if (chunk.size() == properties.getChunkSize()) {
+                    process(chunk, state);
+                    chunk.clear();
+                }
+            }
+            process(chunk, state);
+        } catch (UncheckedIOException ex) {
+            // Уже обработанные пачки остаются в базе; отчёт клиенту не отдать, соединение оборвано
+            throw new BadRequestException("Import aborted after " + state.result.getTotal() + " rows: cannot read request body");
+        }
+        return state.result;
+    }
+
+    // Состояние одного импорта: первые строки каждого username/email (для дубликатов внутри файла) и отчёт
+    private static class Import {
+        final Map<String, Long> usernames = new HashMap<>();
+        final Map<String, Long> emails = new HashMap<>();
+        final UserImportResultDto result = new UserImportResultDto();
+    }
+
+    private void process(List<Row> chunk, Import state) {
+        if (chunk.isEmpty()) return;
+        List<UserImportResultDto.RowError> errors = new ArrayList<>();
+        List<Candidate> candidates = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            String error = row.error() != null ? row.error() : validate(row.request());
+            if (error != null) {
+                errors.add(new UserImportResultDto.RowError(row.line(), error));
+                continue;
+            }
+            String username = row.request().getUsername().trim();
+            String email = row.request().getEmail().trim().toLowerCase();
+            Long firstUsername = state.usernames.get(username);
+            Long firstEmail = state.emails.get(email);
+            if (firstUsername != null || firstEmail != null) {
+                errors.add(new UserImportResultDto.RowError(row.line(), firstUsername != null
+                        ? "Duplicate username, first used on line " + firstUsername
+                        : "Duplicate email, first used on line " + firstEmail));
+                continue;
+            }
+            state.usernames.put(username, row.line());
+            state.emails.put(email, row.line());
+            candidates.add(new Candidate(row.line(), username, email, row.request().getPassword()));
+        }
+
+        List<Candidate> fresh = withoutExisting(candidates, errors);
+        List<User> users = hash(fresh);
+        Instant now = Instant.now();
+        Set<UUID> inserted = users.isEmpty() ? Set.of()
+                : transactionTemplate.execute(status -> bulkRepository.insertAll(users, UserRole.ROLE_CLIENT, now));
+        for (int i = 0; i < users.size(); i++) {
+            if (!inserted.contains(users.get(i).getId())) {
+                // Занято параллельной регистрацией между проверкой и вставкой
+                errors.add(new UserImportResultDto.RowError(fresh.get(i).line(), "Username or email already in use"));
+            }
+        }
+
+        UserImportResultDto result = state.result;
+        result.setTotal(result.getTotal() + chunk.size());
+        result.setCreated(result.getCreated() + inserted.size());
+        result.setFailed(result.getFailed() + errors.size());
+        errors.sort(Comparator.comparingLong(UserImportResultDto.RowError::getLine));
+        for (UserImportResultDto.RowError e : errors) {
+            if (result.getErrors().size() >= properties.getMaxReportedErrors()) break;
+            result.getErrors().add(e);
+        }
+    }
+
+    // Проверка по базе - по одному запросу на username и email для всей пачки
+    private List<Candidate> withoutExisting(List<Candidate> candidates, List<UserImportResultDto.RowError> errors) {
+        if (candidates.isEmpty()) return candidates;
+        Set<String> takenUsernames = bulkRepository.findExistingUsernames(candidates.stream().map(Candidate::username).toList());
+        Set<String> takenEmails = bulkRepository.findExistingEmails(candidates.stream().map(Candidate::email).toList());
+        List<Candidate> fresh = new ArrayList<>(candidates.size());
+        for (Candidate c : candidates) {
+            if (takenUsernames.contains(c.username())) {
+                errors.add(new UserImportResultDto.RowError(c.line(), "Username already in use"));
+            } else if (takenEmails.contains(c.email())) {
+                errors.add(new UserImportResultDto.RowError(c.line(), "Email already in use"));
+            } else {
+                fresh.add(c);
+            }
+        }
+        return fresh;
+    }
+
+    // parallelStream внутри задачи пула выполняется потоками этого же пула
+    private List<User> hash(List<Candidate> candidates) {
+        if (candidates.isEmpty()) return List.of();
+        return hashPool.submit(() -> candidates.parallelStream().map(c -> {
+            User u = new User();
+            u.setId(UuidV7.next());
+            u.setUsername(c.username());
+            u.setEmail(c.email());
+            u.setPasswordHash(Password.hash(c.password()).withBcrypt().getResult());
+            return u;
+        }).toList()).join();
+    }
+
+    private String validate(UserRequest req) {
+        if (req == null || req.getUsername() == null || req.getEmail() == null || req.getPassword() == null) {
+            return "Username, email and password are required";
+        }
+        Set<ConstraintViolation<UserRequest>> violations = validator.validate(req);
+        if (violations.isEmpty()) return null;
+        return violations.stream().map(v -> v.getPropertyPath() + ": " + v.getMessage()).sorted()
+                .reduce((a, b) -> a + "; " + b).orElse(null);
+    }
+
+    private void requireAdmin(UUID actorId) {
+        if (actorId == null) {
+            throw new UnauthorizedException("You must specify the actorId to authorize in this request");
+        }
+        User actor = userRepository.findById(actorId)
+                .orElseThrow(() -> new NotFoundException("Actor not found: " + actorId));
+        if (actor.getRole() != UserRole.ROLE_ADMIN) {
+            throw new ForbiddenException("Only ADMIN can import users");
+        }
+    }
+
+    private static MediaType parseContentType(String contentType) {
+        try {
+            MediaType type = contentType == null ? null : MediaType.parseMediaType(contentType);
+            if (type != null && (type.equalsTypeAndSubtype(TEXT_CSV) || type.equalsTypeAndSubtype(MediaType.APPLICATION_NDJSON))) {
+                return type;
+            }
+        } catch (InvalidMediaTypeException ignored) {
+            // ниже - общий ответ
+        }
+        throw new BadRequestException("Content-Type must be text/csv or application/x-ndjson");
+    }
+
+    // CSV: первая непустая строка - заголовок с колонками username, email, password в любом порядке (BOM допускается)
+    private Iterator<Row> csvRows(BufferedReader reader) {
+        return new LineIterator(reader) {
+            int[] columns;
+
+            @Override
+            Row parse(long line, String text) {
+                List<String> fields = parseCsvLine(text);
+                if (columns == null) {
+                    columns = csvColumns(fields);
+                    return null;
+                }
+                if (fields == null) return new Row(line, null, "Malformed CSV line: unclosed quote");
+                UserRequest req = new UserRequest();
+                req.setUsername(field(fields, columns[0]));
+                req.setEmail(field(fields, columns[1]));
+                req.setPassword(field(fields, columns[2]));
+                return new Row(line, req, null);
+            }
+        };
+    }
+
+    // NDJSON: по объекту {"username", "email", "password"} на строку
+    private Iterator<Row> ndjsonRows(BufferedReader reader) {
+        return new LineIterator(reader) {
+            @Override
+            Row parse(long line, String text) {
+                try {
+                    return new Row(line, jsonReader.readValue(text), null);
+                } catch (JsonProcessingException ex) {
+                    return new Row(line, null, "Malformed JSON: " + ex.getOriginalMessage());
+                }
+            }
+        };
+    }
+
+    private static int[] csvColumns(List<String> header) {
+        List<String> names = header == null ? List.of()
+                : header.stream().map(h -> h.replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT)).toList();
+        int[] columns = {names.indexOf("username"), names.indexOf("email"), names.indexOf("password")};
+        if (columns[0] < 0 || columns[1] < 0 || columns[2] < 0) {
+            throw new BadRequestException("CSV header must contain username, email and password columns");
+        }
+        return columns;
+    }
+
+    private static String field(List<String> fields, int index) {
+        return index < fields.size() ? fields.get(index) : null;
+    }
+
+    // Поля одной строки по RFC 4180 (кавычки, "" внутри кавычек); переводы строк внутри полей не поддерживаются.
+    // null - незакрытая кавычка
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) return null;
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // Строки тела по одной; пустые строки пропускаются, parse может вернуть null (строка-заголовок)
+    private abstract static class LineIterator implements Iterator<Row> {
+        private final BufferedReader reader;
+        private long line;
+        private Row next;
+
+        LineIterator(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        abstract Row parse(long line, String text);
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (next == null) {
+                    String text = reader.readLine();
+                    if (text == null) return false;
+                    line++;
+                    if (!text.isBlank()) next = parse(line, text);
+                }
+                return true;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public Row next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            Row row = next;
+            next = null;
+            return row;
+        }
+    }
+}
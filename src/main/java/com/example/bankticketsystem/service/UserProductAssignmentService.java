@@ -6,7 +6,11 @@ import com.example.bankticketsystem.model.entity.*;
 import com.example.bankticketsystem.model.enums.AssignmentRole;
 import com.example.bankticketsystem.model.enums.UserRole;
 import com.example.bankticketsystem.repository.*;
+import com.example.bankticketsystem.util.AssignmentPage;
+import com.example.bankticketsystem.util.CursorUtil;
+import com.example.bankticketsystem.util.UuidV7;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,16 +23,22 @@ import java.util.stream.Collectors;
 @Service
 public class UserProductAssignmentService {
 
+    // Меньше любого id в PostgreSQL (uuid сравниваются беззнаково побайтно): курсор первой страницы
+    private static final UUID FIRST_PAGE = new UUID(0, 0);
+
     private final UserProductAssignmentRepository repo;
     private final UserService userService;
     private final ProductService productService;
+    private final ProductPermissionIndex permissions;
 
     public UserProductAssignmentService(UserProductAssignmentRepository repo,
                                         @Lazy UserService userService,
-                                        @Lazy ProductService productService) {
+                                        @Lazy ProductService productService,
+                                        ProductPermissionIndex permissions) {
         this.repo = repo;
         this.userService = userService;
         this.productService = productService;
+        this.permissions = permissions;
     }
 
     public UserProductAssignment assign(UUID actorId, UUID userId, UUID productId, AssignmentRole role) {
@@ -37,7 +47,7 @@ public class UserProductAssignmentService {
 
         var actor = userService.findById(actorId).orElseThrow(() -> new NotFoundException("Actor not found: " + actorId));
         boolean isAdmin = actor.getRole() == UserRole.ROLE_ADMIN;
-        boolean isOwner = repo.existsByUserIdAndProductIdAndRoleOnProduct(actorId, productId, AssignmentRole.PRODUCT_OWNER);
+        boolean isOwner = permissions.hasRole(actorId, productId, AssignmentRole.PRODUCT_OWNER);
 
         if (!isAdmin && !isOwner) {
             throw new ForbiddenException("Only ADMIN or PRODUCT_OWNER can assign new products!");
@@ -51,22 +61,37 @@ public class UserProductAssignmentService {
             a.setRoleOnProduct(role);
             a.setAssignedAt(Instant.now());
         } else {
-            a.setId(UUID.randomUUID());
+            a.setId(UuidV7.next());
             a.setUser(u);
             a.setProduct(p);
             a.setRoleOnProduct(role);
             a.setAssignedAt(Instant.now());
         }
-        return repo.save(a);
+        UserProductAssignment saved = repo.save(a);
+        permissions.invalidate(userId);
+        return saved;
     }
 
+    // Keyset-пагинация по id: страница - один запрос проекции, без загрузки сущностей
     @Transactional(readOnly = true)
-    public List<UserProductAssignmentDto> list(UUID userId, UUID productId) {
-        List<UserProductAssignment> res;
-        if (userId != null) res = repo.findByUserId(userId);
-        else if (productId != null) res = repo.findByProductId(productId);
-        else res = repo.findAll();
-        return res.stream().map(this::toDto).collect(Collectors.toList());
+    public AssignmentPage list(UUID userId, UUID productId, String cursor, int limit) {
+        if (limit <= 0) throw new BadRequestException("limit must be greater than 0");
+        int capped = Math.min(limit, 50);
+        UUID decoded = CursorUtil.decodeIdOrThrow(cursor);
+        UUID after = decoded == null ? FIRST_PAGE : decoded;
+
+        List<Object[]> rows;
+        if (userId != null && productId != null) rows = repo.findPageByUserIdAndProductId(userId, productId, after, Limit.of(capped));
+        else if (userId != null) rows = repo.findPageByUserId(userId, after, Limit.of(capped));
+        else if (productId != null) rows = repo.findPageByProductId(productId, after, Limit.of(capped));
+        else rows = repo.findPage(after, Limit.of(capped));
+
+        List<UserProductAssignmentDto> items = rows.stream().map(this::toDto).collect(Collectors.toList());
+        String nextCursor = null;
+        if (items.size() == capped) {
+            nextCursor = CursorUtil.encodeId(items.get(items.size() - 1).getId());
+        }
+        return new AssignmentPage(items, nextCursor);
     }
 
     @Transactional
@@ -85,17 +110,32 @@ public class UserProductAssignmentService {
             User u = userService.findById(userId).orElseThrow(() -> new NotFoundException("User not found"));
             Product p = productService.findById(productId).orElseThrow(() -> new NotFoundException("Product not found"));
             repo.deleteByUserIdAndProductId(userId, productId);
+            permissions.invalidate(userId);
         } else if (userId != null) {
             User u = userService.findById(userId).orElseThrow(() -> new NotFoundException("User not found"));
             repo.deleteByUserId(userId);
+            permissions.invalidate(userId);
         } else if (productId != null) {
             Product p = productService.findById(productId).orElseThrow(() -> new NotFoundException("Product not found"));
             repo.deleteByProductId(productId);
+            permissions.invalidateAll();
         } else {
             repo.deleteAll();
+            permissions.invalidateAll();
         }
     }
 
+    // Строка проекции (id, userId, productId, роль, assignedAt) из UserProductAssignmentRepository.PAGE_SELECT
+    private UserProductAssignmentDto toDto(Object[] row) {
+        UserProductAssignmentDto dto = new UserProductAssignmentDto();
+        dto.setId((UUID) row[0]);
+        dto.setUserId((UUID) row[1]);
+        dto.setProductId((UUID) row[2]);
+        dto.setRole((AssignmentRole) row[3]);
+        dto.setAssignedAt((Instant) row[4]);
+        return dto;
+    }
+
     public UserProductAssignmentDto toDto(UserProductAssignment a) {
         UserProductAssignmentDto dto = new UserProductAssignmentDto();
         dto.setId(a.getId());
@@ -106,11 +146,13 @@ public class UserProductAssignmentService {
         return dto;
     }
 
+    // Из индекса прав в памяти, без запроса к БД
     public boolean existsByUserIdAndProductIdAndRoleOnProduct(UUID actorId, UUID productId, AssignmentRole assignmentRole ) {
-        return repo.existsByUserIdAndProductIdAndRoleOnProduct(actorId, productId, assignmentRole);
+        return permissions.hasRole(actorId, productId, assignmentRole);
     }
 
     public void deleteByProductId(UUID productId) {
         repo.deleteByProductId(productId);
+        permissions.invalidateAll();
     }
 }
@@ -7,6 +7,7 @@ import com.example.bankticketsystem.model.entity.Application;
 import com.example.bankticketsystem.model.entity.User;
 import com.example.bankticketsystem.model.enums.UserRole;
 import com.example.bankticketsystem.repository.UserRepository;
+import com.example.bankticketsystem.util.UuidV7;
 import com.password4j.Password;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
@@ -23,10 +24,14 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final ApplicationService applicationService;
+    private final ApplicationViewService viewService;
 
-    public UserService(UserRepository userRepository, @Lazy ApplicationService applicationService) {
+    public UserService(UserRepository userRepository,
+                       @Lazy ApplicationService applicationService,
+                       @Lazy ApplicationViewService viewService) {
         this.userRepository = userRepository;
         this.applicationService = applicationService;
+        this.viewService = viewService;
     }
 
     public UserDto create(UserRequest req) {
@@ -46,7 +51,7 @@ public class UserService {
         }
 
         User u = new User();
-        u.setId(UUID.randomUUID());
+        u.setId(UuidV7.next());
         u.setUsername(username);
         u.setEmail(email);
         u.setPasswordHash(Password.hash(req.getPassword()).withBcrypt().getResult());
@@ -79,6 +84,7 @@ public class UserService {
         return dto;
     }
 
+    @Transactional
     public UserDto updateUser(UUID userId, UUID actorId, UserRequest req) {
         if (req == null) throw new BadRequestException("Request is required");
         if (actorId == null) {
@@ -92,7 +98,10 @@ public class UserService {
         User existing = userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("User not found: " + userId));
 
-        if (req.getUsername() != null) existing.setUsername(req.getUsername());
+        if (req.getUsername() != null && !req.getUsername().equals(existing.getUsername())) {
+            existing.setUsername(req.getUsername());
+            viewService.applicantRenamed(userId);
+        }
         if (req.getEmail() != null) existing.setEmail(req.getEmail());
         if (req.getPassword() != null) existing.setPasswordHash(Password.hash(req.getPassword()).withBcrypt().getResult());
         existing.setUpdatedAt(Instant.now());
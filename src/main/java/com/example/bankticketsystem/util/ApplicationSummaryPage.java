@@ -0,0 +1,7 @@
+package com.example.bankticketsystem.util;
+
+import com.example.bankticketsystem.dto.ApplicationSummaryDto;
+
+import java.util.List;
+
+public record ApplicationSummaryPage(List<ApplicationSummaryDto> items, String nextCursor) { }
@@ -0,0 +1,7 @@
+package com.example.bankticketsystem.util;
+
+import com.example.bankticketsystem.dto.UserProductAssignmentDto;
+
+import java.util.List;
+
+public record AssignmentPage(List<UserProductAssignmentDto> items, String nextCursor) { }
@@ -32,6 +32,48 @@ public class CursorUtil {
         }
     }
 
+    // Курсор ранжированной выдачи: (rank, id). Float.toString однозначно восстанавливается parseFloat
+    public static String encodeRanked(float rank, UUID id) {
+        Objects.requireNonNull(id);
+        String s = Float.toString(rank) + "|" + id;
+        return Base64.getUrlEncoder().encodeToString(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static RankedDecoded decodeRankedOrThrow(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = decoded.split("\\|", 2);
+            if (parts.length != 2) throw new IllegalArgumentException("Invalid cursor format");
+            float rank = Float.parseFloat(parts[0]);
+            if (!Float.isFinite(rank)) throw new IllegalArgumentException("Invalid rank");
+            return new RankedDecoded(rank, UUID.fromString(parts[1]));
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    // Курсор выдачи, упорядоченной только по id (UUIDv7 растут со временем создания)
+    public static String encodeId(UUID id) {
+        Objects.requireNonNull(id);
+        return Base64.getUrlEncoder().encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static UUID decodeIdOrThrow(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            return UUID.fromString(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    public static class RankedDecoded {
+        public final float rank;
+        public final UUID id;
+        public RankedDecoded(float rank, UUID id) { this.rank = rank; this.id = id; }
+    }
+
     public static class Decoded {
         public final Instant timestamp;
         public final UUID id;
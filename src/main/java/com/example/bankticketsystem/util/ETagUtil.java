@@ -0,0 +1,48 @@
+package com.example.bankticketsystem.util;
+
+import com.example.bankticketsystem.exception.PreconditionFailedException;
+
+import java.util.UUID;
+
+public class ETagUtil {
+
+    // Строгий ETag вида "<id>-<version>": версия меняется при каждом изменении сущности (@Version)
+    public static String of(UUID id, Long version) {
+        return "\"" + id + "-" + (version == null ? 0 : version) + "\"";
+    }
+
+    // If-None-Match: слабое сравнение, допускается список тегов и "*"
+    public static boolean matchesAny(String header, String etag) {
+        if (header == null || header.isBlank()) return false;
+        String opaque = stripWeak(etag);
+        for (String candidate : header.split(",")) {
+            String c = candidate.trim();
+            if (c.equals("*") || stripWeak(c).equals(opaque)) return true;
+        }
+        return false;
+    }
+
+    // Версия из If-Match; null, если заголовка нет или это "*"
+    public static Long expectedVersion(String ifMatch, UUID id) {
+        if (ifMatch == null || ifMatch.isBlank()) return null;
+        String value = ifMatch.trim();
+        if (value.equals("*")) return null;
+        // If-Match использует строгое сравнение: слабые теги и списки не принимаем
+        if (value.startsWith("W/") || value.contains(",")) {
+            throw new PreconditionFailedException("If-Match must contain a single strong ETag");
+        }
+        String prefix = "\"" + id + "-";
+        if (!value.startsWith(prefix) || !value.endsWith("\"")) {
+            throw new PreconditionFailedException("ETag does not match application " + id);
+        }
+        try {
+            return Long.parseLong(value.substring(prefix.length(), value.length() - 1));
+        } catch (NumberFormatException ex) {
+            throw new PreconditionFailedException("Invalid ETag: " + value);
+        }
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
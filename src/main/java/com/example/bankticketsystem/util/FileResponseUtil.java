@@ -0,0 +1,86 @@
+package com.example.bankticketsystem.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+public class FileResponseUtil {
+
+    // Атрибуты запроса Tomcat для sendfile: файл отдаёт сам коннектор после выхода из контроллера
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Файл (или один диапазон для Range) без копирования через кучу: sendfile Tomcat, иначе FileChannel.transferTo.
+    // На несколько диапазонов отдаётся весь файл - RFC 9110 это допускает
+    public static void write(HttpServletRequest request, HttpServletResponse response,
+                             Path file, long size, String contentType, String fileName) throws IOException {
+        long start = 0;
+        long end = size - 1;
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(contentType != null ? contentType : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        // filename* (RFC 5987) только для не-ASCII имён
+        ContentDisposition.Builder disposition = StandardCharsets.US_ASCII.newEncoder().canEncode(fileName)
+                ? ContentDisposition.attachment().filename(fileName)
+                : ContentDisposition.attachment().filename(fileName, StandardCharsets.UTF_8);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, disposition.build().toString());
+
+        List<HttpRange> ranges = parseRanges(request.getHeader(HttpHeaders.RANGE));
+        if (ranges.size() == 1) {
+            HttpRange range = ranges.get(0);
+            // Суффиксный диапазон (bytes=-N) к пустому файлу и начало за концом файла - 416
+            if (size == 0 || range.getRangeStart(size) >= size) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                return;
+            }
+            start = range.getRangeStart(size);
+            end = range.getRangeEnd(size);
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        }
+        long length = end - start + 1;
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod()) || length == 0) return;
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                long sent = channel.transferTo(position, end + 1 - position, out);
+                // Файл короче записанного размера - обрываем ответ, клиент увидит несовпадение с Content-Length
+                if (sent <= 0) break;
+                position += sent;
+            }
+        }
+    }
+
+    // Некорректный заголовок Range игнорируется - отдаём файл целиком
+    private static List<HttpRange> parseRanges(String header) {
+        if (header == null || header.isBlank()) return List.of();
+        try {
+            return HttpRange.parseRanges(header);
+        } catch (IllegalArgumentException ex) {
+            return List.of();
+        }
+    }
+}
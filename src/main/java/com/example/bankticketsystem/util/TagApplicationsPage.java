@@ -0,0 +1,5 @@
+package com.example.bankticketsystem.util;
+
+import com.example.bankticketsystem.dto.TagDto;
+
+public record TagApplicationsPage(TagDto tag, String nextCursor) { }
@@ -0,0 +1,67 @@
+package com.example.bankticketsystem.util;
+
+import java.nio.ByteBuffer;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.UUID;
+
+// Идентификаторы UUID v7 (RFC 9562): 48 бит миллисекунд, 12 бит счётчика и 62 случайных бита - новые ключи
+// попадают в правый край индекса, а не на случайные страницы. Состояние на поток, без блокировок; id потока
+// строго растут: при переполнении счётчика или откате часов берётся следующая миллисекунда
+public final class UuidV7 {
+
+    private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+
+    private UuidV7() {
+    }
+
+    public static UUID next() {
+        return STATE.get().next(System.currentTimeMillis());
+    }
+
+    // Время, записанное в id (для проверок и отладки)
+    public static long timestamp(UUID id) {
+        if (id.version() != 7) throw new IllegalArgumentException("Not a version 7 UUID: " + id);
+        return id.getMostSignificantBits() >>> 16;
+    }
+
+    static final class State {
+        private final SecureRandom random = newRandom();
+        // Случайные байты берутся из DRBG блоками: у каждого вызова заметная постоянная цена
+        private final ByteBuffer randomBytes = ByteBuffer.allocate(256).position(256);
+        private long lastMs = -1;
+        private int counter;
+
+        UUID next(long nowMs) {
+            if (nowMs > lastMs) {
+                lastMs = nowMs;
+                // Начало со случайного значения в нижней половине: остаётся запас на ~2048 id за мс
+                counter = (int) (nextRandom() & 0x7FF);
+            } else if (++counter > 0xFFF) {
+                // Счётчик кончился или часы пошли назад: берём следующую миллисекунду
+                lastMs++;
+                counter = (int) (nextRandom() & 0x7FF);
+            }
+            long msb = (lastMs << 16) | 0x7000L | counter;
+            long lsb = (nextRandom() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+            return new UUID(msb, lsb);
+        }
+
+        private long nextRandom() {
+            if (!randomBytes.hasRemaining()) {
+                random.nextBytes(randomBytes.array());
+                randomBytes.clear();
+            }
+            return randomBytes.getLong();
+        }
+    }
+
+    private static SecureRandom newRandom() {
+        // DRBG без общей блокировки источника энтропии (в отличие от NativePRNG)
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.bankticketsystem.util;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public class ZipResponseUtil {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Уже сжатые форматы: повторное сжатие тратит CPU и почти ничего не даёт
+    private static final Set<String> COMPRESSED_TYPES = Set.of(
+            "application/zip", "application/gzip", "application/x-gzip", "application/x-7z-compressed",
+            "application/vnd.rar", "application/x-rar-compressed", "application/pdf",
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.document",
+            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet",
+            "application/vnd.openxmlformats-officedocument.presentationml.presentation");
+    private static final Set<String> COMPRESSED_EXTENSIONS = Set.of(
+            "zip", "gz", "tgz", "7z", "rar", "pdf", "docx", "xlsx", "pptx", "odt", "ods",
+            "jpg", "jpeg", "png", "gif", "webp", "heic", "mp3", "mp4", "mov");
+
+    public record Entry(Path file, String name, String contentType) {}
+
+    // ZIP файлов потоком прямо в ответ, частями фиксированного размера - память не зависит от числа и размера файлов.
+    // Уже сжатые файлы - STORED (CRC считается отдельным проходом), остальные - DEFLATED
+    public static void write(HttpServletResponse response, String zipName, List<Entry> entries) throws IOException {
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(zipName).build().toString());
+
+        byte[] buffer = new byte[BUFFER_SIZE];
+        Set<String> usedNames = new HashSet<>();
+        // Закрытие ZipOutputStream пишет центральный каталог и закрывает поток ответа
+        try (ZipOutputStream zip = new ZipOutputStream(response.getOutputStream())) {
+            for (Entry e : entries) {
+                ZipEntry entry = new ZipEntry(uniqueName(safeName(e.name()), usedNames));
+                entry.setLastModifiedTime(Files.getLastModifiedTime(e.file()));
+                if (isCompressed(e.contentType(), e.name())) {
+                    long size = Files.size(e.file());
+                    entry.setMethod(ZipEntry.STORED);
+                    entry.setSize(size);
+                    entry.setCompressedSize(size);
+                    entry.setCrc(crc(e.file(), buffer));
+                }
+                zip.putNextEntry(entry);
+                try (InputStream in = Files.newInputStream(e.file())) {
+                    int n;
+                    while ((n = in.read(buffer)) != -1) {
+                        zip.write(buffer, 0, n);
+                    }
+                }
+                zip.closeEntry();
+            }
+        }
+    }
+
+    static boolean isCompressed(String contentType, String name) {
+        if (contentType != null) {
+            String type = contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+            if (COMPRESSED_TYPES.contains(type) || (type.startsWith("image/") && !type.equals("image/svg+xml"))
+                    || type.startsWith("audio/") || type.startsWith("video/")) {
+                return true;
+            }
+        }
+        int dot = name == null ? -1 : name.lastIndexOf('.');
+        return dot >= 0 && COMPRESSED_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    // Имя файла задаёт клиент: без каталогов, чтобы при распаковке он не вышел за пределы папки
+    private static String safeName(String name) {
+        String s = name == null ? "" : name.replace('\\', '/');
+        s = s.substring(s.lastIndexOf('/') + 1).trim();
+        return s.isEmpty() || s.equals(".") || s.equals("..") ? "document" : s;
+    }
+
+    // Одинаковые имена в одном архиве: scan.pdf, scan (2).pdf, ...
+    private static String uniqueName(String name, Set<String> used) {
+        if (used.add(name)) return name;
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        String ext = dot > 0 ? name.substring(dot) : "";
+        for (int i = 2; ; i++) {
+            String candidate = base + " (" + i + ")" + ext;
+            if (used.add(candidate)) return candidate;
+        }
+    }
+
+    private static long crc(Path file, byte[] buffer) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream in = Files.newInputStream(file)) {
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, n);
+            }
+        }
+        return crc.getValue();
+    }
+}
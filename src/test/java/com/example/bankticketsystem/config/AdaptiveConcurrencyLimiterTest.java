@@ -0,0 +1,150 @@
+package com.example.bankticketsystem.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+    private static final long SLOW = Duration.ofSeconds(2).toNanos();
+
+    private SimpleMeterRegistry registry;
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @BeforeEach
+    public void setUp() {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(10);
+        properties.setMinLimit(2);
+        properties.setMaxLimit(20);
+        properties.setLatencyThreshold(Duration.ofMillis(500));
+        properties.setBackoffRatio(0.5);
+        properties.setWindowSize(5);
+        registry = new SimpleMeterRegistry();
+        limiter = new AdaptiveConcurrencyLimiter(properties, registry);
+    }
+
+    @Test
+    public void lowPriorityIsShedBeforeHigh() {
+        // low-share 0.5: LOW получает не больше 5 из 10
+        for (int i = 0; i < 5; i++) assertTrue(limiter.tryAcquire(Priority.LOW));
+        assertFalse(limiter.tryAcquire(Priority.LOW));
+        // normal-share 0.8: ещё 3 NORMAL
+        for (int i = 0; i < 3; i++) assertTrue(limiter.tryAcquire(Priority.NORMAL));
+        assertFalse(limiter.tryAcquire(Priority.NORMAL));
+        // Остаток - только HIGH
+        assertTrue(limiter.tryAcquire(Priority.HIGH));
+        assertTrue(limiter.tryAcquire(Priority.HIGH));
+        assertFalse(limiter.tryAcquire(Priority.HIGH));
+
+        assertEquals(1.0, registry.get("http.server.requests.shed").tag("priority", "low").counter().count());
+        assertEquals(1.0, registry.get("http.server.requests.shed").tag("priority", "high").counter().count());
+        assertEquals(10.0, registry.get("http.server.concurrency.in.flight").gauge().value());
+    }
+
+    @Test
+    public void slowRequestsShrinkLimitOncePerWindow_downToMin() {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire(Priority.HIGH));
+            limiter.release(SLOW);
+        }
+        assertEquals(10.0, limiter.getLimit());
+        // Окно из 5 медленных запросов - одно уменьшение, а не 0.5^5
+        assertTrue(limiter.tryAcquire(Priority.HIGH));
+        limiter.release(SLOW);
+        assertEquals(5.0, limiter.getLimit());
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire(Priority.HIGH));
+            limiter.release(SLOW);
+        }
+        assertEquals(2.0, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void singleSlowRequestInFastWindow_doesNotShrinkLimit() {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire(Priority.HIGH));
+            limiter.release(FAST);
+        }
+        assertTrue(limiter.tryAcquire(Priority.HIGH));
+        limiter.release(Duration.ofMillis(1500).toNanos());
+        // Среднее окна (4 * 10 + 1500) / 5 = 308ms ниже порога 500ms
+        assertEquals(10.0, limiter.getLimit());
+    }
+
+    @Test
+    public void fastRequestsGrowLimitOnlyUnderLoad() {
+        // Один запрос из лимита 10 - нагрузки нет, лимит не растёт
+        assertTrue(limiter.tryAcquire(Priority.HIGH));
+        limiter.release(FAST);
+        assertEquals(10.0, limiter.getLimit());
+
+        for (int i = 0; i < 6; i++) assertTrue(limiter.tryAcquire(Priority.HIGH));
+        limiter.release(FAST);
+        assertEquals(11.0, limiter.getLimit());
+    }
+
+    @Test
+    public void interceptorResolvesPriority_methodThenConfigThenDefault() throws Exception {
+        ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor(limiter,
+                Map.of("ConfiguredController", Priority.LOW));
+
+        assertEquals(Priority.LOW, interceptor.priorityOf(handler(new AnnotatedController(), "list"), "GET"));
+        assertEquals(Priority.NORMAL, interceptor.priorityOf(handler(new AnnotatedController(), "get"), "GET"));
+        assertEquals(Priority.HIGH, interceptor.priorityOf(handler(new AnnotatedController(), "get"), "POST"));
+        assertEquals(Priority.LOW, interceptor.priorityOf(handler(new ConfiguredController(), "get"), "POST"));
+    }
+
+    @Test
+    public void interceptorMeasuresHandlerTimeOnly_slowBodyWriteDoesNotShrinkLimit() throws Exception {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(10);
+        properties.setLatencyThreshold(Duration.ofMillis(50));
+        properties.setBackoffRatio(0.5);
+        properties.setWindowSize(1);
+        limiter = new AdaptiveConcurrencyLimiter(properties, new SimpleMeterRegistry());
+        ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor(limiter, Map.of());
+        HandlerMethod handler = handler(new AnnotatedController(), "get");
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/applications");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(request, response, handler));
+        ConcurrencyLimitInterceptor.handlerReturned(request);
+        // Медленный клиент читает тело ответа
+        Thread.sleep(100);
+        interceptor.afterCompletion(request, response, handler, null);
+        assertEquals(10.0, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+
+        // Медленный обработчик по-прежнему уменьшает лимит
+        assertTrue(interceptor.preHandle(request, response, handler));
+        Thread.sleep(100);
+        interceptor.postHandle(request, response, handler, null);
+        interceptor.afterCompletion(request, response, handler, null);
+        assertEquals(5.0, limiter.getLimit());
+    }
+
+    private static HandlerMethod handler(Object bean, String name) throws NoSuchMethodException {
+        return new HandlerMethod(bean, bean.getClass().getMethod(name));
+    }
+
+    public static class AnnotatedController {
+        @RequestPriority(Priority.LOW)
+        public void list() {}
+        public void get() {}
+    }
+
+    public static class ConfiguredController {
+        public void get() {}
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.bankticketsystem.config;
+
+import com.example.bankticketsystem.dto.ApplicationDto;
+import com.example.bankticketsystem.dto.ApplicationRequest;
+import com.example.bankticketsystem.dto.DocumentDto;
+import com.example.bankticketsystem.model.enums.ApplicationStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryFormatsConfigTest {
+
+    private final BinaryFormatsConfig config = new BinaryFormatsConfig();
+
+    @Test
+    public void cbor_roundTripsApplicationPageAndIsSmallerThanJson() throws Exception {
+        ObjectMapper cbor = config.cborHttpMessageConverter(builder()).getObjectMapper();
+        List<ApplicationDto> page = List.of(application(), application());
+
+        byte[] encoded = cbor.writeValueAsBytes(page);
+        ApplicationDto[] decoded = cbor.readValue(encoded, ApplicationDto[].class);
+
+        assertEquals(2, decoded.length);
+        assertSameApplication(page.get(0), decoded[0]);
+        assertTrue(encoded.length < builder().build().writeValueAsBytes(page).length);
+    }
+
+    @Test
+    public void handWrittenSerializers_matchJacksonDefaultsInBinaryFormats() throws Exception {
+        ApplicationDto dto = application();
+        // Без DtoJsonSerializers: стандартные UUIDSerializer и InstantSerializer
+        ObjectMapper reflective = new BinaryFormatsConfig()
+                .smileHttpMessageConverter(new Jackson2ObjectMapperBuilder()).getObjectMapper();
+        ObjectMapper handWritten = config.smileHttpMessageConverter(builder()).getObjectMapper();
+
+        assertArrayEquals(reflective.writeValueAsBytes(dto), handWritten.writeValueAsBytes(dto));
+    }
+
+    @Test
+    public void smile_readsRequestBodies() throws Exception {
+        ObjectMapper smile = config.smileHttpMessageConverter(builder()).getObjectMapper();
+        ApplicationRequest req = new ApplicationRequest();
+        req.setApplicantId(UUID.randomUUID());
+        req.setProductId(UUID.randomUUID());
+
+        ApplicationRequest decoded = smile.readValue(smile.writeValueAsBytes(req), ApplicationRequest.class);
+
+        assertEquals(req.getApplicantId(), decoded.getApplicantId());
+        assertEquals(req.getProductId(), decoded.getProductId());
+    }
+
+    @Test
+    public void problemDetail_isWrittenInBinaryFormats() {
+        assertEquals(List.of(MediaType.APPLICATION_CBOR),
+                config.cborHttpMessageConverter(builder()).getSupportedMediaTypes(ProblemDetail.class));
+        assertEquals(List.of(new MediaType("application", "x-jackson-smile")),
+                config.smileHttpMessageConverter(builder()).getSupportedMediaTypes(ProblemDetail.class));
+    }
+
+    // Как Jackson2ObjectMapperBuilder из Spring Boot: JavaTimeModule + @JsonComponent
+    private static Jackson2ObjectMapperBuilder builder() {
+        return new Jackson2ObjectMapperBuilder().modulesToInstall(DtoJsonSerializers.module());
+    }
+
+    private static ApplicationDto application() {
+        ApplicationDto dto = new ApplicationDto();
+        dto.setId(UUID.randomUUID());
+        dto.setApplicantId(UUID.randomUUID());
+        dto.setProductId(UUID.randomUUID());
+        dto.setStatus(ApplicationStatus.SUBMITTED);
+        // Микросекунды, как в timestamp PostgreSQL
+        dto.setCreatedAt(Instant.parse("2026-10-19T12:15:04.746961Z"));
+        DocumentDto doc = new DocumentDto();
+        doc.setId(UUID.randomUUID());
+        doc.setFileName("passport.pdf");
+        doc.setContentType("application/pdf");
+        dto.setDocuments(List.of(doc));
+        dto.setTags(List.of("vip"));
+        return dto;
+    }
+
+    private static void assertSameApplication(ApplicationDto expected, ApplicationDto actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getApplicantId(), actual.getApplicantId());
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(expected.getCreatedAt(), actual.getCreatedAt());
+        assertEquals(expected.getDocuments().get(0).getId(), actual.getDocuments().get(0).getId());
+        assertEquals(expected.getTags(), actual.getTags());
+    }
+}
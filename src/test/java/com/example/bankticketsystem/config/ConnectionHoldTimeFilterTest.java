@@ -0,0 +1,101 @@
+package com.example.bankticketsystem.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionHoldTimeFilterTest {
+
+    private SimpleMeterRegistry registry;
+    private ConnectionHoldTimeFilter filter;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        filter = new ConnectionHoldTimeFilter(registry);
+    }
+
+    @Test
+    public void connectionsReleasedDuringRequest_areSummedPerRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/applications/42");
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/applications/{id}");
+                ConnectionHoldTimeFilter.connectionReleased(30);
+                ConnectionHoldTimeFilter.connectionReleased(12);
+            }
+        }));
+
+        Timer timer = registry.get("http.server.requests.connection.hold")
+                .tag("method", "GET").tag("uri", "/api/v1/applications/{id}").timer();
+        assertEquals(1, timer.count());
+        assertEquals(42.0, timer.totalTime(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void requestWithoutDatabaseAccess_recordsZero() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/tags"), new MockHttpServletResponse(), new MockFilterChain());
+
+        Timer timer = registry.get("http.server.requests.connection.hold").tag("uri", "UNKNOWN").timer();
+        assertEquals(1, timer.count());
+        assertEquals(0.0, timer.totalTime(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void replicaPools_reportHoldTimeToRequest() throws Exception {
+        ReadReplicaProperties.Replica replica = new ReadReplicaProperties.Replica();
+        replica.setName("replica-a");
+        replica.setUrl("jdbc:postgresql://replica-a:5432/banktickets");
+        ReadReplicaProperties properties = new ReadReplicaProperties();
+        properties.setReplicas(List.of(replica));
+        ReplicaRoutingDataSource routing = new ReadReplicaDataSourceConfig()
+                .replicaRoutingDataSource(new HikariDataSource(), properties, registry);
+        HikariDataSource pool = (HikariDataSource) routing.getReplicas().get(0).getDataSource();
+
+        assertNotNull(pool.getMetricsTrackerFactory());
+        IMetricsTracker tracker = pool.getMetricsTrackerFactory().create("replica-a", new PoolStats(0) {
+            @Override
+            protected void update() {
+            }
+        });
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/applications"), new MockHttpServletResponse(),
+                new MockFilterChain(new HttpServlet() {
+                    @Override
+                    protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                        req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/applications");
+                        tracker.recordConnectionUsageMillis(25);
+                    }
+                }));
+
+        assertEquals(25.0, registry.get("http.server.requests.connection.hold")
+                .tag("uri", "/api/v1/applications").timer().totalTime(TimeUnit.MILLISECONDS));
+        // Стандартные метрики пула при этом остаются
+        assertEquals(1, registry.get("hikaricp.connections.usage").tag("pool", "replica-a").timer().count());
+    }
+
+    @Test
+    public void releasesOutsideRequest_andNonApiPaths_areIgnored() throws Exception {
+        // Фоновые задачи (@Scheduled) не привязаны к запросу
+        ConnectionHoldTimeFilter.connectionReleased(100);
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(registry.find("http.server.requests.connection.hold").timer());
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.bankticketsystem.config;
+
+import com.example.bankticketsystem.dto.ApplicationDto;
+import com.example.bankticketsystem.dto.ApplicationHistoryDto;
+import com.example.bankticketsystem.dto.DocumentDto;
+import com.example.bankticketsystem.dto.UserDto;
+import com.example.bankticketsystem.model.enums.ApplicationStatus;
+import com.example.bankticketsystem.model.enums.UserRole;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Ручные сериализаторы должны выдавать ровно тот же JSON, что и рефлексивный путь Jackson
+public class DtoJsonSerializersTest {
+
+    private final ObjectMapper reflective = mapper();
+    private final ObjectMapper handWritten = mapper().registerModule(DtoJsonSerializers.module());
+
+    @Test
+    public void applicationDto_matchesDefaultSerialization() throws Exception {
+        ApplicationDto dto = new ApplicationDto();
+        dto.setId(UUID.randomUUID());
+        dto.setApplicantId(UUID.randomUUID());
+        dto.setProductId(UUID.randomUUID());
+        dto.setStatus(ApplicationStatus.IN_REVIEW);
+        dto.setCreatedAt(Instant.parse("2026-10-19T12:15:04.746961Z"));
+        dto.setVersion(7L);
+        DocumentDto doc = new DocumentDto();
+        doc.setId(UUID.randomUUID());
+        doc.setFileName("паспорт \"скан\".pdf");
+        doc.setContentType("application/pdf");
+        dto.setDocuments(Arrays.asList(doc, null));
+        dto.setTags(List.of("vip", "load"));
+
+        assertEquals(reflective.writeValueAsString(dto), handWritten.writeValueAsString(dto));
+        assertFalse(handWritten.writeValueAsString(dto).contains("version"));
+    }
+
+    @Test
+    public void emptyDtos_writeNullsLikeDefault() throws Exception {
+        assertEquals(reflective.writeValueAsString(new ApplicationDto()), handWritten.writeValueAsString(new ApplicationDto()));
+        assertEquals(reflective.writeValueAsString(new ApplicationHistoryDto()), handWritten.writeValueAsString(new ApplicationHistoryDto()));
+        assertEquals(reflective.writeValueAsString(new UserDto()), handWritten.writeValueAsString(new UserDto()));
+    }
+
+    @Test
+    public void historyAndUserLists_matchDefaultSerialization() throws Exception {
+        ApplicationHistoryDto h = new ApplicationHistoryDto();
+        h.setId(UUID.randomUUID());
+        h.setApplicationId(UUID.randomUUID());
+        h.setNewStatus(ApplicationStatus.SUBMITTED);
+        h.setChangedByRole(UserRole.ROLE_CLIENT);
+        h.setChangedAt(Instant.parse("2026-10-19T12:15:04Z"));
+        UserDto u = new UserDto();
+        u.setId(UUID.randomUUID());
+        u.setUsername("Babenko Daniil");
+        u.setEmail("dbabenko@gmail.com");
+        u.setPassword("<Hidden>");
+        u.setRole(UserRole.ROLE_ADMIN);
+        u.setCreatedAt(Instant.now());
+
+        assertEquals(reflective.writeValueAsString(List.of(h, h)), handWritten.writeValueAsString(List.of(h, h)));
+        assertEquals(reflective.writeValueAsString(List.of(u)), handWritten.writeValueAsString(List.of(u)));
+    }
+
+    @Test
+    public void timestampsEnabled_fallsBackToJavaTimeFormat() throws Exception {
+        UserDto u = new UserDto();
+        u.setCreatedAt(Instant.parse("2026-10-19T12:15:04Z"));
+        ObjectMapper numeric = mapper().enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        assertEquals(numeric.writeValueAsString(u),
+                numeric.copy().registerModule(DtoJsonSerializers.module()).writeValueAsString(u));
+    }
+
+    // Как в Spring Boot: JavaTimeModule и ISO-строки вместо числовых дат
+    private static ObjectMapper mapper() {
+        return new ObjectMapper().findAndRegisterModules().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+}
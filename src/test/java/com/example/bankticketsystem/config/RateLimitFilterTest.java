@@ -0,0 +1,145 @@
+package com.example.bankticketsystem.config;
+
+import com.example.bankticketsystem.model.entity.User;
+import com.example.bankticketsystem.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class RateLimitFilterTest {
+
+    private static final String A1 = "11111111-1111-1111-1111-111111111111";
+    private static final String A2 = "22222222-2222-2222-2222-222222222222";
+    private static final String ADMIN = "86d747ab-0ccb-4b34-bca5-f4f6fe9f70dc";
+
+    private SimpleMeterRegistry registry;
+    private UserRepository userRepository;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    public void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        // Пополнение почти нулевое - в пределах теста корзина не восстанавливается
+        properties.setRead(new RateLimitProperties.Limit(3, 0.001));
+        properties.setWrite(new RateLimitProperties.Limit(1, 0.001));
+        properties.setAdmin(new RateLimitProperties.Limit(1, 0.001));
+        registry = new SimpleMeterRegistry();
+        userRepository = mock(UserRepository.class);
+        when(userRepository.findById(any())).thenReturn(Optional.empty());
+        for (String id : List.of(A1, A2, ADMIN)) {
+            when(userRepository.findById(UUID.fromString(id))).thenReturn(Optional.of(new User()));
+        }
+        filter = new RateLimitFilter(properties, userRepository, registry);
+    }
+
+    @Test
+    public void readsOverCapacity_rejectedWith429AndRetryAfter() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, call("GET", "/api/v1/applications/stream", A1).getStatus());
+        }
+        MockHttpServletResponse rejected = call("GET", "/api/v1/applications/stream", A1);
+
+        assertEquals(429, rejected.getStatus());
+        assertTrue(Long.parseLong(rejected.getHeader("Retry-After")) >= 1);
+        assertTrue(rejected.getContentAsString().contains("\"status\":429"));
+        assertEquals(1.0, registry.get("http.server.requests.rate.limited").tag("category", "read").counter().count());
+    }
+
+    @Test
+    public void bucketsAreSeparatePerActorAndCategory() throws Exception {
+        assertEquals(200, call("POST", "/api/v1/applications", A1).getStatus());
+        assertEquals(429, call("POST", "/api/v1/applications", A1).getStatus());
+
+        // Другой актор и чтение того же актора не затронуты
+        assertEquals(200, call("POST", "/api/v1/applications", A2).getStatus());
+        assertEquals(200, call("GET", "/api/v1/applications", A1).getStatus());
+        // Без actorId ключ - IP
+        assertEquals(200, call("POST", "/api/v1/applications", null).getStatus());
+        assertEquals(429, call("POST", "/api/v1/applications", null).getStatus());
+    }
+
+    @Test
+    public void rotatingNonUuidActorIds_shareTheIpBucket() throws Exception {
+        assertEquals(200, call("POST", "/api/v1/applications", "x-1").getStatus());
+        for (int i = 2; i <= 5; i++) {
+            assertEquals(429, call("POST", "/api/v1/applications", "x-" + i).getStatus());
+        }
+        assertEquals(429, call("POST", "/api/v1/applications", null).getStatus());
+        // Один и тот же UUID в разном регистре - одна корзина
+        assertEquals(200, call("POST", "/api/v1/applications", A1.toUpperCase()).getStatus());
+        assertEquals(429, call("POST", "/api/v1/applications", A1).getStatus());
+        // Корзины: одна на IP и одна на A1, а не по одной на каждый actorId
+        assertEquals(2.0, registry.get("rate.limit.buckets").gauge().value());
+    }
+
+    @Test
+    public void rotatingRandomUuidActorIds_shareTheIpBucket() throws Exception {
+        assertEquals(200, call("POST", "/api/v1/applications", UUID.randomUUID().toString()).getStatus());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(429, call("POST", "/api/v1/applications", UUID.randomUUID().toString()).getStatus());
+        }
+        // Настоящий актор не затронут, его корзина не вытеснена
+        assertEquals(200, call("POST", "/api/v1/applications", A1).getStatus());
+        assertEquals(2.0, registry.get("rate.limit.buckets").gauge().value());
+    }
+
+    @Test
+    public void knownActor_isLookedUpOncePerBucket() throws Exception {
+        for (int i = 0; i < 3; i++) call("GET", "/api/v1/applications", A2);
+        verify(userRepository, times(1)).findById(UUID.fromString(A2));
+    }
+
+    @Test
+    public void adminPaths_useAdminBucket() throws Exception {
+        assertEquals(200, call("POST", "/api/v1/applications/stats/reconcile", ADMIN).getStatus());
+        assertEquals(429, call("POST", "/api/v1/applications/stats/reconcile", ADMIN).getStatus());
+        assertEquals(200, call("POST", "/api/v1/applications", ADMIN).getStatus());
+        assertEquals(1.0, registry.get("http.server.requests.rate.limited").tag("category", "admin").counter().count());
+    }
+
+    @Test
+    public void nonApiPaths_areNotLimited() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(200, call("GET", "/actuator/health", null).getStatus());
+        }
+    }
+
+    @Test
+    public void disabledAtRuntime_nothingIsLimited() throws Exception {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setWrite(new RateLimitProperties.Limit(1, 0.001));
+        properties.setEnabled(false);
+        filter = new RateLimitFilter(properties, userRepository, registry);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, call("POST", "/api/v1/applications", A1).getStatus());
+        }
+    }
+
+    @Test
+    public void tokenBucket_refillsOverTime() {
+        TokenBucket bucket = new TokenBucket(1, 10, 0);
+        assertEquals(0, bucket.tryConsume(0));
+        long wait = bucket.tryConsume(0);
+        assertEquals(100_000_000L, wait);
+        assertEquals(0, bucket.tryConsume(wait));
+    }
+
+    private MockHttpServletResponse call(String method, String path, String actorId) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        if (actorId != null) request.setParameter("actorId", actorId);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.bankticketsystem.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class ReplicaRoutingDataSourceTest {
+
+    private SimpleMeterRegistry registry;
+    private ReplicaTarget replica1;
+    private ReplicaTarget replica2;
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        replica1 = new ReplicaTarget("r1", mock(DataSource.class), Duration.ofSeconds(5), registry);
+        replica2 = new ReplicaTarget("r2", mock(DataSource.class), Duration.ofSeconds(5), registry);
+        routing = new ReplicaRoutingDataSource(mock(DataSource.class), List.of(replica1, replica2), registry);
+        routing.afterPropertiesSet();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    public void writeTransaction_goesToPrimary() {
+        replica1.markHealthy(0);
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    public void readOnlyTransaction_roundRobinsOverUsableReplicas() {
+        replica1.markHealthy(0);
+        replica2.markHealthy(1);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        Object first = routing.determineCurrentLookupKey();
+        Object second = routing.determineCurrentLookupKey();
+
+        assertNotEquals(first, second);
+        assertEquals(1.0, registry.get("datasource.routing.connections").tag("route", "r1").counter().count());
+        assertEquals(1.0, registry.get("datasource.routing.connections").tag("route", "r2").counter().count());
+    }
+
+    @Test
+    public void readOnlyTransaction_skipsLaggingReplica() {
+        replica1.markHealthy(30);
+        replica2.markHealthy(0);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals("r2", routing.determineCurrentLookupKey());
+        assertEquals("r2", routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    public void readOnlyTransaction_fallsBackToPrimaryWhenNoReplicaUsable() {
+        replica1.markDown();
+        replica2.markHealthy(60);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+        assertEquals(1.0, registry.get("datasource.routing.fallbacks").counter().count());
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.bankticketsystem.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class SchemaVersionCheckTest {
+
+    private static final String CHANGE_LOG = "classpath:db/changelog/db.changelog-master.xml";
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+    }
+
+    @Test
+    public void expectedChangeSets_readsEveryIncludedFile() {
+        List<SchemaVersionCheck.ChangeSet> expected = check(true).expectedChangeSets();
+
+        assertEquals(new SchemaVersionCheck.ChangeSet("001-create-user-table", "lab1",
+                "db/changelog/changes/001-create-user-table.xml"), expected.get(0));
+        // Несколько changeset'ов в одном файле
+        assertTrue(expected.contains(new SchemaVersionCheck.ChangeSet("010-fill-application-stats-counter", "lab3",
+                "db/changelog/changes/010-create-application-stats-counter.xml")));
+    }
+
+    @Test
+    public void allChangeSetsApplied_passes() {
+        SchemaVersionCheck check = check(true);
+        List<SchemaVersionCheck.ChangeSet> applied = check.expectedChangeSets();
+        stubApplied(applied);
+
+        assertDoesNotThrow(check::afterPropertiesSet);
+    }
+
+    @Test
+    public void missingChangeSet_failsWithItsId() {
+        SchemaVersionCheck check = check(true);
+        List<SchemaVersionCheck.ChangeSet> expected = check.expectedChangeSets();
+        stubApplied(expected.subList(0, expected.size() - 1));
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, check::afterPropertiesSet);
+        assertTrue(ex.getMessage().contains(expected.get(expected.size() - 1).id()));
+        assertTrue(ex.getMessage().contains("--migrate"));
+    }
+
+    @Test
+    public void newerSchemaThanBuild_passes() {
+        SchemaVersionCheck check = check(true);
+        List<SchemaVersionCheck.ChangeSet> applied = new ArrayList<>(check.expectedChangeSets());
+        applied.add(new SchemaVersionCheck.ChangeSet("999-next-release", "lab3", "db/changelog/changes/999-next-release.xml"));
+        stubApplied(applied);
+
+        assertDoesNotThrow(check::afterPropertiesSet);
+    }
+
+    @Test
+    public void noChangelogTable_failsAskingToMigrate() {
+        doThrow(new BadSqlGrammarException("query", "SELECT", new SQLException("relation does not exist")))
+                .when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, check(true)::afterPropertiesSet);
+        assertTrue(ex.getMessage().contains("--migrate"));
+    }
+
+    @Test
+    public void disabled_doesNotQueryDatabase() {
+        check(false).afterPropertiesSet();
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private SchemaVersionCheck check(boolean enabled) {
+        return new SchemaVersionCheck(jdbcTemplate, new DefaultResourceLoader(), CHANGE_LOG, enabled);
+    }
+
+    private void stubApplied(List<SchemaVersionCheck.ChangeSet> applied) {
+        doAnswer(inv -> {
+            RowCallbackHandler handler = inv.getArgument(1);
+            for (SchemaVersionCheck.ChangeSet c : applied) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getString(1)).thenReturn(c.id());
+                when(rs.getString(2)).thenReturn(c.author());
+                when(rs.getString(3)).thenReturn(c.file());
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.bankticketsystem.exception;
+
+import com.example.bankticketsystem.dto.TagDto;
+import jakarta.validation.Valid;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public class GlobalExceptionHandlerTest {
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new TestController())
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    public void domainException_answeredWithItsStatusAsProblemDetail() throws Exception {
+        mockMvc.perform(get("/test/items/{id}", UUID.randomUUID()))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.status").value(404))
+                .andExpect(jsonPath("$.title").value("Not Found"))
+                .andExpect(jsonPath("$.detail").value("Item not found"))
+                // Поля прежнего формата
+                .andExpect(jsonPath("$.error").value("Not Found"))
+                .andExpect(jsonPath("$.message").value("Item not found"))
+                .andExpect(jsonPath("$.path").value(startsWith("/test/items/")))
+                .andExpect(jsonPath("$.timestamp").exists())
+                .andExpect(jsonPath("$.errors").doesNotExist());
+    }
+
+    @Test
+    public void wrongMethod_is405WithAllowHeader() throws Exception {
+        mockMvc.perform(delete("/test/items/{id}", UUID.randomUUID()))
+                .andExpect(status().isMethodNotAllowed())
+                .andExpect(header().string("Allow", containsString("GET")))
+                .andExpect(jsonPath("$.status").value(405))
+                .andExpect(jsonPath("$.path").value(startsWith("/test/items/")));
+    }
+
+    @Test
+    public void invalidBody_is400WithFieldErrors() throws Exception {
+        mockMvc.perform(post("/test/tags").contentType(MediaType.APPLICATION_JSON).content("{\"name\":\" \"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Validation failed"))
+                .andExpect(jsonPath("$.errors", hasSize(1)))
+                .andExpect(jsonPath("$.errors[0].field").value("name"))
+                .andExpect(jsonPath("$.errors[0].message").value("Tag name is required"));
+    }
+
+    @Test
+    public void invalidUuid_is400() throws Exception {
+        mockMvc.perform(get("/test/items/not-a-uuid"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Invalid UUID: not-a-uuid"));
+    }
+
+    @RestController
+    @RequestMapping("/test")
+    static class TestController {
+
+        @GetMapping("/items/{id}")
+        public String item(@PathVariable UUID id) {
+            throw new NotFoundException("Item not found");
+        }
+
+        @PostMapping("/tags")
+        public TagDto tag(@Valid @RequestBody TagDto tag) {
+            return tag;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.bankticketsystem.integration;
+
+import com.example.bankticketsystem.dto.ApplicationDto;
+import com.example.bankticketsystem.model.entity.Application;
+import com.example.bankticketsystem.model.entity.Product;
+import com.example.bankticketsystem.model.entity.User;
+import com.example.bankticketsystem.model.entity.UserProductAssignment;
+import com.example.bankticketsystem.model.enums.ApplicationStatus;
+import com.example.bankticketsystem.model.enums.AssignmentRole;
+import com.example.bankticketsystem.model.enums.UserRole;
+import com.example.bankticketsystem.repository.ApplicationHistoryRepository;
+import com.example.bankticketsystem.repository.ApplicationRepository;
+import com.example.bankticketsystem.repository.ProductRepository;
+import com.example.bankticketsystem.repository.UserProductAssignmentRepository;
+import com.example.bankticketsystem.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ApplicationClaimIntegrationTest {
+
+    private static final int MANAGERS = 12;
+    private static final int APPLICATIONS = 300;
+
+    @Container
+    public static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void registerPgProperties(DynamicPropertyRegistry reg) {
+        reg.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        reg.add("spring.datasource.username", POSTGRES::getUsername);
+        reg.add("spring.datasource.password", POSTGRES::getPassword);
+        // Схема создаётся Liquibase при старте контекста, а не отдельным запуском --migrate
+        reg.add("spring.liquibase.enabled", () -> "true");
+        reg.add("spring.datasource.hikari.maximum-pool-size", () -> String.valueOf(MANAGERS + 4));
+    }
+
+    @Autowired private TestRestTemplate rest;
+    @Autowired private UserRepository userRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private ApplicationRepository applicationRepository;
+    @Autowired private ApplicationHistoryRepository applicationHistoryRepository;
+    @Autowired private UserProductAssignmentRepository assignmentRepository;
+
+    @Test
+    public void concurrentClaimers_claimEachApplicationExactlyOnce() throws Exception {
+        User applicant = saveUser("claimApplicant", UserRole.ROLE_CLIENT);
+        Product assigned = saveProduct("ClaimProduct");
+        Product foreign = saveProduct("ForeignProduct");
+
+        List<UUID> managers = new ArrayList<>();
+        for (int i = 0; i < MANAGERS; i++) {
+            User manager = saveUser("claimManager" + i, UserRole.ROLE_MANAGER);
+            UserProductAssignment upa = new UserProductAssignment();
+            upa.setId(UUID.randomUUID());
+            upa.setUser(manager);
+            upa.setProduct(assigned);
+            upa.setRoleOnProduct(AssignmentRole.SUPPORT);
+            upa.setAssignedAt(Instant.now());
+            assignmentRepository.save(upa);
+            managers.add(manager.getId());
+        }
+
+        Set<UUID> expected = new HashSet<>();
+        Instant base = Instant.now().minusSeconds(APPLICATIONS);
+        for (int i = 0; i < APPLICATIONS; i++) {
+            expected.add(saveApplication(applicant, assigned, base.plusSeconds(i)).getId());
+        }
+        // Заявка чужого продукта не должна попасть ни к одному менеджеру
+        UUID foreignId = saveApplication(applicant, foreign, base).getId();
+
+        ConcurrentHashMap<UUID, UUID> claimedBy = new ConcurrentHashMap<>();
+        List<UUID> duplicates = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(MANAGERS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (UUID managerId : managers) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                while (true) {
+                    ResponseEntity<ApplicationDto[]> resp = rest.postForEntity(
+                            "/api/v1/applications/claim?actorId=" + managerId + "&limit=7", null, ApplicationDto[].class);
+                    assertEquals(HttpStatus.OK, resp.getStatusCode());
+                    ApplicationDto[] batch = resp.getBody();
+                    if (batch == null || batch.length == 0) return null;
+                    for (ApplicationDto dto : batch) {
+                        assertEquals(ApplicationStatus.IN_REVIEW, dto.getStatus());
+                        if (claimedBy.putIfAbsent(dto.getId(), managerId) != null) duplicates.add(dto.getId());
+                    }
+                }
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : futures) f.get(2, TimeUnit.MINUTES);
+        pool.shutdown();
+
+        assertTrue(duplicates.isEmpty(), "applications claimed twice: " + duplicates);
+        assertEquals(expected, claimedBy.keySet());
+        assertEquals(ApplicationStatus.SUBMITTED, applicationRepository.findById(foreignId).orElseThrow().getStatus());
+        for (UUID id : expected) {
+            assertEquals(1, applicationHistoryRepository.findByApplicationIdOrderByChangedAtDesc(id).size());
+        }
+    }
+
+    private User saveUser(String username, UserRole role) {
+        User u = new User();
+        u.setId(UUID.randomUUID());
+        u.setUsername(username);
+        u.setEmail(username + "@example.com");
+        u.setPasswordHash("$2a$10$someHash");
+        u.setRole(role);
+        u.setCreatedAt(Instant.now());
+        return userRepository.save(u);
+    }
+
+    private Product saveProduct(String name) {
+        Product p = new Product();
+        p.setId(UUID.randomUUID());
+        p.setName(name);
+        p.setDescription("desc");
+        return productRepository.save(p);
+    }
+
+    private Application saveApplication(User applicant, Product product, Instant createdAt) {
+        Application app = new Application();
+        app.setId(UUID.randomUUID());
+        app.setApplicant(applicant);
+        app.setProduct(product);
+        app.setStatus(ApplicationStatus.SUBMITTED);
+        app.setCreatedAt(createdAt);
+        return applicationRepository.save(app);
+    }
+}
@@ -49,6 +49,8 @@ public class ApplicationIntegrationTest {
         reg.add("spring.datasource.url", POSTGRES::getJdbcUrl);
         reg.add("spring.datasource.username", POSTGRES::getUsername);
         reg.add("spring.datasource.password", POSTGRES::getPassword);
+        // Схема создаётся Liquibase при старте контекста, а не отдельным запуском --migrate
+        reg.add("spring.liquibase.enabled", () -> "true");
         reg.add("spring.jpa.hibernate.ddl-auto", () -> "update");
     }
 
@@ -219,4 +221,67 @@ public class ApplicationIntegrationTest {
         ResponseEntity<ApplicationDto> afterDeleteGet = rest.getForEntity("/api/v1/applications/" + appId, ApplicationDto.class);
         assertEquals(HttpStatus.NOT_FOUND, afterDeleteGet.getStatusCode());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getWithIfNoneMatch_returnsNotModified_andStaleIfMatchIsRejected() {
+        User applicant = new User();
+        applicant.setId(UUID.randomUUID());
+        applicant.setUsername("etagApplicant");
+        applicant.setEmail("etag@example.com");
+        applicant.setPasswordHash("$2a$10$someHash");
+        applicant.setRole(UserRole.ROLE_CLIENT);
+        applicant.setCreatedAt(Instant.now());
+        userRepository.save(applicant);
+
+        User admin = new User();
+        UUID adminId = UUID.randomUUID();
+        admin.setId(adminId);
+        admin.setUsername("etagAdmin");
+        admin.setEmail("etag-admin@example.com");
+        admin.setPasswordHash("$2a$10$adminHash");
+        admin.setRole(UserRole.ROLE_ADMIN);
+        admin.setCreatedAt(Instant.now());
+        userRepository.save(admin);
+
+        Product product = new Product();
+        product.setId(UUID.randomUUID());
+        product.setName("EtagProduct");
+        product.setDescription("desc");
+        productRepository.save(product);
+
+        Application app = new Application();
+        UUID appId = UUID.randomUUID();
+        app.setId(appId);
+        app.setApplicant(applicant);
+        app.setProduct(product);
+        app.setStatus(ApplicationStatus.SUBMITTED);
+        app.setCreatedAt(Instant.now());
+        applicationRepository.save(app);
+
+        ResponseEntity<ApplicationDto> first = rest.getForEntity("/api/v1/applications/" + appId, ApplicationDto.class);
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        String etag = first.getHeaders().getETag();
+        assertNotNull(etag);
+
+        HttpHeaders conditional = new HttpHeaders();
+        conditional.setIfNoneMatch(etag);
+        ResponseEntity<ApplicationDto> notModified = rest.exchange("/api/v1/applications/" + appId,
+                HttpMethod.GET, new HttpEntity<>(conditional), ApplicationDto.class);
+        assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+
+        HttpHeaders ifMatch = new HttpHeaders();
+        ifMatch.setContentType(MediaType.APPLICATION_JSON);
+        ifMatch.setIfMatch(etag);
+        ResponseEntity<ApplicationDto> changed = rest.exchange(
+                "/api/v1/applications/" + appId + "/status?actorId=" + adminId,
+                HttpMethod.PUT, new HttpEntity<>("IN_REVIEW", ifMatch), ApplicationDto.class);
+        assertEquals(HttpStatus.OK, changed.getStatusCode());
+        assertNotEquals(etag, changed.getHeaders().getETag());
+
+        // Повторная запись с устаревшим ETag отклоняется
+        ResponseEntity<String> stale = rest.exchange(
+                "/api/v1/applications/" + appId + "/status?actorId=" + adminId,
+                HttpMethod.PUT, new HttpEntity<>("APPROVED", ifMatch), String.class);
+        assertEquals(HttpStatus.PRECONDITION_FAILED, stale.getStatusCode());
+    }
+}
@@ -44,6 +44,8 @@ public class ProductIntegrationTest {
         reg.add("spring.datasource.url", POSTGRES::getJdbcUrl);
         reg.add("spring.datasource.username", POSTGRES::getUsername);
         reg.add("spring.datasource.password", POSTGRES::getPassword);
+        // Схема создаётся Liquibase при старте контекста, а не отдельным запуском --migrate
+        reg.add("spring.liquibase.enabled", () -> "true");
         // if you use Hibernate ddl-auto in tests:
         reg.add("spring.jpa.hibernate.ddl-auto", () -> "update");
     }
@@ -0,0 +1,135 @@
+package com.example.bankticketsystem.integration;
+
+import com.example.bankticketsystem.dto.ApplicationDto;
+import com.example.bankticketsystem.model.entity.Application;
+import com.example.bankticketsystem.model.entity.Product;
+import com.example.bankticketsystem.model.entity.User;
+import com.example.bankticketsystem.model.enums.ApplicationStatus;
+import com.example.bankticketsystem.model.enums.UserRole;
+import com.example.bankticketsystem.repository.ApplicationRepository;
+import com.example.bankticketsystem.repository.ProductRepository;
+import com.example.bankticketsystem.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.Network;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.MountableFile;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ReadReplicaRoutingIntegrationTest {
+
+    private static final Network NETWORK = Network.newNetwork();
+
+    @Container
+    public static final PostgreSQLContainer<?> PRIMARY = new PostgreSQLContainer<>("postgres:17")
+            .withDatabaseName("banktickets")
+            .withUsername("postgres")
+            .withPassword("postgres")
+            .withNetwork(NETWORK)
+            .withNetworkAliases("primary")
+            .withCopyFileToContainer(MountableFile.forHostPath("docker/postgres/primary-init.sh", 0755),
+                    "/docker-entrypoint-initdb.d/10-replication.sh")
+            .withCommand("postgres", "-c", "fsync=off", "-c", "wal_level=replica", "-c", "max_wal_senders=5");
+
+    @Container
+    public static final GenericContainer<?> REPLICA = new GenericContainer<>("postgres:17")
+            .dependsOn(PRIMARY)
+            .withNetwork(NETWORK)
+            .withEnv("PRIMARY_HOST", "primary")
+            .withEnv("PGPASSWORD", "replicator")
+            .withEnv("PGDATA", "/var/lib/postgresql/data")
+            .withCopyFileToContainer(MountableFile.forHostPath("docker/postgres/replica-entrypoint.sh", 0755),
+                    "/replica-entrypoint.sh")
+            .withCreateContainerCmdModifier(cmd -> cmd.withUser("postgres").withEntrypoint("/replica-entrypoint.sh"))
+            .withExposedPorts(5432)
+            .waitingFor(Wait.forLogMessage(".*ready to accept read-only connections.*", 1)
+                    .withStartupTimeout(Duration.ofMinutes(2)));
+
+    @DynamicPropertySource
+    static void props(DynamicPropertyRegistry r) {
+        r.add("spring.datasource.url", PRIMARY::getJdbcUrl);
+        r.add("spring.datasource.username", PRIMARY::getUsername);
+        r.add("spring.datasource.password", PRIMARY::getPassword);
+        // Схема создаётся Liquibase при старте контекста, а не отдельным запуском --migrate
+        r.add("spring.liquibase.enabled", () -> "true");
+        r.add("app.datasource.routing.enabled", () -> "true");
+        r.add("app.datasource.routing.health-check-interval", () -> "200ms");
+        r.add("app.datasource.routing.replicas[0].name", () -> "replica-1");
+        r.add("app.datasource.routing.replicas[0].url", () ->
+                "jdbc:postgresql://" + REPLICA.getHost() + ":" + REPLICA.getMappedPort(5432) + "/banktickets");
+        r.add("app.datasource.routing.replicas[0].username", () -> "postgres");
+        r.add("app.datasource.routing.replicas[0].password", () -> "postgres");
+    }
+
+    @Autowired private TestRestTemplate rest;
+    @Autowired private UserRepository userRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private ApplicationRepository applicationRepository;
+    @Autowired private MeterRegistry meterRegistry;
+
+    @Test
+    void readOnlyTransactionsAreServedByReplica() throws Exception {
+        User applicant = new User();
+        applicant.setId(UUID.randomUUID());
+        applicant.setUsername("replicaApplicant");
+        applicant.setEmail("replica@example.com");
+        applicant.setPasswordHash("$2a$10$someHash");
+        applicant.setRole(UserRole.ROLE_CLIENT);
+        applicant.setCreatedAt(Instant.now());
+        userRepository.save(applicant);
+
+        Product product = new Product();
+        product.setId(UUID.randomUUID());
+        product.setName("ReplicaProduct");
+        product.setDescription("desc");
+        productRepository.save(product);
+
+        Application app = new Application();
+        UUID appId = UUID.randomUUID();
+        app.setId(appId);
+        app.setApplicant(applicant);
+        app.setProduct(product);
+        app.setStatus(ApplicationStatus.SUBMITTED);
+        app.setCreatedAt(Instant.now());
+        applicationRepository.save(app);
+
+        double replicaBefore = routeCount("replica-1");
+
+        // Реплика догоняет primary асинхронно - ждём, пока запись станет видна через read-only путь
+        ApplicationDto[] body = null;
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            ResponseEntity<ApplicationDto[]> resp = rest.getForEntity("/api/v1/applications/stream?limit=10", ApplicationDto[].class);
+            assertEquals(HttpStatus.OK, resp.getStatusCode());
+            body = resp.getBody();
+            if (body != null && Arrays.stream(body).anyMatch(a -> appId.equals(a.getId()))) break;
+            Thread.sleep(200);
+        }
+        assertNotNull(body);
+        assertTrue(Arrays.stream(body).anyMatch(a -> appId.equals(a.getId())));
+        assertTrue(routeCount("replica-1") > replicaBefore, "stream() must be routed to the replica");
+    }
+
+    private double routeCount(String route) {
+        return meterRegistry.get("datasource.routing.connections").tag("route", route).counter().count();
+    }
+}
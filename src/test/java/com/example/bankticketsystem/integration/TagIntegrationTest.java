@@ -51,6 +51,8 @@ public class TagIntegrationTest {
         r.add("spring.datasource.url", postgres::getJdbcUrl);
         r.add("spring.datasource.username", postgres::getUsername);
         r.add("spring.datasource.password", postgres::getPassword);
+        // Схема создаётся Liquibase при старте контекста, а не отдельным запуском --migrate
+        r.add("spring.liquibase.enabled", () -> "true");
     }
 
     @TestConfiguration
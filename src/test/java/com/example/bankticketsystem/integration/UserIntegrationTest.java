@@ -47,6 +47,8 @@ public class UserIntegrationTest {
         registry.add("spring.datasource.url", postgres::getJdbcUrl);
         registry.add("spring.datasource.username", postgres::getUsername);
         registry.add("spring.datasource.password", postgres::getPassword);
+        // Схема создаётся Liquibase при старте контекста, а не отдельным запуском --migrate
+        registry.add("spring.liquibase.enabled", () -> "true");
     }
 
     @Autowired
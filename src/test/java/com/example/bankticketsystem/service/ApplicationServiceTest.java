@@ -29,6 +29,9 @@ public class ApplicationServiceTest {
     @Mock private UserService userService;
     @Mock private ProductService productService;
     @Mock private TagService tagService;
+    @Mock private ApplicationStatsService statsService;
+    @Mock private ApplicationViewService viewService;
+    @Mock private DocumentService documentService;
 
     private ApplicationService applicationService;
 
@@ -40,7 +43,10 @@ public class ApplicationServiceTest {
                 applicationHistoryRepository,
                 userService,
                 productService,
-                tagService
+                tagService,
+                statsService,
+                viewService,
+                documentService
         );
     }
 
@@ -113,6 +119,15 @@ public class ApplicationServiceTest {
 
         when(userService.findById(aid)).thenReturn(Optional.of(user));
         when(productService.findById(pid)).thenReturn(Optional.of(product));
+        when(documentService.newDocument(any(DocumentRequest.class), any(Application.class))).thenAnswer(inv -> {
+            DocumentRequest dr = inv.getArgument(0);
+            Document doc = new Document();
+            doc.setId(UUID.randomUUID());
+            doc.setFileName(dr.getFileName());
+            doc.setStoragePath(dr.getStoragePath());
+            doc.setApplication(inv.getArgument(1));
+            return doc;
+        });
 
         // Перехватываем сохранение application
         final Application[] savedHolder = new Application[1];
@@ -149,6 +164,10 @@ public class ApplicationServiceTest {
         verify(tagService, times(1)).createTag("t1");
         verify(tagService, times(1)).createTag("t2");
         verify(userService, times(2)).findById(aid); // once in create, once in attachTags
+        verify(statsService, times(1)).applicationCreated(savedHolder[0]);
+        verify(viewService, atLeastOnce()).applicationChanged(savedHolder[0].getId());
+        verify(statsService, times(1)).tagAdded("t1");
+        verify(statsService, times(1)).tagAdded("t2");
     }
 
     // helper to support different naming of the history repo mock variable in test environments
@@ -181,7 +200,7 @@ public class ApplicationServiceTest {
     @Test
     public void get_whenNotFound_returnsNull() {
         UUID id = UUID.randomUUID();
-        when(applicationRepository.findById(id)).thenReturn(Optional.empty());
+        when(applicationRepository.findWithDocumentsAndTagsById(id)).thenReturn(Optional.empty());
         assertNull(applicationService.get(id));
     }
 
@@ -191,7 +210,7 @@ public class ApplicationServiceTest {
         Application a = new Application();
         a.setId(id);
         a.setStatus(ApplicationStatus.DRAFT);
-        when(applicationRepository.findById(id)).thenReturn(Optional.of(a));
+        when(applicationRepository.findWithDocumentsAndTagsById(id)).thenReturn(Optional.of(a));
         ApplicationDto dto = applicationService.get(id);
         assertNotNull(dto);
         assertEquals(id, dto.getId());
@@ -242,6 +261,65 @@ public class ApplicationServiceTest {
         assertEquals(CursorUtil.encode(a3.getCreatedAt(), a3.getId()), page.nextCursor());
     }
 
+    @Test
+    public void list_withFilter_usesFilteredQueryAndCount() {
+        ApplicationFilter filter = ApplicationFilter.of(List.of("submitted", "IN_REVIEW"), null, null, null, null, null);
+        Application a1 = new Application();
+        a1.setId(UUID.randomUUID());
+        a1.setStatus(ApplicationStatus.SUBMITTED);
+        when(applicationRepository.findFilteredPage(filter, 10, 10)).thenReturn(List.of(a1));
+        when(applicationRepository.countFiltered(filter)).thenReturn(11L);
+
+        Page<ApplicationDto> res = applicationService.list(1, 10, filter);
+
+        assertEquals(11, res.getTotalElements());
+        assertEquals(a1.getId(), res.getContent().get(0).getId());
+        verify(applicationRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    public void streamWithNextCursor_emptyFilter_fallsBackToUnfilteredQuery() {
+        when(applicationRepository.findFirstPage(5)).thenReturn(List.of());
+
+        ApplicationPage page = applicationService.streamWithNextCursor(null, 5, ApplicationFilter.empty());
+
+        assertTrue(page.items().isEmpty());
+        assertNull(page.nextCursor());
+        verify(applicationRepository).findFirstPage(5);
+        verify(applicationRepository, never()).findFiltered(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    public void streamWithNextCursor_withFilter_passesCursorToFilteredQuery() {
+        UUID productId = UUID.randomUUID();
+        ApplicationFilter filter = ApplicationFilter.of(null, productId, null, null, List.of("vip", "urgent"), "all");
+        CursorUtil.Decoded dec = new CursorUtil.Decoded(Instant.parse("2024-01-01T00:00:05Z"), UUID.randomUUID());
+        String cursor = CursorUtil.encode(dec.timestamp, dec.id);
+
+        Application a3 = new Application();
+        a3.setId(UUID.randomUUID());
+        a3.setCreatedAt(Instant.parse("2024-01-01T00:00:04Z"));
+        when(applicationRepository.findFiltered(filter, dec.timestamp, dec.id, 5)).thenReturn(List.of(a3));
+
+        ApplicationPage page = applicationService.streamWithNextCursor(cursor, 5, filter);
+
+        assertEquals(1, page.items().size());
+        assertEquals(CursorUtil.encode(a3.getCreatedAt(), a3.getId()), page.nextCursor());
+        verify(applicationRepository, never()).findByKeyset(any(), any(), anyInt());
+    }
+
+    @Test
+    public void applicationFilter_invalidValues_throwBadRequest() {
+        assertThrows(BadRequestException.class,
+                () -> ApplicationFilter.of(List.of("UNKNOWN"), null, null, null, null, null));
+        assertThrows(BadRequestException.class,
+                () -> ApplicationFilter.of(null, null, "2025-02-01T00:00:00Z", "2025-01-01T00:00:00Z", null, null));
+        assertThrows(BadRequestException.class,
+                () -> ApplicationFilter.of(null, null, "yesterday", null, null, null));
+        assertThrows(BadRequestException.class,
+                () -> ApplicationFilter.of(null, null, null, null, List.of("a"), "some"));
+    }
+
     // -----------------------
     // attachTags tests
     // -----------------------
@@ -317,6 +395,36 @@ public class ApplicationServiceTest {
         assertTrue(app.getTags().stream().anyMatch(tag -> "tag1".equals(tag.getName())));
         verify(applicationRepository, times(1)).save(app);
         verify(tagService, times(1)).createTag("tag1");
+        verify(statsService, times(1)).tagAdded("tag1");
+    }
+
+    @Test
+    public void attachTags_tagAlreadyAttached_doesNotCountTwice() {
+        UUID actorId = UUID.randomUUID();
+        UUID appId = UUID.randomUUID();
+        User admin = new User();
+        admin.setId(actorId);
+        admin.setRole(UserRole.ROLE_ADMIN);
+
+        Tag t = new Tag();
+        t.setId(UUID.randomUUID());
+        t.setName("vip");
+
+        Application app = new Application();
+        app.setId(appId);
+        User applicant = new User();
+        applicant.setId(UUID.randomUUID());
+        app.setApplicant(applicant);
+        app.setTags(new HashSet<>(List.of(t)));
+
+        when(userService.findById(actorId)).thenReturn(Optional.of(admin));
+        when(applicationRepository.findById(appId)).thenReturn(Optional.of(app));
+        when(tagService.createTag("vip")).thenReturn(t);
+
+        applicationService.attachTags(appId, List.of("vip", "vip"), actorId);
+
+        assertEquals(1, app.getTags().size());
+        verify(statsService, never()).tagAdded(any());
     }
 
     // -----------------------
@@ -386,6 +494,8 @@ public class ApplicationServiceTest {
 
         assertTrue(app.getTags().stream().noneMatch(t -> "a".equals(t.getName())));
         verify(applicationRepository, times(1)).save(app);
+        verify(statsService, times(1)).tagRemoved("a");
+        verify(statsService, never()).tagRemoved("b");
     }
 
     // -----------------------
@@ -512,6 +622,8 @@ public class ApplicationServiceTest {
         assertEquals(ApplicationStatus.APPROVED, dto.getStatus());
         verify(applicationRepository, times(1)).save(any(Application.class));
         verify(applicationHistoryRepository, times(1)).save(any());
+        verify(statsService, times(1)).statusChanged(ApplicationStatus.SUBMITTED, ApplicationStatus.APPROVED);
+        verify(viewService, times(1)).applicationChanged(appId);
     }
 
     @Test
@@ -538,6 +650,148 @@ public class ApplicationServiceTest {
         assertTrue(ex.getMessage().toLowerCase().contains("db constraint") || ex.getMessage().toLowerCase().contains("constraint"));
     }
 
+    @Test
+    public void changeStatus_ifMatchVersionStale_throwsPreconditionFailed() {
+        UUID actorId = UUID.randomUUID();
+        UUID appId = UUID.randomUUID();
+
+        User actor = new User();
+        actor.setId(actorId);
+        actor.setRole(UserRole.ROLE_ADMIN);
+
+        Application app = new Application();
+        app.setId(appId);
+        app.setStatus(ApplicationStatus.SUBMITTED);
+        app.setVersion(3L);
+
+        when(userService.findById(actorId)).thenReturn(Optional.of(actor));
+        when(applicationRepository.findById(appId)).thenReturn(Optional.of(app));
+
+        assertThrows(PreconditionFailedException.class,
+                () -> applicationService.changeStatus(appId, "APPROVED", actorId, 2L));
+        verify(applicationRepository, never()).save(any());
+        verify(applicationHistoryRepository, never()).save(any());
+    }
+
+    @Test
+    public void changeStatus_ifMatchVersionCurrent_savesAndReturnsVersion() {
+        UUID actorId = UUID.randomUUID();
+        UUID appId = UUID.randomUUID();
+
+        User actor = new User();
+        actor.setId(actorId);
+        actor.setRole(UserRole.ROLE_ADMIN);
+
+        Application app = new Application();
+        app.setId(appId);
+        app.setStatus(ApplicationStatus.SUBMITTED);
+        app.setVersion(3L);
+
+        when(userService.findById(actorId)).thenReturn(Optional.of(actor));
+        when(applicationRepository.findById(appId)).thenReturn(Optional.of(app));
+        when(applicationRepository.save(any(Application.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ApplicationDto dto = applicationService.changeStatus(appId, "APPROVED", actorId, 3L);
+        assertEquals(ApplicationStatus.APPROVED, dto.getStatus());
+        assertEquals(3L, dto.getVersion());
+        verify(applicationRepository, times(1)).flush();
+    }
+
+    @Test
+    public void attachTags_ifMatchVersionStale_throwsPreconditionFailed() {
+        UUID actorId = UUID.randomUUID();
+        UUID appId = UUID.randomUUID();
+
+        User actor = new User();
+        actor.setId(actorId);
+        actor.setRole(UserRole.ROLE_MANAGER);
+
+        Application app = new Application();
+        app.setId(appId);
+        User applicant = new User();
+        applicant.setId(UUID.randomUUID());
+        app.setApplicant(applicant);
+        app.setVersion(7L);
+
+        when(userService.findById(actorId)).thenReturn(Optional.of(actor));
+        when(applicationRepository.findById(appId)).thenReturn(Optional.of(app));
+
+        assertThrows(PreconditionFailedException.class,
+                () -> applicationService.attachTags(appId, List.of("vip"), actorId, 6L));
+        verify(tagService, never()).createTag(any());
+    }
+
+    // -----------------------
+    // claim tests
+    // -----------------------
+    @Test
+    public void claim_actorIdNull_throwsUnauthorized() {
+        assertThrows(UnauthorizedException.class, () -> applicationService.claim(null, 5));
+    }
+
+    @Test
+    public void claim_client_throwsForbidden() {
+        UUID actorId = UUID.randomUUID();
+        User actor = new User();
+        actor.setId(actorId);
+        actor.setRole(UserRole.ROLE_CLIENT);
+        when(userService.findById(actorId)).thenReturn(Optional.of(actor));
+
+        assertThrows(ForbiddenException.class, () -> applicationService.claim(actorId, 5));
+        verify(applicationRepository, never()).lockSubmittedForManager(any(), anyInt());
+    }
+
+    @Test
+    public void claim_manager_movesAssignedApplicationsToReviewAndRecordsHistory() {
+        UUID actorId = UUID.randomUUID();
+        User actor = new User();
+        actor.setId(actorId);
+        actor.setRole(UserRole.ROLE_MANAGER);
+
+        Application a1 = new Application();
+        a1.setId(UUID.randomUUID());
+        a1.setStatus(ApplicationStatus.SUBMITTED);
+        Application a2 = new Application();
+        a2.setId(UUID.randomUUID());
+        a2.setStatus(ApplicationStatus.SUBMITTED);
+
+        when(userService.findById(actorId)).thenReturn(Optional.of(actor));
+        when(applicationRepository.lockSubmittedForManager(actorId, 5)).thenReturn(List.of(a1, a2));
+
+        List<ApplicationDto> claimed = applicationService.claim(actorId, 5);
+
+        assertEquals(2, claimed.size());
+        assertTrue(claimed.stream().allMatch(d -> d.getStatus() == ApplicationStatus.IN_REVIEW));
+        verify(applicationRepository, never()).lockSubmitted(anyInt());
+        verify(applicationHistoryRepository, times(2)).save(any());
+        verify(statsService, times(2)).statusChanged(ApplicationStatus.SUBMITTED, ApplicationStatus.IN_REVIEW);
+        verify(viewService).applicationChanged(a1.getId());
+        verify(viewService).applicationChanged(a2.getId());
+    }
+
+    @Test
+    public void claim_admin_usesWholeQueueAndCapsLimit() {
+        UUID actorId = UUID.randomUUID();
+        User actor = new User();
+        actor.setId(actorId);
+        actor.setRole(UserRole.ROLE_ADMIN);
+        when(userService.findById(actorId)).thenReturn(Optional.of(actor));
+        when(applicationRepository.lockSubmitted(50)).thenReturn(List.of());
+
+        assertTrue(applicationService.claim(actorId, 500).isEmpty());
+        verify(applicationRepository).lockSubmitted(50);
+        verify(applicationHistoryRepository, never()).save(any());
+    }
+
+    @Test
+    public void findVersion_delegatesToVersionOnlyQuery() {
+        UUID appId = UUID.randomUUID();
+        when(applicationRepository.findVersionById(appId)).thenReturn(Optional.of(4L));
+
+        assertEquals(Optional.of(4L), applicationService.findVersion(appId));
+        verify(applicationRepository, never()).findById(any());
+    }
+
     // -----------------------
     // deleteApplication tests
     // -----------------------
@@ -612,6 +866,9 @@ public class ApplicationServiceTest {
         applicationService.deleteApplication(app.getId(), actorId);
 
         verify(applicationRepository, times(1)).delete(app);
+        verify(statsService, times(1)).applicationDeleted(app);
+        verify(viewService, times(1)).applicationChanged(app.getId());
+        verify(documentService, times(1)).documentsDeleted(app.getDocuments());
     }
 
     // -----------------------
@@ -749,5 +1006,6 @@ public class ApplicationServiceTest {
         applicationService.delete(app);
 
         verify(applicationRepository, times(1)).delete(app);
+        verify(statsService, times(1)).applicationDeleted(app);
     }
 }
\ No newline at end of file
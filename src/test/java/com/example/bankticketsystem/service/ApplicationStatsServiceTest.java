@@ -0,0 +1,161 @@
+package com.example.bankticketsystem.service;
+
+import com.example.bankticketsystem.dto.ApplicationStatsDto;
+import com.example.bankticketsystem.exception.ForbiddenException;
+import com.example.bankticketsystem.exception.UnauthorizedException;
+import com.example.bankticketsystem.model.entity.Application;
+import com.example.bankticketsystem.model.entity.Product;
+import com.example.bankticketsystem.model.entity.Tag;
+import com.example.bankticketsystem.model.entity.User;
+import com.example.bankticketsystem.model.enums.ApplicationStatus;
+import com.example.bankticketsystem.model.enums.UserRole;
+import com.example.bankticketsystem.repository.ApplicationStatsRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ApplicationStatsServiceTest {
+
+    @Mock private ApplicationStatsRepository statsRepository;
+    @Mock private UserService userService;
+
+    private ApplicationStatsService statsService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        statsService = new ApplicationStatsService(statsRepository, userService, 4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(statsService);
+    }
+
+    @Test
+    public void tagAdded_withoutTransaction_writesImmediately() {
+        statsService.tagAdded("vip");
+
+        verify(statsRepository, times(1)).increment(Map.of(ApplicationStatsService.TAG, Map.of("vip", 1L)), 4);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void deltasInTransaction_areMergedAndWrittenBeforeCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        Application app = application(ApplicationStatus.SUBMITTED);
+        statsService.applicationCreated(app);
+        statsService.tagAdded("vip");
+        statsService.statusChanged(ApplicationStatus.SUBMITTED, ApplicationStatus.IN_REVIEW);
+
+        // до коммита в таблицу ничего не пишется
+        verifyNoInteractions(statsRepository);
+
+        List<TransactionSynchronization> syncs = TransactionSynchronizationManager.getSynchronizations();
+        assertEquals(1, syncs.size());
+        syncs.forEach(s -> s.beforeCommit(false));
+
+        ArgumentCaptor<Map<String, Map<String, Long>>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(statsRepository, times(1)).increment(captor.capture(), eq(4));
+        Map<String, Map<String, Long>> deltas = captor.getValue();
+        assertEquals(0L, deltas.get(ApplicationStatsService.STATUS).get("SUBMITTED"));
+        assertEquals(1L, deltas.get(ApplicationStatsService.STATUS).get("IN_REVIEW"));
+        assertEquals(1L, deltas.get(ApplicationStatsService.PRODUCT).get(app.getProduct().getId().toString()));
+        assertEquals(1L, deltas.get(ApplicationStatsService.TAG).get("vip"));
+        // одинаковый порядок измерений во всех транзакциях
+        assertEquals(List.of("product", "status", "tag"), new ArrayList<>(deltas.keySet()));
+
+        syncs.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        assertNull(TransactionSynchronizationManager.getResource(statsService));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void applicationDeleted_decrementsStatusProductAndTags() {
+        TransactionSynchronizationManager.initSynchronization();
+        Application app = application(ApplicationStatus.APPROVED);
+        Tag tag = new Tag();
+        tag.setName("vip");
+        app.setTags(new HashSet<>(List.of(tag)));
+
+        statsService.applicationDeleted(app);
+        TransactionSynchronizationManager.getSynchronizations().forEach(s -> s.beforeCommit(false));
+
+        ArgumentCaptor<Map<String, Map<String, Long>>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(statsRepository).increment(captor.capture(), eq(4));
+        assertEquals(-1L, captor.getValue().get(ApplicationStatsService.STATUS).get("APPROVED"));
+        assertEquals(-1L, captor.getValue().get(ApplicationStatsService.TAG).get("vip"));
+    }
+
+    @Test
+    public void getStats_mapsDimensionsAndComputesTotal() {
+        when(statsRepository.sumAll()).thenReturn(Map.of(
+                ApplicationStatsService.STATUS, Map.of("SUBMITTED", 3L, "APPROVED", 2L),
+                ApplicationStatsService.TAG, Map.of("vip", 4L)));
+
+        ApplicationStatsDto dto = statsService.getStats();
+
+        assertEquals(5L, dto.getTotal());
+        assertEquals(3L, dto.getByStatus().get("SUBMITTED"));
+        assertTrue(dto.getByProduct().isEmpty());
+        assertEquals(4L, dto.getByTag().get("vip"));
+    }
+
+    @Test
+    public void reconcile_actorIdNull_throwsUnauthorized() {
+        assertThrows(UnauthorizedException.class, () -> statsService.reconcile(null));
+        verify(statsRepository, never()).rebuild();
+    }
+
+    @Test
+    public void reconcile_notAdmin_throwsForbidden() {
+        UUID actorId = UUID.randomUUID();
+        User manager = new User();
+        manager.setId(actorId);
+        manager.setRole(UserRole.ROLE_MANAGER);
+        when(userService.findById(actorId)).thenReturn(Optional.of(manager));
+
+        assertThrows(ForbiddenException.class, () -> statsService.reconcile(actorId));
+        verify(statsRepository, never()).rebuild();
+    }
+
+    @Test
+    public void reconcile_admin_rebuildsAndReturnsStats() {
+        UUID actorId = UUID.randomUUID();
+        User admin = new User();
+        admin.setId(actorId);
+        admin.setRole(UserRole.ROLE_ADMIN);
+        when(userService.findById(actorId)).thenReturn(Optional.of(admin));
+        when(statsRepository.sumAll()).thenReturn(Map.of());
+
+        ApplicationStatsDto dto = statsService.reconcile(actorId);
+
+        assertEquals(0L, dto.getTotal());
+        verify(statsRepository, times(1)).rebuild();
+    }
+
+    private Application application(ApplicationStatus status) {
+        Application app = new Application();
+        app.setId(UUID.randomUUID());
+        Product product = new Product();
+        product.setId(UUID.randomUUID());
+        app.setProduct(product);
+        app.setStatus(status);
+        return app;
+    }
+}
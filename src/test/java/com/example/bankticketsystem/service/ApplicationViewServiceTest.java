@@ -0,0 +1,181 @@
+package com.example.bankticketsystem.service;
+
+import com.example.bankticketsystem.dto.ApplicationSummaryDto;
+import com.example.bankticketsystem.exception.BadRequestException;
+import com.example.bankticketsystem.exception.ForbiddenException;
+import com.example.bankticketsystem.exception.UnauthorizedException;
+import com.example.bankticketsystem.model.entity.User;
+import com.example.bankticketsystem.model.enums.UserRole;
+import com.example.bankticketsystem.repository.ApplicationViewRepository;
+import com.example.bankticketsystem.util.ApplicationSummaryPage;
+import com.example.bankticketsystem.util.CursorUtil;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ApplicationViewServiceTest {
+
+    @Mock private ApplicationViewRepository viewRepository;
+    @Mock private UserService userService;
+    @Mock private EntityManager em;
+
+    @InjectMocks
+    private ApplicationViewService viewService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(viewService, "em", em);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(viewService);
+    }
+
+    @Test
+    public void changes_areProjectedOnceBeforeCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        UUID appId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+
+        viewService.applicationChanged(appId);
+        viewService.applicationChanged(appId);
+        viewService.applicantRenamed(userId);
+
+        verifyNoInteractions(viewRepository);
+        List<TransactionSynchronization> syncs = TransactionSynchronizationManager.getSynchronizations();
+        assertEquals(1, syncs.size());
+        syncs.forEach(s -> s.beforeCommit(false));
+
+        // проекция читает базовые таблицы - сначала сбрасываем persistence context
+        var inOrder = inOrder(em, viewRepository);
+        inOrder.verify(em).flush();
+        inOrder.verify(viewRepository).refresh(Set.of(appId));
+        verify(viewRepository).refreshApplicantNames(Set.of(userId));
+        verify(viewRepository).refreshProductNames(Set.of());
+
+        syncs.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        assertNull(TransactionSynchronizationManager.getResource(viewService));
+    }
+
+    @Test
+    public void listSummaries_fullPage_returnsCursor() {
+        ApplicationSummaryDto a = summary(Instant.now());
+        ApplicationSummaryDto b = summary(Instant.now().minusSeconds(5));
+        when(viewRepository.findFirstPage(2)).thenReturn(List.of(a, b));
+
+        ApplicationSummaryPage page = viewService.listSummaries(null, 2);
+
+        assertEquals(2, page.items().size());
+        assertEquals(CursorUtil.encode(b.getCreatedAt(), b.getId()), page.nextCursor());
+    }
+
+    @Test
+    public void listSummaries_withCursor_usesKeysetAndStopsOnShortPage() {
+        ApplicationSummaryDto last = summary(Instant.now().minusSeconds(60));
+        Instant ts = Instant.now();
+        UUID id = UUID.randomUUID();
+        when(viewRepository.findByKeyset(ts, id, 20)).thenReturn(List.of(last));
+
+        ApplicationSummaryPage page = viewService.listSummaries(CursorUtil.encode(ts, id), 20);
+
+        assertEquals(1, page.items().size());
+        assertNull(page.nextCursor());
+        verify(viewRepository, never()).findFirstPage(anyInt());
+    }
+
+    @Test
+    public void listSummaries_invalidLimit_throwsBadRequest() {
+        assertThrows(BadRequestException.class, () -> viewService.listSummaries(null, 0));
+    }
+
+    @Test
+    public void search_blankQuery_throwsBadRequest() {
+        assertThrows(BadRequestException.class, () -> viewService.search("  ", null, 20));
+        assertThrows(BadRequestException.class, () -> viewService.search("x".repeat(201), null, 20));
+        verifyNoInteractions(viewRepository);
+    }
+
+    @Test
+    public void search_fullPage_returnsRankedCursorAndFollowsIt() {
+        ApplicationSummaryDto a = summary(Instant.now());
+        ApplicationSummaryDto b = summary(Instant.now());
+        when(viewRepository.search("passport", 2)).thenReturn(List.of(
+                new ApplicationViewRepository.RankedSummary(a, 0.6f),
+                new ApplicationViewRepository.RankedSummary(b, 0.1f)));
+
+        ApplicationSummaryPage first = viewService.search("passport", null, 2);
+
+        assertEquals(List.of(a, b), first.items());
+        assertEquals(CursorUtil.encodeRanked(0.1f, b.getId()), first.nextCursor());
+
+        ApplicationSummaryDto c = summary(Instant.now());
+        when(viewRepository.searchAfter("passport", 0.1f, b.getId(), 2)).thenReturn(List.of(
+                new ApplicationViewRepository.RankedSummary(c, 0.1f)));
+
+        ApplicationSummaryPage second = viewService.search("passport", first.nextCursor(), 2);
+
+        assertEquals(List.of(c), second.items());
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    public void search_timestampCursor_isRejected() {
+        String cursor = CursorUtil.encode(Instant.now(), UUID.randomUUID());
+        assertThrows(BadRequestException.class, () -> viewService.search("passport", cursor, 20));
+    }
+
+    @Test
+    public void rebuild_actorIdNull_throwsUnauthorized() {
+        assertThrows(UnauthorizedException.class, () -> viewService.rebuild(null));
+        verify(viewRepository, never()).rebuild();
+    }
+
+    @Test
+    public void rebuild_notAdmin_throwsForbidden() {
+        UUID actorId = UUID.randomUUID();
+        User client = new User();
+        client.setId(actorId);
+        client.setRole(UserRole.ROLE_CLIENT);
+        when(userService.findById(actorId)).thenReturn(Optional.of(client));
+
+        assertThrows(ForbiddenException.class, () -> viewService.rebuild(actorId));
+        verify(viewRepository, never()).rebuild();
+    }
+
+    @Test
+    public void rebuild_admin_returnsRowCount() {
+        UUID actorId = UUID.randomUUID();
+        User admin = new User();
+        admin.setId(actorId);
+        admin.setRole(UserRole.ROLE_ADMIN);
+        when(userService.findById(actorId)).thenReturn(Optional.of(admin));
+        when(viewRepository.rebuild()).thenReturn(42);
+
+        assertEquals(42, viewService.rebuild(actorId));
+    }
+
+    private ApplicationSummaryDto summary(Instant createdAt) {
+        ApplicationSummaryDto dto = new ApplicationSummaryDto();
+        dto.setId(UUID.randomUUID());
+        dto.setCreatedAt(createdAt);
+        return dto;
+    }
+}
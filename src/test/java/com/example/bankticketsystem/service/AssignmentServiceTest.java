@@ -1,6 +1,7 @@
 package com.example.bankticketsystem.service;
 
 import com.example.bankticketsystem.dto.UserProductAssignmentDto;
+import com.example.bankticketsystem.exception.BadRequestException;
 import com.example.bankticketsystem.exception.ForbiddenException;
 import com.example.bankticketsystem.exception.NotFoundException;
 import com.example.bankticketsystem.model.entity.Product;
@@ -9,10 +10,14 @@ import com.example.bankticketsystem.model.entity.UserProductAssignment;
 import com.example.bankticketsystem.model.enums.AssignmentRole;
 import com.example.bankticketsystem.model.enums.UserRole;
 import com.example.bankticketsystem.repository.UserProductAssignmentRepository;
+import com.example.bankticketsystem.util.AssignmentPage;
+import com.example.bankticketsystem.util.CursorUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.data.domain.Limit;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
@@ -38,7 +43,8 @@ public class AssignmentServiceTest {
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
-        svc = new UserProductAssignmentService(repo, userService, productService);
+        svc = new UserProductAssignmentService(repo, userService, productService,
+                new ProductPermissionIndex(repo, Duration.ofMinutes(5)));
     }
 
     // -----------------------
@@ -55,7 +61,7 @@ public class AssignmentServiceTest {
         Product product = new Product(); product.setId(productId);
 
         // repo mocks
-        when(repo.existsByUserIdAndProductIdAndRoleOnProduct(actorId, productId, AssignmentRole.PRODUCT_OWNER)).thenReturn(false);
+        when(repo.findProductRolesByUserId(actorId)).thenReturn(List.of());
         when(repo.findByUserIdAndProductId(userId, productId)).thenReturn(Optional.empty());
         when(repo.save(any(UserProductAssignment.class))).thenAnswer(inv -> inv.getArgument(0));
 
@@ -92,7 +98,7 @@ public class AssignmentServiceTest {
 
         Instant oldAssignedAt = existing.getAssignedAt();
 
-        when(repo.existsByUserIdAndProductIdAndRoleOnProduct(actorId, productId, AssignmentRole.PRODUCT_OWNER)).thenReturn(true);
+        when(repo.findProductRolesByUserId(actorId)).thenReturn(List.<Object[]>of(new Object[]{productId, AssignmentRole.PRODUCT_OWNER}));
         when(repo.findByUserIdAndProductId(userId, productId)).thenReturn(Optional.of(existing));
         when(repo.save(any(UserProductAssignment.class))).thenAnswer(inv -> inv.getArgument(0));
 
@@ -119,7 +125,7 @@ public class AssignmentServiceTest {
         User user = new User(); user.setId(userId);
         Product product = new Product(); product.setId(productId);
 
-        when(repo.existsByUserIdAndProductIdAndRoleOnProduct(actorId, productId, AssignmentRole.PRODUCT_OWNER)).thenReturn(false);
+        when(repo.findProductRolesByUserId(actorId)).thenReturn(List.of());
 
         when(userService.findById(userId)).thenReturn(Optional.of(user));
         when(productService.findById(productId)).thenReturn(Optional.of(product));
@@ -176,70 +182,79 @@ public class AssignmentServiceTest {
     @Test
     public void list_byUser_returnsMappedDtos() {
         UUID userId = UUID.randomUUID();
-        User u = new User(); u.setId(userId);
-        Product p = new Product(); p.setId(UUID.randomUUID());
-
-        UserProductAssignment a = new UserProductAssignment();
-        a.setId(UUID.randomUUID());
-        a.setUser(u);
-        a.setProduct(p);
-        a.setRoleOnProduct(AssignmentRole.PRODUCT_OWNER);
-        a.setAssignedAt(Instant.now());
+        UUID productId = UUID.randomUUID();
+        UUID id = UUID.randomUUID();
+        Instant assignedAt = Instant.now();
 
-        when(repo.findByUserId(userId)).thenReturn(List.of(a));
+        when(repo.findPageByUserId(eq(userId), eq(new UUID(0, 0)), any(Limit.class)))
+                .thenReturn(List.<Object[]>of(new Object[]{id, userId, productId, AssignmentRole.PRODUCT_OWNER, assignedAt}));
 
-        List<UserProductAssignmentDto> dtos = svc.list(userId, null);
+        AssignmentPage page = svc.list(userId, null, null, 20);
 
-        assertEquals(1, dtos.size());
-        UserProductAssignmentDto dto = dtos.get(0);
-        assertEquals(a.getId(), dto.getId());
+        assertEquals(1, page.items().size());
+        UserProductAssignmentDto dto = page.items().get(0);
+        assertEquals(id, dto.getId());
         assertEquals(userId, dto.getUserId());
-        assertEquals(p.getId(), dto.getProductId());
+        assertEquals(productId, dto.getProductId());
         assertEquals(AssignmentRole.PRODUCT_OWNER, dto.getRole());
+        assertEquals(assignedAt, dto.getAssignedAt());
+        assertNull(page.nextCursor());
+        // Только проекция: сущности назначений не загружаются
+        verify(repo, never()).findByUserId(any());
+        verify(repo, never()).findAll();
     }
 
     @Test
     public void list_byProduct_returnsMappedDtos() {
         UUID productId = UUID.randomUUID();
-        User u = new User(); u.setId(UUID.randomUUID());
-        Product p = new Product(); p.setId(productId);
-
-        UserProductAssignment a = new UserProductAssignment();
-        a.setId(UUID.randomUUID());
-        a.setUser(u);
-        a.setProduct(p);
-        a.setRoleOnProduct(AssignmentRole.PRODUCT_OWNER);
-        a.setAssignedAt(Instant.now());
+        UUID userId = UUID.randomUUID();
+        UUID id = UUID.randomUUID();
 
-        when(repo.findByProductId(productId)).thenReturn(List.of(a));
+        when(repo.findPageByProductId(eq(productId), any(), any(Limit.class)))
+                .thenReturn(List.<Object[]>of(new Object[]{id, userId, productId, AssignmentRole.SUPPORT, Instant.now()}));
 
-        List<UserProductAssignmentDto> dtos = svc.list(null, productId);
+        AssignmentPage page = svc.list(null, productId, null, 20);
 
-        assertEquals(1, dtos.size());
-        UserProductAssignmentDto dto = dtos.get(0);
-        assertEquals(a.getId(), dto.getId());
-        assertEquals(u.getId(), dto.getUserId());
-        assertEquals(productId, dto.getProductId());
-        assertEquals(AssignmentRole.PRODUCT_OWNER, dto.getRole());
+        assertEquals(1, page.items().size());
+        assertEquals(userId, page.items().get(0).getUserId());
+        assertEquals(productId, page.items().get(0).getProductId());
     }
 
     @Test
-    public void list_all_returnsMappedDtos() {
-        User u = new User(); u.setId(UUID.randomUUID());
-        Product p = new Product(); p.setId(UUID.randomUUID());
+    public void list_byUserAndProduct_usesBothFilters() {
+        UUID userId = UUID.randomUUID();
+        UUID productId = UUID.randomUUID();
+        when(repo.findPageByUserIdAndProductId(eq(userId), eq(productId), any(), any(Limit.class))).thenReturn(List.of());
 
-        UserProductAssignment a = new UserProductAssignment();
-        a.setId(UUID.randomUUID());
-        a.setUser(u);
-        a.setProduct(p);
-        a.setRoleOnProduct(AssignmentRole.PRODUCT_OWNER);
-        a.setAssignedAt(Instant.now());
+        AssignmentPage page = svc.list(userId, productId, null, 20);
+
+        assertTrue(page.items().isEmpty());
+        verify(repo).findPageByUserIdAndProductId(eq(userId), eq(productId), any(), any(Limit.class));
+    }
 
-        when(repo.findAll()).thenReturn(List.of(a));
+    @Test
+    public void list_all_fullPage_returnsCursorOfLastRow_andNextPageStartsAfterIt() {
+        UUID first = UUID.randomUUID();
+        UUID last = UUID.randomUUID();
+        when(repo.findPage(eq(new UUID(0, 0)), eq(Limit.of(2)))).thenReturn(List.of(
+                new Object[]{first, UUID.randomUUID(), UUID.randomUUID(), AssignmentRole.PRODUCT_OWNER, Instant.now()},
+                new Object[]{last, UUID.randomUUID(), UUID.randomUUID(), AssignmentRole.RESELLER, Instant.now()}));
+
+        AssignmentPage page = svc.list(null, null, null, 2);
+
+        assertEquals(2, page.items().size());
+        assertEquals(CursorUtil.encodeId(last), page.nextCursor());
+
+        when(repo.findPage(eq(last), eq(Limit.of(2)))).thenReturn(List.of());
+        AssignmentPage next = svc.list(null, null, page.nextCursor(), 2);
+        assertTrue(next.items().isEmpty());
+        assertNull(next.nextCursor());
+    }
 
-        List<UserProductAssignmentDto> dtos = svc.list(null, null);
-        assertEquals(1, dtos.size());
-        assertEquals(a.getId(), dtos.get(0).getId());
+    @Test
+    public void list_invalidCursorOrLimit_throwsBadRequest() {
+        assertThrows(BadRequestException.class, () -> svc.list(null, null, "not-a-cursor", 20));
+        assertThrows(BadRequestException.class, () -> svc.list(null, null, null, 0));
     }
 
     // -----------------------
@@ -399,12 +414,15 @@ public class AssignmentServiceTest {
         UUID productId = UUID.randomUUID();
         AssignmentRole role = AssignmentRole.PRODUCT_OWNER;
 
-        when(repo.existsByUserIdAndProductIdAndRoleOnProduct(userId, productId, role)).thenReturn(true);
+        when(repo.findProductRolesByUserId(userId)).thenReturn(List.<Object[]>of(new Object[]{productId, role}));
 
         boolean exists = svc.existsByUserIdAndProductIdAndRoleOnProduct(userId, productId, role);
 
         assertTrue(exists);
-        verify(repo, times(1)).existsByUserIdAndProductIdAndRoleOnProduct(userId, productId, role);
+        // Повторная проверка - из индекса в памяти
+        assertTrue(svc.existsByUserIdAndProductIdAndRoleOnProduct(userId, productId, role));
+        verify(repo, times(1)).findProductRolesByUserId(userId);
+        verify(repo, never()).existsByUserIdAndProductIdAndRoleOnProduct(any(), any(), any());
     }
 
     @Test
@@ -413,12 +431,37 @@ public class AssignmentServiceTest {
         UUID productId = UUID.randomUUID();
         AssignmentRole role = AssignmentRole.PRODUCT_OWNER;
 
-        when(repo.existsByUserIdAndProductIdAndRoleOnProduct(userId, productId, role)).thenReturn(false);
+        when(repo.findProductRolesByUserId(userId)).thenReturn(List.<Object[]>of(new Object[]{productId, AssignmentRole.RESELLER}));
 
         boolean exists = svc.existsByUserIdAndProductIdAndRoleOnProduct(userId, productId, role);
 
         assertFalse(exists);
-        verify(repo, times(1)).existsByUserIdAndProductIdAndRoleOnProduct(userId, productId, role);
+        verify(repo, times(1)).findProductRolesByUserId(userId);
+    }
+
+    @Test
+    public void existsByUserIdAndProductIdAndRoleOnProduct_seesNewAssignment_afterAssign() {
+        UUID actorId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        UUID productId = UUID.randomUUID();
+
+        User actor = new User(); actor.setId(actorId); actor.setRole(UserRole.ROLE_ADMIN);
+        User user = new User(); user.setId(userId);
+        Product product = new Product(); product.setId(productId);
+        when(userService.findById(userId)).thenReturn(Optional.of(user));
+        when(userService.findById(actorId)).thenReturn(Optional.of(actor));
+        when(productService.findById(productId)).thenReturn(Optional.of(product));
+        when(repo.findByUserIdAndProductId(userId, productId)).thenReturn(Optional.empty());
+        when(repo.save(any(UserProductAssignment.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(repo.findProductRolesByUserId(userId))
+                .thenReturn(List.of())
+                .thenReturn(List.<Object[]>of(new Object[]{productId, AssignmentRole.PRODUCT_OWNER}));
+
+        assertFalse(svc.existsByUserIdAndProductIdAndRoleOnProduct(userId, productId, AssignmentRole.PRODUCT_OWNER));
+        svc.assign(actorId, userId, productId, AssignmentRole.PRODUCT_OWNER);
+
+        assertTrue(svc.existsByUserIdAndProductIdAndRoleOnProduct(userId, productId, AssignmentRole.PRODUCT_OWNER));
+        verify(repo, times(2)).findProductRolesByUserId(userId);
     }
 
     // -----------------------
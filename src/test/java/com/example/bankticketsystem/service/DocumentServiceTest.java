@@ -0,0 +1,311 @@
+package com.example.bankticketsystem.service;
+
+import com.example.bankticketsystem.config.DocumentStorageProperties;
+import com.example.bankticketsystem.dto.DocumentRequest;
+import com.example.bankticketsystem.dto.DocumentUploadDto;
+import com.example.bankticketsystem.exception.*;
+import com.example.bankticketsystem.model.entity.Application;
+import com.example.bankticketsystem.model.entity.Document;
+import com.example.bankticketsystem.model.entity.User;
+import com.example.bankticketsystem.repository.DocumentBlobRepository;
+import com.example.bankticketsystem.repository.DocumentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class DocumentServiceTest {
+
+    @Mock private DocumentRepository documentRepository;
+    @Mock private DocumentBlobRepository blobRepository;
+    @Mock private UserService userService;
+    @Mock private ApplicationService applicationService;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    @TempDir Path root;
+
+    private DocumentStorageService storage;
+    private DocumentService documentService;
+    private final UUID actorId = UUID.randomUUID();
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        DocumentStorageProperties properties = new DocumentStorageProperties();
+        properties.setRoot(root);
+        properties.setMaxFileSize(DataSize.ofBytes(1024));
+        properties.setOrphanTtl(Duration.ofHours(1));
+        storage = new DocumentStorageService(properties);
+        documentService = new DocumentService(documentRepository, blobRepository, storage, userService, applicationService,
+                transactionManager, properties);
+        when(userService.findById(actorId)).thenReturn(Optional.of(new User()));
+        // Как UPDATE ... RETURNING без подходящей строки (иначе мок вернёт 0L)
+        when(blobRepository.touch(anyString(), any(), any())).thenReturn(null);
+        when(blobRepository.acquire(anyString(), any())).thenReturn(null);
+    }
+
+    @Test
+    public void upload_storesBodyUnderItsSha256() throws Exception {
+        byte[] body = "%PDF-1.7 content".getBytes();
+
+        DocumentUploadDto dto = documentService.upload(actorId, new ByteArrayInputStream(body), "a.pdf", "application/pdf", null);
+
+        assertEquals(sha256(body), dto.getSha256());
+        assertEquals(body.length, dto.getSize());
+        assertFalse(dto.isDeduplicated());
+        assertArrayEquals(body, Files.readAllBytes(storage.path(dto.getSha256())));
+        verify(blobRepository).register(eq(dto.getSha256()), eq((long) body.length), any());
+        verify(blobRepository).grant(eq(dto.getSha256()), eq(actorId), any());
+        // Во временном каталоге ничего не осталось
+        assertEquals(0, storage.deletePartsOlderThan(Instant.MAX));
+    }
+
+    @Test
+    public void upload_sameContentTwice_storedOnce() throws Exception {
+        byte[] body = "passport scan".getBytes();
+
+        DocumentUploadDto first = documentService.upload(actorId, new ByteArrayInputStream(body), "a.png", null, null);
+        DocumentUploadDto second = documentService.upload(actorId, new MockMultipartFile("file", "b.png", "image/png", body));
+
+        assertEquals(first.getSha256(), second.getSha256());
+        assertTrue(second.isDeduplicated());
+        try (Stream<Path> files = Files.walk(root.resolve("objects"))) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    public void upload_knownSha256Header_doesNotReadBody() {
+        String key = upload();
+        when(blobRepository.touch(eq(key), eq(actorId), any())).thenReturn(4L);
+        InputStream unreadable = new InputStream() {
+            @Override
+            public int read() {
+                throw new AssertionError("body must not be read");
+            }
+        };
+
+        DocumentUploadDto dto = documentService.upload(actorId, unreadable, "f.bin", null, key.toUpperCase());
+
+        assertEquals(key, dto.getSha256());
+        assertEquals(4L, dto.getSize());
+        assertTrue(dto.isDeduplicated());
+    }
+
+    @Test
+    public void upload_sha256HeaderOfAnotherActorsFile_readsAndVerifiesBody() throws Exception {
+        byte[] secret = "actor A's statement".getBytes();
+        String key = documentService.upload(actorId, new ByteArrayInputStream(secret), "a.pdf", null, null).getSha256();
+        UUID otherActor = UUID.randomUUID();
+        when(userService.findById(otherActor)).thenReturn(Optional.of(new User()));
+        // Файл есть, но otherActor его не загружал - touch с его id ничего не находит
+
+        // Без содержимого только по хэшу - не подтверждает ни наличие, ни размер файла
+        assertThrows(BadRequestException.class, () ->
+                documentService.upload(otherActor, new ByteArrayInputStream(new byte[0]), "x.pdf", null, key));
+
+        // С теми же байтами - обычная загрузка, после которой файл доступен и ему
+        DocumentUploadDto dto = documentService.upload(otherActor, new ByteArrayInputStream(secret), "x.pdf", null, key);
+        assertEquals(key, dto.getSha256());
+        verify(blobRepository, times(2)).touch(eq(key), eq(otherActor), any());
+        verify(blobRepository).grant(eq(key), eq(otherActor), any());
+    }
+
+    @Test
+    public void upload_sha256HeaderMismatch_throwsBadRequestAndLeavesNothing() {
+        String wrong = "0".repeat(64);
+
+        assertThrows(BadRequestException.class, () ->
+                documentService.upload(actorId, new ByteArrayInputStream(new byte[8]), "f.bin", null, wrong));
+        verify(blobRepository, never()).register(anyString(), anyLong(), any());
+        assertEquals(0, storage.deletePartsOlderThan(Instant.MAX));
+    }
+
+    @Test
+    public void upload_overLimit_throwsPayloadTooLargeAndLeavesNothing() throws Exception {
+        assertThrows(PayloadTooLargeException.class, () ->
+                documentService.upload(actorId, new ByteArrayInputStream(new byte[2048]), "big.bin", null, null));
+        assertEquals(0, storage.deletePartsOlderThan(Instant.MAX));
+        try (Stream<Path> files = Files.walk(root.resolve("objects"))) {
+            assertEquals(0, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    public void upload_withoutActor_throwsUnauthorized() {
+        assertThrows(UnauthorizedException.class, () ->
+                documentService.upload(null, new ByteArrayInputStream(new byte[1]), "a.txt", null, null));
+    }
+
+    @Test
+    public void newDocument_withSha256_acquiresStoredFile() {
+        String key = upload();
+        when(blobRepository.acquire(key, actorId)).thenReturn(4L);
+        DocumentRequest req = new DocumentRequest();
+        req.setFileName("a.txt");
+        req.setSha256(key);
+
+        Document d = documentService.newDocument(req, applicationOf(actorId));
+
+        assertEquals(key, d.getStorageKey());
+        assertEquals(4L, d.getSizeBytes());
+        assertNull(d.getStoragePath());
+    }
+
+    @Test
+    public void newDocument_anotherActorsSha256_throwsNotFound() {
+        String key = upload();
+        UUID actorB = UUID.randomUUID();
+        // Право на файл есть только у загрузившего (actorId); для actorB acquire ничего не находит
+        when(blobRepository.acquire(key, actorId)).thenReturn(4L);
+        DocumentRequest req = new DocumentRequest();
+        req.setFileName("stolen.pdf");
+        req.setSha256(key);
+
+        assertThrows(NotFoundException.class, () -> documentService.newDocument(req, applicationOf(actorB)));
+        verify(blobRepository).acquire(key, actorB);
+        verify(blobRepository, never()).acquire(key, actorId);
+    }
+
+    @Test
+    public void newDocument_invalidUploads_rejected() {
+        DocumentRequest both = new DocumentRequest();
+        both.setFileName("a.txt");
+        both.setStoragePath("/ext/a.txt");
+        both.setSha256("a".repeat(64));
+        assertThrows(BadRequestException.class, () -> documentService.newDocument(both, new Application()));
+
+        DocumentRequest malformed = new DocumentRequest();
+        malformed.setFileName("a.txt");
+        malformed.setSha256("../../etc/passwd");
+        assertThrows(BadRequestException.class, () -> documentService.newDocument(malformed, new Application()));
+
+        DocumentRequest missing = new DocumentRequest();
+        missing.setFileName("a.txt");
+        missing.setSha256("b".repeat(64));
+        assertThrows(NotFoundException.class, () -> documentService.newDocument(missing, applicationOf(actorId)));
+    }
+
+    @Test
+    public void documentsDeleted_releasesOneReferencePerDocument() {
+        String shared = "c".repeat(64);
+        Document a = new Document();
+        a.setStorageKey(shared);
+        Document b = new Document();
+        b.setStorageKey(shared);
+        Document external = new Document();
+        external.setStoragePath("/ext/a.txt");
+
+        documentService.documentsDeleted(List.of(a, b, external));
+
+        verify(blobRepository).release(eq(Map.of(shared, 2)), any());
+    }
+
+    @Test
+    public void content_documentWithoutStoredFile_throwsNotFound() {
+        UUID appId = UUID.randomUUID();
+        UUID docId = UUID.randomUUID();
+        Document external = new Document();
+        external.setStoragePath("/ext/a.txt");
+        when(documentRepository.findByIdAndApplicationId(docId, appId)).thenReturn(Optional.of(external));
+
+        assertThrows(NotFoundException.class, () -> documentService.content(appId, docId, actorId));
+        verify(applicationService).findReadable(eq(appId), eq(actorId), anyString());
+    }
+
+    @Test
+    public void bundle_returnsStoredFilesSortedAndSkipsExternal() {
+        UUID appId = UUID.randomUUID();
+        String key = upload();
+        Document b = new Document();
+        b.setFileName("b.pdf");
+        b.setStorageKey(key);
+        b.setSizeBytes(4L);
+        Document a = new Document();
+        a.setFileName("a.pdf");
+        a.setStorageKey(key);
+        a.setSizeBytes(4L);
+        Document external = new Document();
+        external.setFileName("c.pdf");
+        external.setStoragePath("/ext/c.pdf");
+        Application app = new Application();
+        app.setDocuments(List.of(b, external, a));
+        when(applicationService.findReadable(eq(appId), eq(actorId), anyString())).thenReturn(app);
+
+        List<DocumentService.Content> contents = documentService.bundle(appId, actorId);
+
+        assertEquals(List.of("a.pdf", "b.pdf"), contents.stream().map(DocumentService.Content::fileName).toList());
+        assertEquals(storage.path(key), contents.get(0).path());
+    }
+
+    @Test
+    public void deleteUnreferencedFiles_removesOnlyFilesWhoseRowWasDeleted() {
+        String orphan = upload();
+        String reattached = documentService.upload(actorId, new ByteArrayInputStream(new byte[5]), "g.bin", null, null).getSha256();
+        when(blobRepository.findUnreferenced(any(), anyInt())).thenReturn(List.of(orphan, reattached));
+        when(blobRepository.deleteIfUnreferenced(eq(orphan), any())).thenReturn(true);
+        when(blobRepository.deleteIfUnreferenced(eq(reattached), any())).thenReturn(false);
+
+        documentService.deleteUnreferencedFiles();
+
+        assertFalse(storage.exists(orphan));
+        assertTrue(storage.exists(reattached));
+    }
+
+    @Test
+    public void deleteUnreferencedFiles_removesOldUnattachedUuidKeyedFilesOnce() throws Exception {
+        String orphan = UUID.randomUUID().toString();
+        String attached = UUID.randomUUID().toString();
+        for (String key : List.of(orphan, attached)) {
+            Path p = storage.path(key);
+            Files.createDirectories(p.getParent());
+            Files.write(p, new byte[3]);
+            Files.setLastModifiedTime(p, java.nio.file.attribute.FileTime.from(Instant.now().minus(Duration.ofDays(1))));
+        }
+        String fresh = upload();
+        when(blobRepository.exists(attached)).thenReturn(true);
+
+        documentService.deleteUnreferencedFiles();
+        documentService.deleteUnreferencedFiles();
+
+        assertFalse(Files.exists(storage.path(orphan)));
+        assertTrue(Files.exists(storage.path(attached)));
+        assertTrue(storage.exists(fresh));
+        verify(blobRepository, times(1)).exists(orphan);
+        verify(blobRepository, never()).exists(fresh);
+    }
+
+    private Application applicationOf(UUID applicantId) {
+        User applicant = new User();
+        applicant.setId(applicantId);
+        Application app = new Application();
+        app.setApplicant(applicant);
+        return app;
+    }
+
+    private String upload() {
+        return documentService.upload(actorId, new ByteArrayInputStream(new byte[4]), "f.bin", null, null).getSha256();
+    }
+
+    private static String sha256(byte[] data) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.bankticketsystem.service;
+
+import com.example.bankticketsystem.dto.ApplicationDto;
+import com.example.bankticketsystem.dto.ApplicationRequest;
+import com.example.bankticketsystem.exception.BadRequestException;
+import com.example.bankticketsystem.exception.ConflictException;
+import com.example.bankticketsystem.exception.NotFoundException;
+import com.example.bankticketsystem.exception.UnprocessableEntityException;
+import com.example.bankticketsystem.model.enums.ApplicationStatus;
+import com.example.bankticketsystem.repository.IdempotencyKeyRepository;
+import com.example.bankticketsystem.repository.IdempotencyKeyRepository.StoredResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class IdempotencyServiceTest {
+
+    @Mock private IdempotencyKeyRepository repository;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private static final Instant RESERVED_AT = Instant.parse("2026-01-01T00:00:00.123456Z");
+
+    private IdempotencyService idempotencyService;
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        idempotencyService = new IdempotencyService(repository, objectMapper, transactionManager,
+                Duration.ofHours(24), Duration.ofSeconds(30), Duration.ofSeconds(5), 100);
+        when(repository.tryReserve(anyString(), anyString(), any(), any(), any())).thenReturn(RESERVED_AT);
+        when(repository.lock(anyString(), any())).thenReturn(true);
+        when(repository.complete(anyString(), any(), any())).thenReturn(true);
+    }
+
+    @Test
+    public void repeatedKey_replaysFirstResponseWithoutRunningActionAgain() {
+        ApplicationRequest req = request();
+
+        ResponseEntity<ApplicationDto> first = idempotencyService.execute("k1", req, ApplicationDto.class, this::create);
+        ResponseEntity<ApplicationDto> second = idempotencyService.execute("k1", req, ApplicationDto.class, this::create);
+
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.CREATED, second.getStatusCode());
+        assertEquals(first.getBody().getId(), second.getBody().getId());
+        assertEquals(first.getHeaders().getLocation(), second.getHeaders().getLocation());
+        assertEquals("true", second.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        verify(repository, times(1)).tryReserve(eq("k1"), anyString(), any(), any(), any());
+        verify(repository, times(1)).complete(eq("k1"), eq(RESERVED_AT), any());
+    }
+
+    @Test
+    public void sameKeyDifferentBody_throwsUnprocessableEntity() {
+        idempotencyService.execute("k2", request(), ApplicationDto.class, this::create);
+
+        ApplicationRequest other = request();
+        other.setProductId(UUID.randomUUID());
+        assertThrows(UnprocessableEntityException.class,
+                () -> idempotencyService.execute("k2", other, ApplicationDto.class, this::create));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    public void failedAction_releasesKeySoRetryRunsAgain() {
+        ApplicationRequest req = request();
+        assertThrows(NotFoundException.class, () -> idempotencyService.execute("k3", req, ApplicationDto.class, () -> {
+            throw new NotFoundException("Applicant not found");
+        }));
+        verify(repository, never()).complete(eq("k3"), any(), any());
+        verify(transactionManager).rollback(any());
+        verify(repository).release("k3", RESERVED_AT);
+
+        idempotencyService.execute("k3", req, ApplicationDto.class, this::create);
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    public void keyCompletedOnAnotherInstance_replaysStoredResponse() throws Exception {
+        ApplicationRequest req = request();
+        ApplicationDto dto = new ApplicationDto();
+        dto.setId(UUID.randomUUID());
+        dto.setStatus(ApplicationStatus.SUBMITTED);
+        // Тот же отпечаток, что посчитает сервис
+        String hash = HexFormat.of().formatHex(java.security.MessageDigest.getInstance("SHA-256")
+                .digest(objectMapper.writeValueAsBytes(req)));
+
+        when(repository.tryReserve(eq("k4"), anyString(), any(), any(), any())).thenReturn(null);
+        when(repository.find(eq("k4"), any(Instant.class))).thenReturn(Optional.of(
+                new StoredResponse(hash, 201, "/api/v1/applications/" + dto.getId(), objectMapper.writeValueAsString(dto))));
+
+        ResponseEntity<ApplicationDto> resp = idempotencyService.execute("k4", req, ApplicationDto.class, this::create);
+
+        assertEquals(0, executions.get());
+        assertEquals(dto.getId(), resp.getBody().getId());
+        assertEquals(URI.create("/api/v1/applications/" + dto.getId()), resp.getHeaders().getLocation());
+    }
+
+    @Test
+    public void keyReleasedOrLeaseLapsedOnAnotherInstance_waiterReservesAndRuns() {
+        // Первая попытка: ключ занят; затем владелец снял резервацию (или его lease истёк)
+        when(repository.tryReserve(eq("k6"), anyString(), any(), any(), any())).thenReturn(null, RESERVED_AT);
+        when(repository.find(eq("k6"), any(Instant.class))).thenReturn(Optional.empty());
+
+        ResponseEntity<ApplicationDto> resp = idempotencyService.execute("k6", request(), ApplicationDto.class, this::create);
+
+        assertEquals(HttpStatus.CREATED, resp.getStatusCode());
+        assertEquals(1, executions.get());
+        verify(repository, times(2)).tryReserve(eq("k6"), anyString(), any(), any(), any());
+        verify(repository).complete(eq("k6"), eq(RESERVED_AT), any());
+    }
+
+    @Test
+    public void keyInProgressWithDifferentBody_throwsUnprocessableEntityWithoutWaiting() {
+        when(repository.tryReserve(eq("k7"), anyString(), any(), any(), any())).thenReturn(null);
+        when(repository.find(eq("k7"), any(Instant.class))).thenReturn(Optional.of(
+                new StoredResponse("other-hash", null, null, null)));
+
+        long started = System.nanoTime();
+        assertThrows(UnprocessableEntityException.class,
+                () -> idempotencyService.execute("k7", request(), ApplicationDto.class, this::create));
+
+        // wait-timeout в тесте 5 секунд
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(0, executions.get());
+        verify(repository, times(1)).find(eq("k7"), any(Instant.class));
+    }
+
+    @Test
+    public void responseIsStoredInTheActionTransaction() {
+        idempotencyService.execute("k8", request(), ApplicationDto.class, this::create);
+
+        InOrder order = inOrder(repository, transactionManager);
+        order.verify(repository).tryReserve(eq("k8"), anyString(), any(), any(), any());
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(repository).lock("k8", RESERVED_AT);
+        order.verify(repository).complete(eq("k8"), eq(RESERVED_AT), any());
+        order.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    public void storingResponseFails_actionRolledBackAndRetryRunsAgain() {
+        when(repository.complete(eq("k9"), any(), any()))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"))
+                .thenReturn(true);
+
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> idempotencyService.execute("k9", request(), ApplicationDto.class, this::create));
+        verify(transactionManager).rollback(any());
+        verify(repository).release("k9", RESERVED_AT);
+
+        // Ответ не закэширован - повтор выполняет действие в новой транзакции
+        idempotencyService.execute("k9", request(), ApplicationDto.class, this::create);
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    public void reservationTakenOverBeforeLock_actionDoesNotRun() {
+        when(repository.lock("k10", RESERVED_AT)).thenReturn(false);
+
+        assertThrows(ConflictException.class,
+                () -> idempotencyService.execute("k10", request(), ApplicationDto.class, this::create));
+        assertEquals(0, executions.get());
+        verify(repository, never()).complete(anyString(), any(), any());
+    }
+
+    @Test
+    public void concurrentDuplicates_runActionOnce() throws Exception {
+        ApplicationRequest req = request();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<ResponseEntity<ApplicationDto>>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(pool.submit(() -> idempotencyService.execute("k5", req, ApplicationDto.class, () -> {
+                awaitQuietly(release);
+                return create();
+            })));
+        }
+        Thread.sleep(100);
+        release.countDown();
+
+        Set<UUID> ids = new HashSet<>();
+        for (Future<ResponseEntity<ApplicationDto>> f : futures) {
+            ids.add(f.get(5, TimeUnit.SECONDS).getBody().getId());
+        }
+        pool.shutdown();
+
+        assertEquals(1, executions.get());
+        assertEquals(1, ids.size());
+    }
+
+    @Test
+    public void blankOrTooLongKey_throwsBadRequest() {
+        assertThrows(BadRequestException.class,
+                () -> idempotencyService.execute(" ", request(), ApplicationDto.class, this::create));
+        assertThrows(BadRequestException.class,
+                () -> idempotencyService.execute("x".repeat(256), request(), ApplicationDto.class, this::create));
+        assertEquals(0, executions.get());
+    }
+
+    private ResponseEntity<ApplicationDto> create() {
+        executions.incrementAndGet();
+        ApplicationDto dto = new ApplicationDto();
+        dto.setId(UUID.randomUUID());
+        dto.setStatus(ApplicationStatus.SUBMITTED);
+        dto.setCreatedAt(Instant.now());
+        return ResponseEntity.created(URI.create("/api/v1/applications/" + dto.getId())).body(dto);
+    }
+
+    private static ApplicationRequest request() {
+        ApplicationRequest req = new ApplicationRequest();
+        req.setApplicantId(UUID.fromString("00000000-0000-0000-0000-000000000001"));
+        req.setProductId(UUID.fromString("00000000-0000-0000-0000-000000000002"));
+        return req;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.bankticketsystem.service;
+
+import com.example.bankticketsystem.model.enums.AssignmentRole;
+import com.example.bankticketsystem.repository.UserProductAssignmentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ProductPermissionIndexTest {
+
+    private UserProductAssignmentRepository repo;
+    private ProductPermissionIndex index;
+    private final UUID userId = UUID.randomUUID();
+    private final UUID productId = UUID.randomUUID();
+
+    @BeforeEach
+    public void setUp() {
+        repo = mock(UserProductAssignmentRepository.class);
+        index = new ProductPermissionIndex(repo, Duration.ofMinutes(5));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void hasRole_loadsUserOnceAndAnswersFromMemory() {
+        UUID otherProduct = UUID.randomUUID();
+        when(repo.findProductRolesByUserId(userId)).thenReturn(List.of(
+                new Object[]{productId, AssignmentRole.PRODUCT_OWNER},
+                new Object[]{otherProduct, AssignmentRole.SUPPORT}));
+
+        assertTrue(index.hasRole(userId, productId, AssignmentRole.PRODUCT_OWNER));
+        assertFalse(index.hasRole(userId, otherProduct, AssignmentRole.PRODUCT_OWNER));
+        assertFalse(index.hasRole(userId, UUID.randomUUID(), AssignmentRole.PRODUCT_OWNER));
+        assertFalse(index.hasRole(null, productId, AssignmentRole.PRODUCT_OWNER));
+
+        verify(repo, times(1)).findProductRolesByUserId(userId);
+    }
+
+    @Test
+    public void invalidate_insideTransaction_dropsRowAgainAfterCommit() {
+        when(repo.findProductRolesByUserId(userId))
+                .thenReturn(List.of())
+                .thenReturn(List.of())
+                .thenReturn(List.<Object[]>of(new Object[]{productId, AssignmentRole.PRODUCT_OWNER}));
+        assertFalse(index.hasRole(userId, productId, AssignmentRole.PRODUCT_OWNER));
+
+        TransactionSynchronizationManager.initSynchronization();
+        index.invalidate(userId);
+        // Другой запрос до коммита видит в БД прежнее состояние и кладёт его в индекс
+        assertFalse(index.hasRole(userId, productId, AssignmentRole.PRODUCT_OWNER));
+        for (TransactionSynchronization s : TransactionSynchronizationManager.getSynchronizations()) {
+            s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+
+        assertTrue(index.hasRole(userId, productId, AssignmentRole.PRODUCT_OWNER));
+        verify(repo, times(3)).findProductRolesByUserId(userId);
+    }
+
+    @Test
+    public void loadRacingWithInvalidation_isNotCached() {
+        when(repo.findProductRolesByUserId(userId)).thenAnswer(inv -> {
+            // Назначение изменилось, пока шёл запрос
+            index.invalidateAll();
+            return List.of();
+        });
+
+        assertFalse(index.hasRole(userId, productId, AssignmentRole.PRODUCT_OWNER));
+        assertFalse(index.hasRole(userId, productId, AssignmentRole.PRODUCT_OWNER));
+
+        verify(repo, times(2)).findProductRolesByUserId(userId);
+    }
+
+    @Test
+    public void rowsExpireAfterMaxAge() {
+        index = new ProductPermissionIndex(repo, Duration.ZERO);
+        when(repo.findProductRolesByUserId(userId)).thenReturn(List.of());
+
+        index.hasRole(userId, productId, AssignmentRole.PRODUCT_OWNER);
+        index.hasRole(userId, productId, AssignmentRole.PRODUCT_OWNER);
+
+        verify(repo, times(2)).findProductRolesByUserId(userId);
+    }
+}
@@ -44,10 +44,13 @@ public class ProductServiceTest {
     @Mock
     private UserProductAssignmentService assignmentService;
 
+    @Mock
+    private ApplicationViewService viewService;
+
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
-        productService = new ProductService(productRepository, userService, applicationService, assignmentService);
+        productService = new ProductService(productRepository, userService, applicationService, assignmentService, viewService);
     }
 
     // -----------------------
@@ -269,6 +272,7 @@ public class ProductServiceTest {
         assertEquals("newDesc", resp.getDescription());
         verify(productRepository, times(1)).save(any(Product.class));
         verify(assignmentService, times(1)).existsByUserIdAndProductIdAndRoleOnProduct(actorId, productId, AssignmentRole.PRODUCT_OWNER);
+        verify(viewService, times(1)).productRenamed(productId);
     }
 
     @Test
@@ -3,13 +3,18 @@ package com.example.bankticketsystem.service;
 import com.example.bankticketsystem.dto.ApplicationDto;
 import com.example.bankticketsystem.dto.DocumentDto;
 import com.example.bankticketsystem.dto.TagDto;
+import com.example.bankticketsystem.exception.BadRequestException;
 import com.example.bankticketsystem.exception.NotFoundException;
 import com.example.bankticketsystem.model.entity.Application;
 import com.example.bankticketsystem.model.entity.Document;
 import com.example.bankticketsystem.model.entity.Tag;
 import com.example.bankticketsystem.model.entity.User;
 import com.example.bankticketsystem.model.entity.Product;
+import com.example.bankticketsystem.repository.ApplicationRepository;
+import com.example.bankticketsystem.repository.DocumentRepository;
 import com.example.bankticketsystem.repository.TagRepository;
+import com.example.bankticketsystem.util.CursorUtil;
+import com.example.bankticketsystem.util.TagApplicationsPage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
@@ -28,13 +33,19 @@ public class TagServiceTest {
     @Mock
     private TagRepository repo;
 
+    @Mock
+    private ApplicationRepository applicationRepository;
+
+    @Mock
+    private DocumentRepository documentRepository;
+
     @InjectMocks
     private TagService tagService;
 
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
-        tagService = new TagService(repo);
+        tagService = new TagService(repo, applicationRepository, documentRepository);
     }
 
     // -----------------------
@@ -120,150 +131,127 @@ public class TagServiceTest {
     // -----------------------
     @Test
     public void getTagWithApplications_tagNotFound_throws() {
-        when(repo.findByNameWithApplications("nonexistent")).thenReturn(Optional.empty());
-        NotFoundException ex = assertThrows(NotFoundException.class, () -> tagService.getTagWithApplications("nonexistent"));
+        when(repo.findByName("nonexistent")).thenReturn(Optional.empty());
+        NotFoundException ex = assertThrows(NotFoundException.class, () -> tagService.getTagWithApplications("nonexistent", null, 20));
         assertTrue(ex.getMessage().contains("Tag not found"));
-        verify(repo, times(1)).findByNameWithApplications("nonexistent");
+        verify(repo, times(1)).findByName("nonexistent");
+        verifyNoInteractions(applicationRepository, documentRepository);
+    }
+
+    @Test
+    public void getTagWithApplications_invalidLimit_throwsBadRequest() {
+        assertThrows(BadRequestException.class, () -> tagService.getTagWithApplications("payments", null, 0));
+        verifyNoInteractions(repo, applicationRepository, documentRepository);
     }
 
     @Test
     public void getTagWithApplications_mapsApplicationsToDtos() {
-        // Prepare Tag with two applications (each with documents and tags)
-        Tag tag = new Tag();
-        tag.setId(UUID.randomUUID());
-        tag.setName("payments");
-
-        // Application 1
-        Application a1 = new Application();
-        UUID a1Id = UUID.randomUUID();
-        a1.setId(a1Id);
-        User applicant1 = new User();
-        applicant1.setId(UUID.randomUUID());
-        a1.setApplicant(applicant1);
-        Product product1 = new Product();
-        product1.setId(UUID.randomUUID());
-        a1.setProduct(product1);
-        a1.setStatus(null);
-        a1.setCreatedAt(Instant.now());
-        Document d1 = new Document();
-        d1.setId(UUID.randomUUID());
-        d1.setFileName("doc1.pdf");
-        d1.setContentType("application/pdf");
-        d1.setStoragePath("/tmp/doc1");
-        d1.setApplication(a1);
-        a1.setDocuments(List.of(d1));
-        a1.setTags(new HashSet<>(List.of(tag)));
-
-        // Application 2
-        Application a2 = new Application();
-        UUID a2Id = UUID.randomUUID();
-        a2.setId(a2Id);
-        User applicant2 = new User();
-        applicant2.setId(UUID.randomUUID());
-        a2.setApplicant(applicant2);
-        Product product2 = new Product();
-        product2.setId(UUID.randomUUID());
-        a2.setProduct(product2);
-        a2.setStatus(null);
-        a2.setCreatedAt(Instant.now());
-        Document d2 = new Document();
-        d2.setId(UUID.randomUUID());
-        d2.setFileName("doc2.txt");
-        d2.setContentType("text/plain");
-        d2.setStoragePath("/tmp/doc2");
-        d2.setApplication(a2);
-        a2.setDocuments(List.of(d2));
-        a2.setTags(new HashSet<>(List.of(tag)));
-
-        // attach applications to tag
-        tag.setApplications(new HashSet<>(List.of(a1, a2)));
-
-        when(repo.findByNameWithApplications("payments")).thenReturn(Optional.of(tag));
-
-        TagDto dto = tagService.getTagWithApplications("payments");
+        Tag tag = tag("payments");
+        Application a1 = application(Instant.now());
+        Application a2 = application(Instant.now().minusSeconds(10));
+        Document d1 = document(a1, "doc1.pdf");
+        Document d2 = document(a2, "doc2.txt");
+
+        when(repo.findByName("payments")).thenReturn(Optional.of(tag));
+        when(applicationRepository.findFirstPageByTag(tag.getId(), 20)).thenReturn(List.of(a1, a2));
+        when(documentRepository.findByApplicationIdIn(List.of(a1.getId(), a2.getId()))).thenReturn(List.of(d1, d2));
+        when(repo.findNamesByApplicationIds(List.of(a1.getId(), a2.getId()))).thenReturn(List.of(
+                new Object[]{a1.getId(), "payments"},
+                new Object[]{a1.getId(), "vip"},
+                new Object[]{a2.getId(), "payments"}));
+
+        TagApplicationsPage page = tagService.getTagWithApplications("payments", null, 20);
+        TagDto dto = page.tag();
 
         assertNotNull(dto);
         assertEquals("payments", dto.getName());
-        // applications list should be present and contain two entries
         assertNotNull(dto.getApplications());
         assertEquals(2, dto.getApplications().size());
+        // страница неполная - следующей нет
+        assertNull(page.nextCursor());
 
-        // find DTO for application a1 and check its documents and tags
-        Optional<ApplicationDto> found = dto.getApplications().stream()
-                .filter(adto -> a1Id.equals(adto.getId()))
-                .findFirst();
-        assertTrue(found.isPresent());
-        ApplicationDto adto = found.get();
+        ApplicationDto adto = dto.getApplications().get(0);
+        assertEquals(a1.getId(), adto.getId());
         assertEquals(a1.getApplicant().getId(), adto.getApplicantId());
         assertEquals(a1.getProduct().getId(), adto.getProductId());
-        assertNotNull(adto.getDocuments());
+        assertEquals(a1.getCreatedAt(), adto.getCreatedAt());
         assertEquals(1, adto.getDocuments().size());
         DocumentDto dd = adto.getDocuments().get(0);
         assertEquals("doc1.pdf", dd.getFileName());
-        assertTrue(adto.getTags().contains("payments"));
+        assertEquals("application/pdf", dd.getContentType());
+        assertEquals(List.of("payments", "vip"), adto.getTags());
+        assertEquals("doc2.txt", dto.getApplications().get(1).getDocuments().get(0).getFileName());
 
-        verify(repo, times(1)).findByNameWithApplications("payments");
+        // дочерние коллекции загружаются одним запросом на страницу
+        verify(documentRepository, times(1)).findByApplicationIdIn(anyCollection());
+        verify(repo, times(1)).findNamesByApplicationIds(anyCollection());
     }
 
-    // -----------------------
-    // toDto tests
-    // -----------------------
+    @Test
+    public void getTagWithApplications_fullPage_returnsCursorForNextPage() {
+        Tag tag = tag("vip");
+        Application a1 = application(Instant.now());
+        Application a2 = application(Instant.now().minusSeconds(10));
+
+        when(repo.findByName("vip")).thenReturn(Optional.of(tag));
+        when(applicationRepository.findFirstPageByTag(tag.getId(), 2)).thenReturn(List.of(a1, a2));
+
+        TagApplicationsPage first = tagService.getTagWithApplications("vip", null, 2);
+
+        assertEquals(CursorUtil.encode(a2.getCreatedAt(), a2.getId()), first.nextCursor());
+        assertTrue(first.tag().getApplications().get(0).getDocuments().isEmpty());
+
+        Application a3 = application(Instant.now().minusSeconds(20));
+        when(applicationRepository.findByTagKeyset(tag.getId(), a2.getCreatedAt(), a2.getId(), 2)).thenReturn(List.of(a3));
+
+        TagApplicationsPage second = tagService.getTagWithApplications("vip", first.nextCursor(), 2);
+
+        assertEquals(1, second.tag().getApplications().size());
+        assertEquals(a3.getId(), second.tag().getApplications().get(0).getId());
+        assertNull(second.nextCursor());
+    }
 
     @Test
-    public void toApplicationDto_mapsAllFieldsCorrectly() {
+    public void getTagWithApplications_emptyPage_skipsChildQueries() {
+        Tag tag = tag("rare");
+        when(repo.findByName("rare")).thenReturn(Optional.of(tag));
+        when(applicationRepository.findFirstPageByTag(tag.getId(), 20)).thenReturn(List.of());
+
+        TagApplicationsPage page = tagService.getTagWithApplications("rare", null, 20);
+
+        assertTrue(page.tag().getApplications().isEmpty());
+        assertNull(page.nextCursor());
+        verifyNoInteractions(documentRepository);
+        verify(repo, never()).findNamesByApplicationIds(any());
+    }
+
+    private Tag tag(String name) {
         Tag tag = new Tag();
         tag.setId(UUID.randomUUID());
-        tag.setName("test");
+        tag.setName(name);
+        return tag;
+    }
 
+    private Application application(Instant createdAt) {
         Application app = new Application();
-        UUID appId = UUID.randomUUID();
-        app.setId(appId);
-
+        app.setId(UUID.randomUUID());
         User applicant = new User();
-        UUID applicantId = UUID.randomUUID();
-        applicant.setId(applicantId);
+        applicant.setId(UUID.randomUUID());
         app.setApplicant(applicant);
-
         Product product = new Product();
-        UUID productId = UUID.randomUUID();
-        product.setId(productId);
+        product.setId(UUID.randomUUID());
         app.setProduct(product);
-
-        app.setStatus(null);
-        Instant createdAt = Instant.now();
         app.setCreatedAt(createdAt);
+        return app;
+    }
 
-        Document doc = new Document();
-        UUID docId = UUID.randomUUID();
-        doc.setId(docId);
-        doc.setFileName("test.pdf");
-        doc.setContentType("application/pdf");
-        doc.setStoragePath("/tmp/test");
-        doc.setApplication(app);
-        app.setDocuments(List.of(doc));
-
-        app.setTags(new HashSet<>(List.of(tag)));
-
-        // Since toApplicationDto is private, we need to test it indirectly
-        // by calling getTagWithApplications which uses it
-        tag.setApplications(new HashSet<>(List.of(app)));
-
-        when(repo.findByNameWithApplications("test")).thenReturn(Optional.of(tag));
-
-        TagDto tagDto = tagService.getTagWithApplications("test");
-
-        assertNotNull(tagDto);
-        assertNotNull(tagDto.getApplications());
-        assertEquals(1, tagDto.getApplications().size());
-
-        ApplicationDto appDto = tagDto.getApplications().get(0);
-        assertEquals(appId, appDto.getId());
-        assertEquals(applicantId, appDto.getApplicantId());
-        assertEquals(productId, appDto.getProductId());
-        assertEquals(createdAt, appDto.getCreatedAt());
-        assertNotNull(appDto.getDocuments());
-        assertEquals(1, appDto.getDocuments().size());
-        assertEquals("test.pdf", appDto.getDocuments().get(0).getFileName());
-        assertTrue(appDto.getTags().contains("test"));
+    private Document document(Application app, String fileName) {
+        Document d = new Document();
+        d.setId(UUID.randomUUID());
+        d.setFileName(fileName);
+        d.setContentType(fileName.endsWith(".pdf") ? "application/pdf" : "text/plain");
+        d.setStoragePath("/tmp/" + fileName);
+        d.setApplication(app);
+        return d;
     }
-}
\ No newline at end of file
+}
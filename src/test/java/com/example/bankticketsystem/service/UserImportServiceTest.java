@@ -0,0 +1,206 @@
+package com.example.bankticketsystem.service;
+
+import com.example.bankticketsystem.config.UserImportProperties;
+import com.example.bankticketsystem.dto.UserImportResultDto;
+import com.example.bankticketsystem.exception.BadRequestException;
+import com.example.bankticketsystem.exception.ForbiddenException;
+import com.example.bankticketsystem.exception.UnauthorizedException;
+import com.example.bankticketsystem.model.entity.User;
+import com.example.bankticketsystem.model.enums.UserRole;
+import com.example.bankticketsystem.repository.UserBulkRepository;
+import com.example.bankticketsystem.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.password4j.Password;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UserImportServiceTest {
+
+    private UserRepository userRepository;
+    private UserBulkRepository bulkRepository;
+    private UserImportProperties properties;
+    private UserImportService service;
+    private UUID adminId;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        bulkRepository = mock(UserBulkRepository.class);
+        properties = new UserImportProperties();
+        properties.setHashParallelism(2);
+        adminId = UUID.randomUUID();
+        User admin = new User();
+        admin.setId(adminId);
+        admin.setRole(UserRole.ROLE_ADMIN);
+        when(userRepository.findById(adminId)).thenReturn(Optional.of(admin));
+        when(bulkRepository.findExistingUsernames(anyList())).thenReturn(Set.of());
+        when(bulkRepository.findExistingEmails(anyList())).thenReturn(Set.of());
+        // Вставляются все переданные
+        when(bulkRepository.insertAll(anyList(), any(), any())).thenAnswer(inv -> {
+            List<User> users = inv.getArgument(0);
+            return users.stream().map(User::getId).collect(Collectors.toSet());
+        });
+        service = newService();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void csv_createsValidRowsAndReportsInvalidOnesByLine() {
+        String csv = """
+                username,email,password
+                alice,Alice@Example.com,"pa,ss""word1"
+                bob,not-an-email,Password123
+
+                carol,carol@example.com,short
+                alice,other@example.com,Password123
+                """;
+
+        UserImportResultDto result = service.importUsers(adminId, body(csv), "text/csv");
+
+        assertEquals(4, result.getTotal());
+        assertEquals(1, result.getCreated());
+        assertEquals(3, result.getFailed());
+        assertEquals(List.of(3L, 5L, 6L), result.getErrors().stream().map(UserImportResultDto.RowError::getLine).toList());
+        assertTrue(result.getErrors().get(0).getMessage().startsWith("email:"));
+        assertTrue(result.getErrors().get(1).getMessage().startsWith("password:"));
+        assertEquals("Duplicate username, first used on line 2", result.getErrors().get(2).getMessage());
+
+        User alice = insertedUsers().get(0);
+        assertEquals("alice", alice.getUsername());
+        assertEquals("alice@example.com", alice.getEmail());
+        assertTrue(Password.check("pa,ss\"word1", alice.getPasswordHash()).withBcrypt());
+        verify(bulkRepository).insertAll(anyList(), eq(UserRole.ROLE_CLIENT), any());
+    }
+
+    @Test
+    void csv_headerColumnsInAnyOrder() {
+        String csv = "﻿Password,Email,Username\nPassword123,dave@example.com,dave\n";
+
+        UserImportResultDto result = service.importUsers(adminId, body(csv), "text/csv; charset=UTF-8");
+
+        assertEquals(1, result.getCreated());
+        assertEquals("dave", insertedUsers().get(0).getUsername());
+    }
+
+    @Test
+    void csv_headerWithoutRequiredColumn_throwsBadRequest() {
+        assertThrows(BadRequestException.class,
+                () -> service.importUsers(adminId, body("username,email\nerin,erin@example.com\n"), "text/csv"));
+        verifyNoInteractions(bulkRepository);
+    }
+
+    @Test
+    void ndjson_reportsExistingAndMalformedRows() {
+        when(bulkRepository.findExistingEmails(anyList())).thenReturn(Set.of("taken@example.com"));
+        String ndjson = """
+                {"username":"frank","email":"frank@example.com","password":"Password123"}
+                {"username":"grace","email":"taken@example.com","password":"Password123"}
+                {"username":"heidi",
+                """;
+
+        UserImportResultDto result = service.importUsers(adminId, body(ndjson), "application/x-ndjson");
+
+        assertEquals(3, result.getTotal());
+        assertEquals(1, result.getCreated());
+        assertEquals("Email already in use", result.getErrors().get(0).getMessage());
+        assertEquals(2L, result.getErrors().get(0).getLine());
+        assertTrue(result.getErrors().get(1).getMessage().startsWith("Malformed JSON"));
+    }
+
+    @Test
+    void rowsAreProcessedInChunksWithSetBasedQueries() {
+        properties.setChunkSize(2);
+        service.shutdown();
+        service = newService();
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 5; i++) {
+            ndjson.append("{\"username\":\"user").append(i).append("\",\"email\":\"user").append(i)
+                    .append("@example.com\",\"password\":\"Password123\"}\n");
+        }
+
+        UserImportResultDto result = service.importUsers(adminId, body(ndjson.toString()), "application/x-ndjson");
+
+        assertEquals(5, result.getCreated());
+        verify(bulkRepository, times(3)).findExistingUsernames(anyList());
+        verify(bulkRepository, times(3)).insertAll(anyList(), any(), any());
+    }
+
+    @Test
+    void rowTakenConcurrentlyBetweenCheckAndInsert_isReported() {
+        when(bulkRepository.insertAll(anyList(), any(), any())).thenReturn(Set.of());
+
+        UserImportResultDto result = service.importUsers(adminId,
+                body("username,email,password\nivan,ivan@example.com,Password123\n"), "text/csv");
+
+        assertEquals(0, result.getCreated());
+        assertEquals(1, result.getFailed());
+        assertEquals("Username or email already in use", result.getErrors().get(0).getMessage());
+    }
+
+    @Test
+    void reportedErrorsAreCapped() {
+        properties.setMaxReportedErrors(2);
+        UserImportResultDto result = service.importUsers(adminId,
+                body("username,email,password\na,bad,x\nb,bad,x\nc,bad,x\n"), "text/csv");
+
+        assertEquals(3, result.getFailed());
+        assertEquals(2, result.getErrors().size());
+    }
+
+    @Test
+    void nonAdmin_throwsForbidden() {
+        UUID clientId = UUID.randomUUID();
+        User client = new User();
+        client.setId(clientId);
+        client.setRole(UserRole.ROLE_CLIENT);
+        when(userRepository.findById(clientId)).thenReturn(Optional.of(client));
+
+        assertThrows(ForbiddenException.class, () -> service.importUsers(clientId, body(""), "text/csv"));
+        assertThrows(UnauthorizedException.class, () -> service.importUsers(null, body(""), "text/csv"));
+    }
+
+    @Test
+    void unsupportedContentType_throwsBadRequest() {
+        assertThrows(BadRequestException.class, () -> service.importUsers(adminId, body("{}"), "application/json"));
+    }
+
+    @Test
+    void parseCsvLine_handlesQuotes() {
+        assertEquals(List.of("a", "b,c", "d\"e", ""), UserImportService.parseCsvLine("a,\"b,c\",\"d\"\"e\","));
+        assertNull(UserImportService.parseCsvLine("a,\"b"));
+    }
+
+    private UserImportService newService() {
+        return new UserImportService(userRepository, bulkRepository,
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(),
+                mock(PlatformTransactionManager.class), properties);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<User> insertedUsers() {
+        ArgumentCaptor<List<User>> captor = ArgumentCaptor.forClass(List.class);
+        verify(bulkRepository, atLeastOnce()).insertAll(captor.capture(), any(), any());
+        return captor.getAllValues().stream().flatMap(List::stream).toList();
+    }
+
+    private static ByteArrayInputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
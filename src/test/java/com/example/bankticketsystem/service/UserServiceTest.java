@@ -37,6 +37,9 @@ class UserServiceTest {
     @Mock
     private ApplicationService applicationService;
 
+    @Mock
+    private ApplicationViewService viewService;
+
     @InjectMocks
     private UserService userService;
 
@@ -183,6 +186,7 @@ class UserServiceTest {
             assertEquals("newname", dto.getUsername());
             assertEquals("new@example.com", dto.getEmail());
             assertEquals(UserRole.ROLE_CLIENT, dto.getRole());
+            verify(viewService, times(1)).applicantRenamed(id);
         }
     }
 
@@ -0,0 +1,81 @@
+package com.example.bankticketsystem.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UuidV7Test {
+
+    @Test
+    public void next_hasVersion7VariantAndCurrentTime() {
+        long before = System.currentTimeMillis();
+        UUID id = UuidV7.next();
+        long after = System.currentTimeMillis();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        long ts = UuidV7.timestamp(id);
+        assertTrue(ts >= before && ts <= after + 1, "timestamp " + ts + " not in [" + before + ", " + after + "]");
+    }
+
+    @Test
+    public void sameThread_idsStrictlyIncrease() {
+        UUID prev = UuidV7.next();
+        for (int i = 0; i < 100_000; i++) {
+            UUID id = UuidV7.next();
+            // Сравнение как в PostgreSQL: беззнаковое побайтовое
+            assertTrue(compareUnsigned(prev, id) < 0, prev + " >= " + id);
+            prev = id;
+        }
+    }
+
+    @Test
+    public void counterOverflowAndClockGoingBack_stayMonotonic() {
+        UuidV7.State state = new UuidV7.State();
+        UUID prev = state.next(1_000);
+        // Больше id за одну миллисекунду, чем вмещает счётчик
+        for (int i = 0; i < 5_000; i++) {
+            UUID id = state.next(1_000);
+            assertTrue(compareUnsigned(prev, id) < 0);
+            prev = id;
+        }
+        assertTrue(UuidV7.timestamp(prev) > 1_000);
+
+        UUID afterClockBack = state.next(500);
+        assertTrue(compareUnsigned(prev, afterClockBack) < 0);
+    }
+
+    @Test
+    public void concurrentThreads_produceUniqueIds() throws Exception {
+        int threads = 4, perThread = 20_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<UUID>>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    List<UUID> ids = new ArrayList<>(perThread);
+                    for (int i = 0; i < perThread; i++) ids.add(UuidV7.next());
+                    return ids;
+                }));
+            }
+            Set<UUID> all = new HashSet<>();
+            for (Future<List<UUID>> f : futures) all.addAll(f.get());
+            assertEquals(threads * perThread, all.size());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void timestamp_rejectsOtherVersions() {
+        assertThrows(IllegalArgumentException.class, () -> UuidV7.timestamp(UUID.randomUUID()));
+    }
+
+    private static int compareUnsigned(UUID a, UUID b) {
+        int c = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return c != 0 ? c : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}